@@ -0,0 +1,56 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import com.luizalabs.desafio_tecnico.dto.FileProcessingResultDTO;
+import com.luizalabs.desafio_tecnico.service.FileProcessingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processamento ponta a ponta de um arquivo gerado. {@code processFile} passa pelo roteamento por tamanho
+ * (leitura por stream ou mapeada), {@code processPath} mede só o caminho mapeado/paralelo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FileProcessingBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public long lines;
+
+    // 0.3: arquivos "sujos" como os de sistemas legados; o custo por linha deve ficar próximo ao de 0.01
+    @Param({"0.01", "0.3"})
+    public double invalidRatio;
+
+    private FileProcessingService service;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("benchmark-pedidos-", ".txt");
+        new OrderLineGenerator((int) Math.max(1, lines / 20), invalidRatio).write(file, lines);
+        service = new FileProcessingService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public FileProcessingResultDTO processFile() throws IOException {
+        return service.processFile(new PathMultipartFile(file));
+    }
+
+    @Benchmark
+    public FileProcessingResultDTO processPath() throws IOException {
+        return service.processPath(file);
+    }
+}
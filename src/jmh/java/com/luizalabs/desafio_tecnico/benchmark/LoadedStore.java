@@ -0,0 +1,37 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import com.luizalabs.desafio_tecnico.service.FileProcessingService;
+import com.luizalabs.desafio_tecnico.service.OrderQueryService;
+import com.luizalabs.desafio_tecnico.store.StoreLayout;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** Store de consulta carregado com um upload sintético, compartilhado pelos benchmarks de consulta. */
+@State(Scope.Benchmark)
+public class LoadedStore {
+
+    @Param({"1000000"})
+    public long lines;
+
+    @Param({"HEAP", "COLUMNAR", "OFF_HEAP"})
+    public StoreLayout layout;
+
+    OrderQueryService queryService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path file = Files.createTempFile("benchmark-consulta-", ".txt");
+        FileProcessingService processing = new FileProcessingService();
+        queryService = new OrderQueryService(layout);
+        try {
+            new OrderLineGenerator((int) Math.max(1, lines / 20), 0.0).write(file, lines);
+            queryService.salvarPedidos(processing.processPath(file).getUsers());
+        } finally {
+            processing.shutdown();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gera linhas sintéticas no layout de 95 colunas, com uma fração configurável de linhas inválidas. A semente é
+ * fixa para que todas as execuções processem os mesmos dados.
+ */
+public final class OrderLineGenerator {
+
+    private static final String[] NAMES = {
+            "João Silva", "Maria Santos", "Pedro Oliveira", "Ana Costa", "Lucas Pereira",
+            "Juliana Almeida", "Carlos Souza", "Fernanda Lima", "Rafael Gomes", "Beatriz Rocha"
+    };
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final int users;
+    private final double invalidRatio;
+
+    public OrderLineGenerator(int users, double invalidRatio) {
+        this.users = users;
+        this.invalidRatio = invalidRatio;
+    }
+
+    public String next() {
+        long userId = 1 + random.nextInt(users);
+        long orderId = userId * 10 + random.nextInt(10);
+        long productId = 1 + random.nextInt(1_000_000);
+        String value = String.format("%d.%02d", random.nextInt(100_000), random.nextInt(100));
+        String date = String.format("2024%02d%02d", 1 + random.nextInt(12), 1 + random.nextInt(28));
+        String name = NAMES[(int) (userId % NAMES.length)] + " " + userId;
+
+        if (random.nextDouble() < invalidRatio) {
+            switch (random.nextInt(7)) {
+                case 0 -> name = "";
+                case 1 -> value = "12X.45";
+                case 2 -> date = "20241340";
+                case 3 -> value = "1.234.56";
+                case 4 -> date = "2024AB01";
+                case 5 -> {
+                    return format(userId, name, orderId, productId, value, date).substring(0, 60);
+                }
+                default -> {
+                    return "00000ABC12" + format(userId, name, orderId, productId, value, date).substring(10);
+                }
+            }
+        }
+        return format(userId, name, orderId, productId, value, date);
+    }
+
+    public List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(next());
+        }
+        return lines;
+    }
+
+    public void write(Path file, long count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < count; i++) {
+                writer.write(next());
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static String format(long userId, String name, long orderId, long productId, String value, String date) {
+        return String.format("%010d%-45s%010d%010d%12s%s", userId, name, orderId, productId, value, date);
+    }
+}
@@ -0,0 +1,43 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** {@code consultarPedidos} com cada combinação de filtro sobre um upload já carregado. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderQueryBenchmark {
+
+    public enum Filter { NONE, ORDER_ID, DATE_RANGE, ORDER_ID_AND_DATE }
+
+    @Param({"NONE", "ORDER_ID", "DATE_RANGE", "ORDER_ID_AND_DATE"})
+    public Filter filter;
+
+    private Optional<Long> orderId;
+    private Optional<LocalDate> from;
+    private Optional<LocalDate> to;
+
+    @Setup(Level.Trial)
+    public void setup(LoadedStore store) {
+        UserDTO sample = store.queryService.buscarTodosUsuarios().get(0);
+        boolean byOrder = filter == Filter.ORDER_ID || filter == Filter.ORDER_ID_AND_DATE;
+        boolean byDate = filter == Filter.DATE_RANGE || filter == Filter.ORDER_ID_AND_DATE;
+        orderId = byOrder ? Optional.of(sample.getOrders().get(0).getId()) : Optional.empty();
+        from = byDate ? Optional.of(LocalDate.of(2024, 3, 1)) : Optional.empty();
+        to = byDate ? Optional.of(LocalDate.of(2024, 3, 7)) : Optional.empty();
+    }
+
+    @Benchmark
+    public List<UserDTO> consultarPedidos(LoadedStore store) {
+        return store.queryService.consultarPedidos(orderId, from, to);
+    }
+}
@@ -0,0 +1,58 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.parser.ParsedRecord;
+import com.luizalabs.desafio_tecnico.service.ParsedLineService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Custo por linha do parser estrito, pela API de String e pela de bytes. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsedLineBenchmark {
+
+    private static final int LINES = 4096;
+
+    @Param({"0.0", "0.1", "0.3"})
+    public double invalidRatio;
+
+    private final ParsedLineService service = new ParsedLineService();
+    private final List<String> errors = new ArrayList<>();
+    private final ParsedRecord record = new ParsedRecord();
+    private String[] lines;
+    private ByteBuffer[] buffers;
+    private int next;
+
+    @Setup
+    public void setup() {
+        lines = new OrderLineGenerator(1_000, invalidRatio).lines(LINES).toArray(String[]::new);
+        buffers = new ByteBuffer[LINES];
+        for (int i = 0; i < LINES; i++) {
+            buffers[i] = ByteBuffer.wrap(lines[i].getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public ParsedLine parseString() {
+        errors.clear();
+        int i = next++ & (LINES - 1);
+        return service.parse(lines[i], i + 1, errors);
+    }
+
+    @Benchmark
+    public boolean parseBytes() {
+        errors.clear();
+        int i = next++ & (LINES - 1);
+        ByteBuffer buffer = buffers[i];
+        return service.parse(buffer, 0, buffer.limit(), i + 1, errors, record);
+    }
+}
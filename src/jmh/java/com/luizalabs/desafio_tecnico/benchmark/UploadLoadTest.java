@@ -0,0 +1,197 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import com.luizalabs.desafio_tecnico.DesafioTecnicoApplication;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teste de carga que compara o Tomcat com pool de threads de plataforma e com virtual threads
+ * ({@code spring.threads.virtual.enabled}). Para cada modo sobe a aplicação, dispara uploads simultâneos em
+ * {@code /api/upload} e, ao mesmo tempo, consultas em {@code /api/orders}. Mede o pico de uploads atendidos em
+ * paralelo pelo servidor, o tempo total dos uploads e o p50/p99 das consultas.
+ *
+ * <p>Argumentos {@code chave=valor}: {@code uploads} (padrão 400), {@code lines} por arquivo (padrão 20000),
+ * {@code queryClients} (padrão 16) e {@code modes} ({@code platform,virtual}).
+ */
+public final class UploadLoadTest {
+
+    private static final String BOUNDARY = "carga-" + System.nanoTime();
+
+    private UploadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            options.put(parts[0], parts.length > 1 ? parts[1] : "");
+        }
+        int uploads = Integer.parseInt(options.getOrDefault("uploads", "400"));
+        int lines = Integer.parseInt(options.getOrDefault("lines", "20000"));
+        int queryClients = Integer.parseInt(options.getOrDefault("queryClients", "16"));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "platform,virtual").split(","));
+
+        byte[] body = multipart(new OrderLineGenerator(Math.max(1, lines / 20), 0.0).lines(lines));
+        List<String> report = new ArrayList<>();
+        for (String mode : modes) {
+            report.add(run(mode, "virtual".equals(mode), uploads, queryClients, body));
+        }
+        System.out.println();
+        System.out.printf("%-10s %10s %12s %12s %10s %10s %8s%n",
+                "modo", "uploads", "pico simult.", "tempo (ms)", "p50 (ms)", "p99 (ms)", "falhas");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, boolean virtualThreads, int uploads, int queryClients, byte[] body)
+            throws InterruptedException {
+        InFlightFilter.reset();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DesafioTecnicoApplication.class, InFlightFilter.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "logging.level.root=WARN",
+                        "spring.jpa.show-sql=false")
+                .run();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(30)).build();
+            URI uploadUri = URI.create("http://localhost:" + port + "/api/upload");
+            URI queryUri = URI.create("http://localhost:" + port + "/api/orders?orderId=15&limit=100");
+
+            // carga inicial, para as consultas terem o que ler
+            send(http, upload(uploadUri, body));
+
+            AtomicBoolean uploading = new AtomicBoolean(true);
+            ConcurrentLinkedQueue<Long> queryNanos = new ConcurrentLinkedQueue<>();
+            CountDownLatch queriesDone = new CountDownLatch(queryClients);
+            for (int i = 0; i < queryClients; i++) {
+                clients.execute(() -> {
+                    HttpRequest query = HttpRequest.newBuilder(queryUri).GET().build();
+                    while (uploading.get()) {
+                        long start = System.nanoTime();
+                        if (send(http, query)) {
+                            queryNanos.add(System.nanoTime() - start);
+                        }
+                    }
+                    queriesDone.countDown();
+                });
+            }
+
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch uploadsDone = new CountDownLatch(uploads);
+            long start = System.nanoTime();
+            for (int i = 0; i < uploads; i++) {
+                clients.execute(() -> {
+                    if (!send(http, upload(uploadUri, body))) {
+                        failures.incrementAndGet();
+                    }
+                    uploadsDone.countDown();
+                });
+            }
+            uploadsDone.await();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            uploading.set(false);
+            queriesDone.await();
+
+            long[] sorted = queryNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            return String.format("%-10s %10d %12d %12d %10.1f %10.1f %8d",
+                    mode, uploads, InFlightFilter.peak.get(), elapsedMillis,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), failures.get());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static boolean send(HttpClient http, HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 300;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static HttpRequest upload(URI uri, byte[] body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .timeout(Duration.ofMinutes(10))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private static byte[] multipart(List<String> lines) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"pedidos.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        for (String line : lines) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /** Conta os uploads em atendimento no servidor e guarda o pico. */
+    public static class InFlightFilter extends OncePerRequestFilter {
+
+        static final AtomicInteger current = new AtomicInteger();
+        static final AtomicInteger peak = new AtomicInteger();
+
+        static void reset() {
+            current.set(0);
+            peak.set(0);
+        }
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            return !request.getRequestURI().startsWith("/api/upload");
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+    }
+}
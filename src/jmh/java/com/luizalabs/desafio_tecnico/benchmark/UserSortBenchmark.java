@@ -0,0 +1,26 @@
+package com.luizalabs.desafio_tecnico.benchmark;
+
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** {@code buscarUsuariosOrdenados} por id e por nome. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserSortBenchmark {
+
+    @Benchmark
+    public List<UserDTO> porId(LoadedStore store) {
+        return store.queryService.buscarUsuariosOrdenados("id", "asc");
+    }
+
+    @Benchmark
+    public List<UserDTO> porNome(LoadedStore store) {
+        return store.queryService.buscarUsuariosOrdenados("name", "asc");
+    }
+}
@@ -0,0 +1,38 @@
+package com.luizalabs.desafio_tecnico.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ingest")
+public class IngestProperties {
+
+    // uploads a partir deste tamanho são gravados em arquivo temporário e lidos via memory-mapping
+    private DataSize mappedThreshold = DataSize.ofMegabytes(64);
+
+    // threads usadas no parse em paralelo de um mesmo arquivo (1 desliga o modo paralelo)
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // tamanho mínimo de cada trecho processado em paralelo
+    private DataSize parallelChunkSize = DataSize.ofMegabytes(32);
+
+    // nomes distintos guardados no dicionário de cada ingestão; acima disso os nomes novos não são deduplicados
+    private int nameDictionarySize = 1 << 16;
+
+    // erros guardados por upload para a resposta; os demais só entram nos contadores por código
+    private int maxErrors = 1000;
+
+    // se definido, cada upload grava todos os erros em um arquivo neste diretório
+    private Path errorDir;
+
+    // heap usado pela ordenação externa de um upload (externalSort); acima disso os registros vão para disco
+    private DataSize sortMemoryBudget = DataSize.ofMegabytes(64);
+
+    // diretório das runs da ordenação externa; vazio usa o diretório temporário do sistema
+    private Path sortDir;
+}
@@ -0,0 +1,24 @@
+package com.luizalabs.desafio_tecnico.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jobs")
+public class JobProperties {
+
+    // uploads assíncronos processados ao mesmo tempo; cada um mantém o resultado inteiro em memória
+    private int concurrency = 2;
+
+    // uploads aguardando na fila (só o arquivo em disco); acima disso o upload é recusado com 503
+    private int queueCapacity = 16;
+
+    // jobs mantidos para consulta; os finalizados mais antigos são descartados primeiro. Do job concluído só o
+    // resumo fica em memória: usuários e erros ficam em disco até o descarte
+    private int retained = 100;
+
+    // diretório do arquivo enviado e do resultado de cada job; vazio usa o temporário do sistema
+    private String dir;
+}
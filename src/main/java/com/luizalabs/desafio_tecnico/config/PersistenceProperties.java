@@ -0,0 +1,17 @@
+package com.luizalabs.desafio_tecnico.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.persistence")
+public class PersistenceProperties {
+
+    // grava cada upload no banco além do store em memória
+    private boolean enabled = false;
+
+    // linhas por executeBatch
+    private int batchSize = 5_000;
+}
@@ -0,0 +1,27 @@
+package com.luizalabs.desafio_tecnico.config;
+
+import com.luizalabs.desafio_tecnico.store.StoreLayout;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.store")
+public class StoreProperties {
+
+    // columnar ocupa menos heap por pedido, ao custo de montar os DTOs em cada consulta
+    private StoreLayout layout = StoreLayout.HEAP;
+
+    // append fica numa camada sobre o snapshot até somar esta fração dos pedidos; então o snapshot é remontado
+    private double compactFraction = 0.1;
+
+    // se definido, o store é gravado neste arquivo e recarregado dele (memory-mapping) na inicialização, no
+    // layout configurado: off_heap usa o arquivo mapeado, heap e columnar remontam os dados
+    private Path snapshotFile;
+
+    // grava o arquivo inteiro a cada upload, em segundo plano; com false só grava ao desligar a aplicação
+    private boolean snapshotOnUpload = true;
+}
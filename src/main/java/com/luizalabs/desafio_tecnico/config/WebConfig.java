@@ -1,9 +1,12 @@
 package com.luizalabs.desafio_tecnico.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import static com.luizalabs.desafio_tecnico.controller.OrderQueryController.NEXT_CURSOR_HEADER;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
@@ -12,6 +15,8 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                // cursor da próxima página e versão dos dados, lidos pelo cliente em outra origem
+                .exposedHeaders(NEXT_CURSOR_HEADER, HttpHeaders.ETAG);
     }
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package com.luizalabs.desafio_tecnico.controller;
 
 import com.luizalabs.desafio_tecnico.dto.ApiErrorDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.luizalabs.desafio_tecnico.dto.FileProcessingResultDTO;
+import com.luizalabs.desafio_tecnico.dto.IngestEventDTO;
+import com.luizalabs.desafio_tecnico.dto.UploadJobDTO;
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
 import com.luizalabs.desafio_tecnico.exceptions.InvalidFileFormatException;
+import com.luizalabs.desafio_tecnico.service.CompressedInput;
 import com.luizalabs.desafio_tecnico.service.FileProcessingService;
+import com.luizalabs.desafio_tecnico.service.IngestListener;
+import com.luizalabs.desafio_tecnico.service.OrderPersistenceService;
 import com.luizalabs.desafio_tecnico.service.OrderQueryService;
+import com.luizalabs.desafio_tecnico.service.UploadJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,13 +21,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,21 +41,38 @@ import java.util.List;
 @Tag(name = "File Processing", description = "Endpoints para processamento de arquivos de pedidos")
 public class FileUploadController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final FileProcessingService processingService;
     private final OrderQueryService queryService;
+    private final ObjectProvider<OrderPersistenceService> persistenceService;
+    private final UploadJobService jobService;
+    private final ObjectWriter eventWriter;
 
     public FileUploadController(FileProcessingService processingService,
-                                OrderQueryService queryService) {
+                                OrderQueryService queryService,
+                                ObjectProvider<OrderPersistenceService> persistenceService,
+                                UploadJobService jobService,
+                                ObjectMapper objectMapper) {
         this.processingService = processingService;
         this.queryService = queryService;
+        this.persistenceService = persistenceService;
+        this.jobService = jobService;
+        this.eventWriter = objectMapper.writerFor(IngestEventDTO.class);
     }
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    @Operation(summary = "Upload de arquivo com dados de pedidos")
+    @Operation(summary = "Upload de arquivo com dados de pedidos",
+            description = "Por padrão substitui os pedidos consultáveis. Com append=true o arquivo é tratado como "
+                    + "incremental e mesclado aos pedidos atuais por (userId, orderId). Com async=true retorna 202 "
+                    + "com o id do job, acompanhado em GET /api/jobs/{id}.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Arquivo processado com sucesso",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = UserDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Upload assíncrono aceito",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UploadJobDTO.class))),
             @ApiResponse(responseCode = "400", description = "Arquivo inválido ou parâmetros incorretos",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ApiErrorDTO.class))),
@@ -53,24 +83,122 @@ public class FileUploadController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ApiErrorDTO.class))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Fila de uploads assíncronos cheia",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class)))
+    })
+    public ResponseEntity<?> handleUpload(
+            @Parameter(description = "Arquivo de texto com dados de pedidos, opcionalmente compactado com gzip", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Mescla aos pedidos atuais em vez de substituí-los")
+            @RequestParam(value = "append", defaultValue = "false") boolean append,
+            @Parameter(description = "Processa em segundo plano e retorna o id do job")
+            @RequestParam(value = "async", defaultValue = "false") boolean async) throws IOException {
+
+        validarArquivo(file);
+
+        if (async) {
+            UploadJobDTO job = jobService.submeter(file, append);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+        }
+
+        FileProcessingResultDTO result = processingService.processFile(file);
+        // grava antes de publicar: se o banco falhar, os dados consultáveis continuam os anteriores
+        persistenceService.ifAvailable(persistence -> persistence.salvarUpload(result.getUsers(), append)); // app.persistence.enabled
+        if (append) {
+            queryService.mesclarPedidos(result.getUsers());
+        } else {
+            queryService.salvarPedidos(result.getUsers()); // salvar apenas os válidos
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/upload/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Upload de arquivo com resposta em streaming (NDJSON)",
+            description = "Cada linha da resposta é um usuário pronto ({\"type\":\"user\"}) ou um erro de linha "
+                    + "({\"type\":\"error\"}). Com sorted=true o arquivo deve estar agrupado por usuário e cada "
+                    + "usuário é enviado assim que fechado (só o id de cada usuário enviado fica em memória, para "
+                    + "recusar usuário fora de ordem); sem ele os usuários saem ao final. "
+                    + "Com externalSort=true o arquivo pode estar em qualquer ordem e ser maior que a memória: "
+                    + "as linhas são ordenadas em disco e os usuários saem em ordem de id. "
+                    + "Os pedidos não são gravados para consulta.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados enviados durante o processamento",
+                    content = @Content(mediaType = APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = IngestEventDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Arquivo inválido ou parâmetros incorretos",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ApiErrorDTO.class)))
     })
-    public ResponseEntity<FileProcessingResultDTO> handleUpload(
-            @Parameter(description = "Arquivo de texto com dados de pedidos", required = true)
-            @RequestParam("file") MultipartFile file) throws IOException {
+    public ResponseEntity<StreamingResponseBody> handleUploadStream(
+            @Parameter(description = "Arquivo de texto com dados de pedidos, opcionalmente compactado com gzip", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Arquivo agrupado por usuário")
+            @RequestParam(value = "sorted", defaultValue = "false") boolean sorted,
+            @Parameter(description = "Ordena por usuário em disco, com memória limitada (ignora sorted)")
+            @RequestParam(value = "externalSort", defaultValue = "false") boolean externalSort) {
 
+        validarArquivo(file);
+
+        StreamingResponseBody body = externalSort
+                ? out -> processingService.processFileExternalSort(file, new NdjsonListener(out))
+                : out -> processingService.processFileStreaming(file, sorted, new NdjsonListener(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    private void validarArquivo(MultipartFile file) {
         if (file.isEmpty()) {
             throw new InvalidFileFormatException("Arquivo não pode estar vazio");
         }
 
         String contentType = file.getContentType();
-        if (contentType == null || !contentType.equals("text/plain")) {
-            throw new InvalidFileFormatException("Tipo de arquivo não suportado. Apenas arquivos de texto são aceitos.");
+        boolean supported = "text/plain".equals(contentType)
+                || CompressedInput.GZIP_CONTENT_TYPES.contains(contentType)
+                || isGzip(file);
+        if (!supported) {
+            throw new InvalidFileFormatException(
+                    "Tipo de arquivo não suportado. Apenas arquivos de texto (ou compactados com gzip) são aceitos.");
         }
+    }
 
-        FileProcessingResultDTO result = processingService.processFile(file);
-        queryService.salvarPedidos(result.getUsers()); // salvar apenas os válidos
-        return ResponseEntity.ok(result);
+    private static boolean isGzip(MultipartFile file) {
+        try {
+            return CompressedInput.isGzip(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class NdjsonListener implements IngestListener {
+
+        private final OutputStream out;
+
+        NdjsonListener(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onUser(UserDTO user) {
+            write(IngestEventDTO.user(user));
+        }
+
+        @Override
+        public void onError(String error) {
+            write(IngestEventDTO.error(error));
+        }
+
+        private void write(IngestEventDTO event) {
+            try {
+                out.write(eventWriter.writeValueAsBytes(event));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 }
\ No newline at end of file
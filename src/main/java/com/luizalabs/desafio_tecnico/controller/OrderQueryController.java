@@ -2,6 +2,7 @@ package com.luizalabs.desafio_tecnico.controller;
 
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
 import com.luizalabs.desafio_tecnico.service.OrderQueryService;
+import com.luizalabs.desafio_tecnico.store.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.Collections;
@@ -20,6 +22,9 @@ import java.util.Optional;
 @Tag(name = "Order Query", description = "Endpoints para consulta e gerenciamento de pedidos")
 public class OrderQueryController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_LIMIT = 10_000;
+
     private final OrderQueryService queryService;
 
     public OrderQueryController(OrderQueryService queryService) {
@@ -33,6 +38,7 @@ public class OrderQueryController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Consulta realizada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Dados não mudaram desde o ETag enviado em If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
     })
     public ResponseEntity<List<UserDTO>> consultarPedidos(
@@ -43,12 +49,34 @@ public class OrderQueryController {
             @RequestParam(required = false) LocalDate dataInicio,
 
             @Parameter(description = "Data fim do período (yyyy-MM-dd)")
-            @RequestParam(required = false) LocalDate dataFim) {
+            @RequestParam(required = false) LocalDate dataFim,
+
+            @Parameter(description = "Máximo de pedidos por página; sem ele retorna tudo. Com filtro de data, "
+                    + "as páginas seguem a ordem de data; em cada página os pedidos vêm agrupados por usuário")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(description = "Cursor da próxima página, retornado no header " + NEXT_CURSOR_HEADER)
+            @RequestParam(required = false) String cursor,
+
+            WebRequest request) {
 
         if (dataInicio != null && dataFim != null && dataFim.isBefore(dataInicio)) {
             return ResponseEntity.badRequest().body(Collections.emptyList());
         }
+        if (naoModificado(request)) {
+            return null;
+        }
         try {
+            if (limit != null) {
+                Page<UserDTO> page = queryService.consultarPedidosPaginados(
+                        Optional.ofNullable(orderId),
+                        Optional.ofNullable(dataInicio),
+                        Optional.ofNullable(dataFim),
+                        cursor,
+                        validarLimite(limit)
+                );
+                return paginar(page);
+            }
             List<UserDTO> result = queryService.consultarPedidos(
                     Optional.ofNullable(orderId),
                     Optional.ofNullable(dataInicio),
@@ -67,18 +95,56 @@ public class OrderQueryController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuários retornados com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Dados não mudaram desde o ETag enviado em If-None-Match"),
             @ApiResponse(responseCode = "500", description = "Erro interno ao buscar usuários")
     })
     public ResponseEntity<List<UserDTO>> listarUsuarios(
             @Parameter(description = "Campo para ordenação: 'id' ou 'name'", example = "id")
             @RequestParam(name = "order-by", required = false, defaultValue = "id") String orderBy,
             @Parameter(description = "Direção da ordenação: 'asc' ou 'desc'", example = "asc")
-            @RequestParam(name = "direction", required = false, defaultValue = "asc") String direction) {
+            @RequestParam(name = "direction", required = false, defaultValue = "asc") String direction,
+            @Parameter(description = "Máximo de usuários por página; sem ele retorna tudo")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da próxima página, retornado no header " + NEXT_CURSOR_HEADER)
+            @RequestParam(required = false) String cursor,
+
+            WebRequest request) {
 
+        if (naoModificado(request)) {
+            return null;
+        }
+        if (limit != null) {
+            return paginar(queryService.buscarUsuariosPaginados(orderBy, direction, cursor, validarLimite(limit)));
+        }
         List<UserDTO> users = queryService.buscarUsuariosOrdenados(orderBy, direction);
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Responde 304 quando o {@code If-None-Match} traz a versão atual dos dados, sem consultar o snapshot; nos
+     * demais casos só acrescenta o ETag à resposta. A versão é lida antes da consulta: se um upload chegar no
+     * meio, o cliente recebe dados mais novos com o ETag anterior e busca de novo na próxima vez. O ETag é fraco
+     * porque o Tomcat não compacta respostas com ETag forte (o corpo gzip não é idêntico byte a byte).
+     */
+    private boolean naoModificado(WebRequest request) {
+        return request.checkNotModified("W/\"" + queryService.versaoDados() + "\"");
+    }
+
+    static int validarLimite(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit deve estar entre 1 e " + MAX_LIMIT + ". Valor: " + limit);
+        }
+        return limit;
+    }
+
+    static <T> ResponseEntity<List<T>> paginar(Page<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
 
     @DeleteMapping("/clear")
     @Operation(
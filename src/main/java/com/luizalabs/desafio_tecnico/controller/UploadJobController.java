@@ -0,0 +1,86 @@
+package com.luizalabs.desafio_tecnico.controller;
+
+import com.luizalabs.desafio_tecnico.dto.ApiErrorDTO;
+import com.luizalabs.desafio_tecnico.dto.UploadJobDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.service.UploadJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static com.luizalabs.desafio_tecnico.controller.OrderQueryController.NEXT_CURSOR_HEADER;
+import static com.luizalabs.desafio_tecnico.controller.OrderQueryController.paginar;
+import static com.luizalabs.desafio_tecnico.controller.OrderQueryController.validarLimite;
+
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Upload Jobs", description = "Acompanhamento de uploads assíncronos")
+public class UploadJobController {
+
+    private final UploadJobService jobService;
+
+    public UploadJobController(UploadJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Situação do upload",
+            description = "Linhas lidas, linhas por segundo, quantidade de erros e tempo estimado para terminar")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação do job"),
+            @ApiResponse(responseCode = "404", description = "Job não encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class)))
+    })
+    public ResponseEntity<UploadJobDTO> consultar(@PathVariable String id) {
+        return ResponseEntity.ok(jobService.consultar(id));
+    }
+
+    @GetMapping("/{id}/users")
+    @Operation(summary = "Usuários processados pelo upload, em páginas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de usuários"),
+            @ApiResponse(responseCode = "404", description = "Job não encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class))),
+            @ApiResponse(responseCode = "409", description = "Job ainda não concluído",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class)))
+    })
+    public ResponseEntity<List<UserDTO>> buscarUsuarios(
+            @PathVariable String id,
+            @Parameter(description = "Máximo de usuários por página")
+            @RequestParam(defaultValue = "1000") int limit,
+            @Parameter(description = "Cursor da próxima página, retornado no header " + NEXT_CURSOR_HEADER)
+            @RequestParam(required = false) String cursor) {
+        return paginar(jobService.buscarUsuarios(id, cursor, validarLimite(limit)));
+    }
+
+    @GetMapping("/{id}/errors")
+    @Operation(summary = "Erros de linha do upload, em páginas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de erros"),
+            @ApiResponse(responseCode = "404", description = "Job não encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class))),
+            @ApiResponse(responseCode = "409", description = "Job ainda não concluído",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorDTO.class)))
+    })
+    public ResponseEntity<List<String>> buscarErros(
+            @PathVariable String id,
+            @Parameter(description = "Máximo de erros por página")
+            @RequestParam(defaultValue = "1000") int limit,
+            @Parameter(description = "Cursor da próxima página, retornado no header " + NEXT_CURSOR_HEADER)
+            @RequestParam(required = false) String cursor) {
+        return paginar(jobService.buscarErros(id, cursor, validarLimite(limit)));
+    }
+}
@@ -1,11 +1,17 @@
 package com.luizalabs.desafio_tecnico.dto;
 
+import com.luizalabs.desafio_tecnico.parser.ErrorCode;
+
 import java.util.List;
+import java.util.Map;
 import lombok.Data;
 
 public class FileProcessingResultDTO {
     private List<UserDTO> users;
     private List<String> errors;
+    private long errorCount;
+    private Map<ErrorCode, Long> errorCodes;
+    private String errorFile;
 
     public List<UserDTO> getUsers() {
         return users;
@@ -22,6 +28,30 @@ public class FileProcessingResultDTO {
     public void setErrors(List<String> errors) {
         this.errors = errors;
     }
-}
 
+    /** Total de erros; {@link #getErrors()} traz só os primeiros ({@code app.ingest.max-errors}). */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public Map<ErrorCode, Long> getErrorCodes() {
+        return errorCodes;
+    }
 
+    public void setErrorCodes(Map<ErrorCode, Long> errorCodes) {
+        this.errorCodes = errorCodes;
+    }
+
+    /** Arquivo com todos os erros, quando {@code app.ingest.error-dir} está configurado. */
+    public String getErrorFile() {
+        return errorFile;
+    }
+
+    public void setErrorFile(String errorFile) {
+        this.errorFile = errorFile;
+    }
+}
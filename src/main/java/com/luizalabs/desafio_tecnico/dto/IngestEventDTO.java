@@ -0,0 +1,29 @@
+package com.luizalabs.desafio_tecnico.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Uma linha da resposta NDJSON do upload em streaming: um usuário pronto ou um erro de linha. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestEventDTO {
+
+    public static final String USER = "user";
+    public static final String ERROR = "error";
+
+    private String type;
+    private UserDTO user;
+    private String error;
+
+    public static IngestEventDTO user(UserDTO user) {
+        return new IngestEventDTO(USER, user, null);
+    }
+
+    public static IngestEventDTO error(String error) {
+        return new IngestEventDTO(ERROR, null, error);
+    }
+}
@@ -1,9 +1,14 @@
 package com.luizalabs.desafio_tecnico.dto;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -16,9 +21,42 @@ public class OrderDTO {
 
     private List<ProductDTO> products;
 
-    public BigDecimal getTotal() {
-        return products.stream()
-                .map(ProductDTO::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // calculado ao trocar a lista e atualizado em addProduct; nunca muda na leitura, então pode ser publicado
+    // junto com o snapshot sem sincronização
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private BigDecimal total = BigDecimal.ZERO;
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+        this.total = sum(products);
+    }
+
+    /** Acrescenta o produto e soma o preço ao total; alterar a lista diretamente não atualiza o total. */
+    public void addProduct(ProductDTO product) {
+        products.add(product);
+        total = total.add(product.getPrice());
+    }
+
+    /** Cópia com lista de produtos própria; o total já calculado vai junto. */
+    public OrderDTO copy() {
+        OrderDTO copy = new OrderDTO();
+        copy.setId(id);
+        copy.setDate(date);
+        copy.setUser(user);
+        copy.products = products == null ? null : new ArrayList<>(products);
+        copy.total = total;
+        return copy;
+    }
+
+    private static BigDecimal sum(List<ProductDTO> products) {
+        BigDecimal sum = BigDecimal.ZERO;
+        if (products != null) {
+            for (ProductDTO product : products) {
+                sum = sum.add(product.getPrice());
+            }
+        }
+        return sum;
     }
 }
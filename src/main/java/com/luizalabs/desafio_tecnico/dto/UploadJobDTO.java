@@ -0,0 +1,29 @@
+package com.luizalabs.desafio_tecnico.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/** Situação de um upload assíncrono. */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadJobDTO {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private String id;
+    private Status status;
+    private long linesRead;
+    private long linesPerSecond;
+    private long errorCount;
+    private long bytesRead;
+    private long totalBytes;
+
+    // estimativa pelo ritmo de bytes lidos; só enquanto RUNNING
+    private Long etaSeconds;
+
+    // quantidade de usuários do resultado; só quando DONE
+    private Integer userCount;
+
+    // motivo da falha; só quando FAILED
+    private String error;
+}
@@ -1,8 +1,13 @@
 package com.luizalabs.desafio_tecnico.dto;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -12,4 +17,38 @@ public class UserDTO {
 
     @JsonManagedReference
     private List<OrderDTO> orders;
+
+    // como o total do pedido: calculado ao trocar a lista e atualizado em addOrder e addProduct, sem somar os
+    // pedidos de novo a cada serialização
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private BigDecimal total = BigDecimal.ZERO;
+
+    public void setOrders(List<OrderDTO> orders) {
+        this.orders = orders;
+        this.total = sum(orders);
+    }
+
+    /** Acrescenta o pedido e soma o total dele; alterar a lista diretamente não atualiza o total. */
+    public void addOrder(OrderDTO order) {
+        orders.add(order);
+        total = total.add(order.getTotal());
+    }
+
+    /** Acrescenta o produto a um pedido deste usuário, atualizando o total do pedido e o do usuário. */
+    public void addProduct(OrderDTO order, ProductDTO product) {
+        order.addProduct(product);
+        total = total.add(product.getPrice());
+    }
+
+    private static BigDecimal sum(List<OrderDTO> orders) {
+        BigDecimal sum = BigDecimal.ZERO;
+        if (orders != null) {
+            for (OrderDTO order : orders) {
+                sum = sum.add(order.getTotal());
+            }
+        }
+        return sum;
+    }
 }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -70,6 +71,42 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(apiErrorDTO);
     }
 
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ApiErrorDTO> handleJobNotFoundException(
+            JobNotFoundException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.NOT_FOUND;
+        ApiErrorDTO apiErrorDTO = buildApiError(
+                status.value(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(status).body(apiErrorDTO);
+    }
+
+    @ExceptionHandler(JobNotFinishedException.class)
+    public ResponseEntity<ApiErrorDTO> handleJobNotFinishedException(
+            JobNotFinishedException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        ApiErrorDTO apiErrorDTO = buildApiError(
+                status.value(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(status).body(apiErrorDTO);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiErrorDTO> handleRejectedExecutionException(
+            RejectedExecutionException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ApiErrorDTO apiErrorDTO = buildApiError(
+                status.value(),
+                "Fila de processamento cheia. Tente novamente mais tarde.",
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(status).body(apiErrorDTO);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorDTO> handleGenericException(
             Exception ex, HttpServletRequest request) {
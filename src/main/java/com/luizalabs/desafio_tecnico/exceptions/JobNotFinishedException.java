@@ -0,0 +1,7 @@
+package com.luizalabs.desafio_tecnico.exceptions;
+
+public class JobNotFinishedException extends RuntimeException {
+    public JobNotFinishedException(String id) {
+        super("Job ainda não foi concluído: " + id);
+    }
+}
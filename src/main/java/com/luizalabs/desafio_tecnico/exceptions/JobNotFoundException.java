@@ -0,0 +1,7 @@
+package com.luizalabs.desafio_tecnico.exceptions;
+
+public class JobNotFoundException extends RuntimeException {
+    public JobNotFoundException(String id) {
+        super("Job não encontrado: " + id);
+    }
+}
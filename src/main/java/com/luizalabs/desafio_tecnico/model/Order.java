@@ -10,10 +10,15 @@ import java.util.List;
 @Entity
 @Table(name = "orders")
 public class Order {
+    // sequência com alocação em blocos: permite insert em lote (IDENTITY força um insert por vez)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Sequences.ORDERS)
+    @SequenceGenerator(name = Sequences.ORDERS, sequenceName = Sequences.ORDERS, allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
+    // id do pedido no arquivo
+    private Long externalId;
+
     private String date;
 
     @ManyToOne
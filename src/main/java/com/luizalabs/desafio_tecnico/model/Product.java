@@ -11,9 +11,13 @@ import java.math.BigDecimal;
 @Entity
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Sequences.PRODUCTS)
+    @SequenceGenerator(name = Sequences.PRODUCTS, sequenceName = Sequences.PRODUCTS, allocationSize = Sequences.ALLOCATION_SIZE)
     private Long id;
 
+    // id do produto no arquivo
+    private Long externalId;
+
     private BigDecimal price;
 
     @ManyToOne
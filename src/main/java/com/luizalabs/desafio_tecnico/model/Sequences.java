@@ -0,0 +1,14 @@
+package com.luizalabs.desafio_tecnico.model;
+
+/** Sequências de id compartilhadas entre o JPA e a gravação em lote via JDBC. */
+public final class Sequences {
+
+    public static final String ORDERS = "orders_seq";
+    public static final String PRODUCTS = "products_seq";
+
+    // cada nextval reserva este bloco de ids (otimizador pooled-lo: o valor lido é o primeiro id do bloco)
+    public static final int ALLOCATION_SIZE = 1000;
+
+    private Sequences() {
+    }
+}
@@ -13,6 +13,10 @@ public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
+
+    // id do usuário no arquivo
+    @Column(unique = true)
+    private Long externalId;
     private String name;
 
     @OneToMany (mappedBy = "user", cascade = CascadeType.ALL)
@@ -0,0 +1,37 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+/**
+ * Tipos de erro de parse; a mensagem de cada um depende do {@link ValidationProfile} (ver {@link ParseError}).
+ */
+public enum ErrorCode {
+
+    /** Linha com menos de 95 colunas ({@link ValidationProfile#LEGACY}). */
+    LINE_TOO_SHORT,
+
+    /** Linha termina antes do fim de um campo. */
+    OUT_OF_RANGE,
+
+    /** Id ou valor que não é um número. */
+    INVALID_NUMBER,
+
+    /** Id zero ou negativo ({@link ValidationProfile#STRICT}). */
+    NOT_POSITIVE,
+
+    /** Valor negativo ({@link ValidationProfile#STRICT}). */
+    NEGATIVE,
+
+    /** Nome em branco. */
+    EMPTY,
+
+    /** Data sem 8 dígitos ({@link ValidationProfile#STRICT}). */
+    DATE_LENGTH,
+
+    /** Data inexistente ou fora do formato {@code yyyyMMdd}. */
+    INVALID_DATE,
+
+    /** Campo recusado por uma {@link FieldRule} adicional. */
+    REJECTED,
+
+    /** Falha não prevista ao processar a linha. */
+    UNEXPECTED
+}
@@ -0,0 +1,154 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coleta erros de parse com memória limitada: guarda só os primeiros {@code limit} erros e conta todos por
+ * {@link ErrorCode}. Com {@code file}, cada erro também é gravado (já como mensagem) em um arquivo à parte,
+ * que fica completo independentemente do limite.
+ */
+public class ErrorCollector implements ErrorSink, Closeable {
+
+    private final int limit;
+    private final List<ParseError> retained = new ArrayList<>();
+    private final long[] counts = new long[ErrorCode.values().length];
+    private final long[] fieldCounts = new long[Field.values().length];
+    private final Path file;
+    private final Writer writer;
+    private long total;
+
+    public ErrorCollector(int limit) {
+        this.limit = limit;
+        this.file = null;
+        this.writer = null;
+    }
+
+    public ErrorCollector(int limit, Path file) throws IOException {
+        this.limit = limit;
+        this.file = file;
+        this.writer = file == null ? null : Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void add(ParseError error) {
+        total++;
+        counts[error.code().ordinal()]++;
+        fieldCounts[error.field().ordinal()]++;
+        if (retained.size() < limit) {
+            retained.add(error);
+        }
+        if (writer != null) {
+            try {
+                writer.write(error.message());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Total de erros, inclusive os que passaram do limite. */
+    public long count() {
+        return total;
+    }
+
+    /** Total por código, só dos códigos que ocorreram. */
+    public Map<ErrorCode, Long> counts() {
+        Map<ErrorCode, Long> result = new EnumMap<>(ErrorCode.class);
+        for (ErrorCode code : ErrorCode.values()) {
+            if (counts[code.ordinal()] > 0) {
+                result.put(code, counts[code.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    /** Total por campo, só dos campos com erro. */
+    public Map<Field, Long> fieldCounts() {
+        Map<Field, Long> result = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            if (fieldCounts[field.ordinal()] > 0) {
+                result.put(field, fieldCounts[field.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    /** Primeiros {@code limit} erros, na ordem em que ocorreram. */
+    public List<ParseError> errors() {
+        return Collections.unmodifiableList(retained);
+    }
+
+    /** Mensagens dos erros guardados; cada uma é montada só quando lida. */
+    public List<String> messages() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return retained.get(index).message();
+            }
+
+            @Override
+            public int size() {
+                return retained.size();
+            }
+        };
+    }
+
+    /** {@code true} se algum erro ficou de fora de {@link #errors()}. */
+    public boolean truncated() {
+        return total > retained.size();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Acrescenta os erros de {@code other}, que vêm depois dos deste coletor. O arquivo de {@code other} é
+     * copiado para o deste e removido.
+     */
+    public void merge(ErrorCollector other) throws IOException {
+        for (ParseError error : other.retained) {
+            if (retained.size() >= limit) {
+                break;
+            }
+            retained.add(error);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        for (int i = 0; i < fieldCounts.length; i++) {
+            fieldCounts[i] += other.fieldCounts[i];
+        }
+        total += other.total;
+        if (other.file != null) {
+            other.close();
+            if (writer != null) {
+                try (Reader reader = Files.newBufferedReader(other.file, StandardCharsets.UTF_8)) {
+                    reader.transferTo(writer);
+                }
+            }
+            Files.deleteIfExists(other.file);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
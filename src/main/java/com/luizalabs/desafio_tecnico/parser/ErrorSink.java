@@ -0,0 +1,18 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.util.List;
+
+/**
+ * Destino dos erros de parse. O parser só monta o {@link ParseError}; guardar, contar ou descartar fica com a
+ * implementação (ver {@link ErrorCollector}).
+ */
+@FunctionalInterface
+public interface ErrorSink {
+
+    void add(ParseError error);
+
+    /** Renderiza cada erro na hora em {@code messages}, como no parse baseado em {@code List<String>}. */
+    static ErrorSink into(List<String> messages) {
+        return error -> messages.add(error.message());
+    }
+}
@@ -0,0 +1,386 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Ordenação externa de registros por {@code (userId, orderId)} com memória limitada. Cada registro é copiado em
+ * formato binário compacto (ids, valor, data e os bytes do nome) para um buffer; quando o buffer atinge o
+ * orçamento, é ordenado e gravado como uma run em arquivo temporário. Ao final as runs são intercaladas (k-way
+ * merge) e os registros entregues em ordem; registros com a mesma chave mantêm a ordem de entrada.
+ *
+ * <p>O heap usado fica em torno de {@code memoryBudget} qualquer que seja o tamanho da entrada: na leitura, o buffer
+ * da run atual; no merge, os buffers de leitura das runs. Com mais runs do que cabem no orçamento o merge é feito
+ * em passadas. Os arquivos temporários são apagados no {@link #close()}. Não é thread-safe.</p>
+ */
+public final class ExternalRecordSorter implements Closeable {
+
+    public static final long MIN_MEMORY_BUDGET = 16 * 1024;
+
+    // userId, orderId, productId e valueUnscaled (8 bytes cada), valueScale e epochDay (4), tamanho do nome (2)
+    private static final int HEADER = 4 * Long.BYTES + 2 * Integer.BYTES + Short.BYTES;
+    private static final int NAME_LENGTH_AT = HEADER - Short.BYTES;
+    private static final int MAX_RECORD = HEADER + (Field.NAME.end() - Field.NAME.begin()) * 4;
+    // além dos bytes, cada registro ocupa uma posição no índice e outra no vetor auxiliar da ordenação
+    private static final int INDEX_BYTES = 2 * Integer.BYTES;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int MIN_IO_BUFFER = 4 * 1024;
+    private static final int MAX_FAN_IN = 64;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final List<Path> tempFiles = new ArrayList<>();
+    private List<Path> runs = new ArrayList<>();
+
+    private byte[] bytes;
+    private ByteBuffer view;
+    private int used;
+    private int[] offsets = new int[1024];
+    private int[] scratch;
+    private int count;
+    private int spills;
+
+    /**
+     * @param memoryBudget bytes de heap para registros e buffers (mínimo {@link #MIN_MEMORY_BUDGET})
+     * @param tempDir      diretório das runs; {@code null} usa o diretório temporário do sistema
+     */
+    public ExternalRecordSorter(long memoryBudget, Path tempDir) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Orçamento de memória abaixo do mínimo de " + MIN_MEMORY_BUDGET
+                    + " bytes: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+        this.bytes = new byte[(int) Math.min(INITIAL_BUFFER, memoryBudget)];
+        this.view = ByteBuffer.wrap(bytes);
+    }
+
+    /** Runs gravadas em disco na leitura (zero enquanto a entrada couber no orçamento). */
+    public int runCount() {
+        return spills;
+    }
+
+    /** Copia o registro para o buffer; o nome é lido do buffer de origem, que pode ser reaproveitado em seguida. */
+    public void add(ParsedRecord record) throws IOException {
+        int nameLength = record.nameEnd() - record.nameStart();
+        int length = HEADER + nameLength;
+        if (count > 0 && (long) used + length + (long) (count + 1) * INDEX_BYTES > memoryBudget) {
+            spill();
+        }
+        ensureCapacity(length);
+
+        int at = used;
+        view.putLong(at, record.userId());
+        view.putLong(at + 8, record.orderId());
+        view.putLong(at + 16, record.productId());
+        view.putLong(at + 24, record.valueUnscaled());
+        view.putInt(at + 32, record.valueScale());
+        view.putInt(at + 36, record.epochDay());
+        view.putShort(at + NAME_LENGTH_AT, (short) nameLength);
+        record.source().get(record.nameStart(), bytes, at + HEADER, nameLength);
+        offsets[count++] = at;
+        used += length;
+    }
+
+    /**
+     * Entrega os registros em ordem de {@code (userId, orderId)}. O {@link ParsedRecord} é reaproveitado: seus
+     * campos (e o nome) valem apenas durante a chamada de {@code consumer}.
+     */
+    public void forEachSorted(Consumer<ParsedRecord> consumer) throws IOException {
+        if (runs.isEmpty()) {
+            sortBuffer();
+            ParsedRecord record = new ParsedRecord();
+            for (int i = 0; i < count; i++) {
+                fill(record, view, offsets[i]);
+                consumer.accept(record);
+            }
+            return;
+        }
+        if (count > 0) {
+            spill();
+        }
+        // a partir daqui o orçamento vai para os buffers de leitura das runs
+        bytes = null;
+        view = null;
+        offsets = null;
+        scratch = null;
+
+        int fanIn = fanIn();
+        int bufferSize = (int) Math.min(Integer.MAX_VALUE, memoryBudget / (fanIn + 1));
+        while (runs.size() > fanIn) {
+            List<Path> next = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += fanIn) {
+                List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                next.add(group.size() == 1 ? group.get(0) : mergeToRun(group, bufferSize));
+            }
+            runs = next;
+        }
+        ParsedRecord record = new ParsedRecord();
+        merge(runs, bufferSize, reader -> {
+            fill(record, reader.view, reader.start);
+            consumer.accept(record);
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Path file : tempFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        tempFiles.clear();
+        runs.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (used + length > bytes.length) {
+            long wanted = Math.max(bytes.length * 2L, used + length);
+            grow((int) Math.min(wanted, Math.min(Math.max(memoryBudget, used + length), Integer.MAX_VALUE - 8)));
+        }
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+    }
+
+    private void grow(int newLength) {
+        bytes = Arrays.copyOf(bytes, newLength);
+        view = ByteBuffer.wrap(bytes);
+    }
+
+    private void spill() throws IOException {
+        sortBuffer();
+        Path run = newTempFile();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(run), INITIAL_BUFFER)) {
+            for (int i = 0; i < count; i++) {
+                int at = offsets[i];
+                out.write(bytes, at, recordLength(view, at));
+            }
+        }
+        runs.add(run);
+        spills++;
+        used = 0;
+        count = 0;
+    }
+
+    private Path mergeToRun(List<Path> group, int bufferSize) throws IOException {
+        Path run = newTempFile();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(run), bufferSize)) {
+            merge(group, bufferSize, reader -> {
+                try {
+                    out.write(reader.bytes, reader.start, reader.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path merged : group) {
+            Files.deleteIfExists(merged);
+        }
+        return run;
+    }
+
+    // empate na chave fica com a run anterior, que tem as linhas anteriores do arquivo
+    private static void merge(List<Path> group, int bufferSize, Consumer<RunReader> sink) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(group.size(), Comparator
+                .comparingLong((RunReader r) -> r.userId)
+                .thenComparingLong(r -> r.orderId)
+                .thenComparingInt(r -> r.index));
+        List<RunReader> readers = new ArrayList<>(group.size());
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                RunReader reader = new RunReader(i, Files.newInputStream(group.get(i)), bufferSize);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            }
+            RunReader reader;
+            while ((reader = heap.poll()) != null) {
+                sink.accept(reader);
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private int fanIn() {
+        long byBudget = memoryBudget / MIN_IO_BUFFER - 1;
+        return (int) Math.max(2, Math.min(MAX_FAN_IN, byBudget));
+    }
+
+    private Path newTempFile() throws IOException {
+        Path file;
+        if (tempDir == null) {
+            file = Files.createTempFile("pedidos-run-", ".bin");
+        } else {
+            Files.createDirectories(tempDir);
+            file = Files.createTempFile(tempDir, "pedidos-run-", ".bin");
+        }
+        tempFiles.add(file);
+        return file;
+    }
+
+    /** Merge sort estável dos índices do buffer, com inserção nos blocos pequenos. */
+    private void sortBuffer() {
+        int[] src = offsets;
+        for (int lo = 0; lo < count; lo += INSERTION_SORT_THRESHOLD) {
+            insertionSort(src, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, count));
+        }
+        if (count <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+        if (scratch == null || scratch.length < count) {
+            scratch = new int[offsets.length];
+        }
+        int[] dst = scratch;
+        for (int width = INSERTION_SORT_THRESHOLD; width < count; width *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * width) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                mergeBlocks(src, dst, lo, mid, hi);
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != offsets) {
+            System.arraycopy(src, 0, offsets, 0, count);
+        }
+    }
+
+    private void insertionSort(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int current = a[i];
+            int j = i - 1;
+            while (j >= from && compare(a[j], current) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    private void mergeBlocks(int[] src, int[] dst, int lo, int mid, int hi) {
+        // blocos já em ordem (arquivo agrupado por usuário) só são copiados
+        if (mid == hi || compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, lo, dst, lo, hi - lo);
+            return;
+        }
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (j >= hi || (i < mid && compare(src[i], src[j]) <= 0)) {
+                dst[k] = src[i++];
+            } else {
+                dst[k] = src[j++];
+            }
+        }
+    }
+
+    private int compare(int a, int b) {
+        int byUser = Long.compare(view.getLong(a), view.getLong(b));
+        return byUser != 0 ? byUser : Long.compare(view.getLong(a + 8), view.getLong(b + 8));
+    }
+
+    private static int recordLength(ByteBuffer buf, int at) {
+        return HEADER + Short.toUnsignedInt(buf.getShort(at + NAME_LENGTH_AT));
+    }
+
+    private static void fill(ParsedRecord record, ByteBuffer buf, int at) {
+        record.setSource(buf);
+        record.setUserId(buf.getLong(at));
+        record.setOrderId(buf.getLong(at + 8));
+        record.setProductId(buf.getLong(at + 16));
+        record.setValue(buf.getLong(at + 24), buf.getInt(at + 32));
+        record.setEpochDay(buf.getInt(at + 36));
+        record.setName(at + HEADER, at + recordLength(buf, at));
+    }
+
+    /** Leitura sequencial de uma run, um registro por vez, em buffer de tamanho fixo. */
+    private static final class RunReader implements Closeable {
+
+        private final int index;
+        private final InputStream in;
+        private final byte[] bytes;
+        private final ByteBuffer view;
+        private int start;
+        private int length;
+        private int limit;
+        private long userId;
+        private long orderId;
+
+        RunReader(int index, InputStream in, int bufferSize) {
+            this.index = index;
+            this.in = in;
+            this.bytes = new byte[Math.max(bufferSize, MAX_RECORD)];
+            this.view = ByteBuffer.wrap(bytes);
+        }
+
+        /** Passa para o próximo registro; {@code false} no fim da run. */
+        boolean advance() throws IOException {
+            start += length;
+            length = 0;
+            if (!available(HEADER)) {
+                return false;
+            }
+            int recordLength = recordLength(view, start);
+            if (!available(recordLength)) {
+                throw new IOException("Run truncada: registro incompleto no fim do arquivo");
+            }
+            length = recordLength;
+            userId = view.getLong(start);
+            orderId = view.getLong(start + 8);
+            return true;
+        }
+
+        private boolean available(int needed) throws IOException {
+            if (limit - start >= needed) {
+                return true;
+            }
+            System.arraycopy(bytes, start, bytes, 0, limit - start);
+            limit -= start;
+            start = 0;
+            limit += in.readNBytes(bytes, limit, bytes.length - limit);
+            if (limit >= needed) {
+                return true;
+            }
+            if (limit > 0) {
+                throw new IOException("Run truncada: registro incompleto no fim do arquivo");
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
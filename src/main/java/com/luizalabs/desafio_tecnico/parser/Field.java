@@ -0,0 +1,39 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+/**
+ * Campos do layout de 95 colunas, com o intervalo {@code [begin, end)} de cada um. {@link #LINE} identifica erros
+ * da linha inteira (ex.: linha curta).
+ */
+public enum Field {
+
+    USER_ID("User ID", 0, 10),
+    NAME("Nome", 10, 55),
+    ORDER_ID("Order ID", 55, 65),
+    PRODUCT_ID("Product ID", 65, 75),
+    VALUE("Valor", 75, 87),
+    DATE("Data", 87, 95),
+    LINE("Linha", 0, FixedWidthOrderParser.LINE_LENGTH);
+
+    private final String label;
+    private final int begin;
+    private final int end;
+
+    Field(String label, int begin, int end) {
+        this.label = label;
+        this.begin = begin;
+        this.end = end;
+    }
+
+    /** Nome usado nas mensagens de erro. */
+    public String label() {
+        return label;
+    }
+
+    public int begin() {
+        return begin;
+    }
+
+    public int end() {
+        return end;
+    }
+}
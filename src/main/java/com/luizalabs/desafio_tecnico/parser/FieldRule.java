@@ -0,0 +1,58 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.util.function.Predicate;
+
+/**
+ * Regra de validação de um campo, aplicada pelo {@link FixedWidthOrderParser} logo depois de o campo ser
+ * convertido sem erro. As regras de cada {@link ValidationProfile} vêm prontas; outras podem ser passadas ao
+ * construtor do parser.
+ */
+public interface FieldRule {
+
+    Field field();
+
+    /** @return {@code true} se o valor do campo, já gravado em {@code record}, é aceito */
+    boolean test(ParsedRecord record);
+
+    /** Código do erro registrado quando {@link #test} falha. */
+    ErrorCode errorCode();
+
+    /** Regra que recusa o campo com {@link ErrorCode#REJECTED}. */
+    static FieldRule of(Field field, Predicate<ParsedRecord> test) {
+        return of(field, ErrorCode.REJECTED, test);
+    }
+
+    static FieldRule of(Field field, ErrorCode errorCode, Predicate<ParsedRecord> test) {
+        return new FieldRule() {
+            @Override
+            public Field field() {
+                return field;
+            }
+
+            @Override
+            public boolean test(ParsedRecord record) {
+                return test.test(record);
+            }
+
+            @Override
+            public ErrorCode errorCode() {
+                return errorCode;
+            }
+        };
+    }
+
+    /** Id maior que zero ({@link ErrorCode#NOT_POSITIVE}). */
+    static FieldRule positiveId(Field field) {
+        return switch (field) {
+            case USER_ID -> StandardRule.POSITIVE_USER_ID;
+            case ORDER_ID -> StandardRule.POSITIVE_ORDER_ID;
+            case PRODUCT_ID -> StandardRule.POSITIVE_PRODUCT_ID;
+            default -> throw new IllegalArgumentException("Campo não é um id: " + field);
+        };
+    }
+
+    /** Valor maior ou igual a zero ({@link ErrorCode#NEGATIVE}). */
+    static FieldRule nonNegativeValue() {
+        return StandardRule.NON_NEGATIVE_VALUE;
+    }
+}
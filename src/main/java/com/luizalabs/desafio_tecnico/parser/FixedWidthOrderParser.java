@@ -0,0 +1,438 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Parser do layout de 95 colunas que trabalha direto sobre os bytes (UTF-8) da linha, sem criar Strings
+ * intermediárias no caminho feliz. Ids, valor (long escalado) e data (epoch-day) são decodificados para
+ * primitivos em um {@link ParsedRecord} reaproveitável.
+ *
+ * <p>É o único parser do layout: o {@code ParsedLineService} e todos os caminhos do {@code FileProcessingService}
+ * passam por ele. A linha é percorrida uma vez, campo a campo na ordem de {@link Field}; cada campo é convertido e
+ * em seguida validado pelas {@link FieldRule}s do perfil (e pelas extras passadas ao construtor).</p>
+ *
+ * <p>As colunas são contadas em caracteres, como num {@code substring}, então nomes com acentos não deslocam os
+ * campos seguintes. Conversão e mensagens de erro seguem o {@link ValidationProfile} escolhido. Números e datas são
+ * validados por verificação explícita dos bytes (dígitos, formato decimal, calendário), com o mesmo resultado das
+ * conversões do JDK, mas sem lançar exceção: uma linha inválida custa o mesmo que uma válida.</p>
+ */
+public class FixedWidthOrderParser {
+
+    public static final int LINE_LENGTH = 95;
+
+    /** Campos na ordem em que aparecem na linha. */
+    private static final Field[] LAYOUT = {
+            Field.USER_ID, Field.NAME, Field.ORDER_ID, Field.PRODUCT_ID, Field.VALUE, Field.DATE};
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    private final ValidationProfile profile;
+    // regras por campo, indexadas por Field.ordinal()
+    private final FieldRule[][] rules;
+
+    public FixedWidthOrderParser() {
+        this(ValidationProfile.STRICT);
+    }
+
+    public FixedWidthOrderParser(ValidationProfile profile) {
+        this(profile, List.of());
+    }
+
+    /** Parser com as regras do perfil seguidas de {@code extraRules}. */
+    public FixedWidthOrderParser(ValidationProfile profile, List<FieldRule> extraRules) {
+        this.profile = profile;
+        this.rules = new FieldRule[Field.values().length][];
+        for (Field field : Field.values()) {
+            this.rules[field.ordinal()] = Stream.concat(profile.rules().stream(), extraRules.stream())
+                    .filter(rule -> rule.field() == field)
+                    .toArray(FieldRule[]::new);
+        }
+    }
+
+    public boolean parse(byte[] line, int offset, int length, long lineNumber, List<String> errors, ParsedRecord out) {
+        return parse(ByteBuffer.wrap(line), offset, offset + length, lineNumber, ErrorSink.into(errors), out);
+    }
+
+    public boolean parse(ByteBuffer buf, int start, int end, long lineNumber, List<String> errors, ParsedRecord out) {
+        return parse(buf, start, end, lineNumber, ErrorSink.into(errors), out);
+    }
+
+    /**
+     * Faz o parse dos bytes {@code [start, end)} do buffer (sem o terminador de linha).
+     *
+     * @return {@code true} se todos os campos são válidos; caso contrário os erros foram entregues a {@code errors}
+     */
+    public boolean parse(ByteBuffer buf, int start, int end, long lineNumber, ErrorSink errors, ParsedRecord out) {
+        out.setSource(buf);
+        if (profile.fullLineRequired()) {
+            int length = columnCount(buf, start, end);
+            if (length < LINE_LENGTH) {
+                errors.add(ParseError.ofLength(lineNumber, Field.LINE, ErrorCode.LINE_TOO_SHORT, profile, length));
+                return false;
+            }
+        }
+        boolean valid = true;
+        int pos = start;
+        for (Field field : LAYOUT) {
+            int next = advance(buf, pos, end, field.end() - field.begin());
+            if (next < 0) {
+                return outOfRange(buf, start, end, field, lineNumber, errors);
+            }
+            if (decode(field, buf, pos, next, lineNumber, errors, out)) {
+                valid &= checkRules(field, buf, pos, next, lineNumber, errors, out);
+            } else {
+                valid = false;
+            }
+            pos = next;
+        }
+        return valid;
+    }
+
+    private boolean decode(Field field, ByteBuffer buf, int from, int to, long lineNumber, ErrorSink errors,
+                           ParsedRecord out) {
+        return switch (field) {
+            case USER_ID, ORDER_ID, PRODUCT_ID -> decodeId(buf, from, to, field, lineNumber, errors, out);
+            case NAME -> decodeName(buf, from, to, lineNumber, errors, out);
+            case VALUE -> decodeValue(buf, from, to, lineNumber, errors, out);
+            case DATE -> decodeDate(buf, from, to, lineNumber, errors, out);
+            case LINE -> throw new IllegalArgumentException("Campo fora do layout: " + field);
+        };
+    }
+
+    private boolean checkRules(Field field, ByteBuffer buf, int from, int to, long lineNumber, ErrorSink errors,
+                               ParsedRecord out) {
+        for (FieldRule rule : rules[field.ordinal()]) {
+            if (!rule.test(out)) {
+                errors.add(ParseError.of(lineNumber, field, rule.errorCode(), profile, buf, from, to));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean decodeId(ByteBuffer buf, int from, int to, Field field, long lineNumber, ErrorSink errors,
+                             ParsedRecord out) {
+        int s = trimStart(buf, from, to);
+        int e = trimEnd(buf, s, to);
+
+        long value = parseLong(buf, s, e);
+        if (value == NOT_A_NUMBER && !isAscii(buf, s, e)) {
+            ByteBuffer digits = unicodeDigits(buf, s, e);
+            value = parseLong(digits, 0, digits.limit());
+        }
+        if (value == NOT_A_NUMBER) {
+            errors.add(ParseError.of(lineNumber, field, ErrorCode.INVALID_NUMBER, profile, buf, from, to));
+            return false;
+        }
+        switch (field) {
+            case USER_ID -> out.setUserId(value);
+            case ORDER_ID -> out.setOrderId(value);
+            default -> out.setProductId(value);
+        }
+        return true;
+    }
+
+    private boolean decodeName(ByteBuffer buf, int from, int to, long lineNumber, ErrorSink errors, ParsedRecord out) {
+        int s = trimStart(buf, from, to);
+        int e = trimEnd(buf, s, to);
+        if (s == e) {
+            errors.add(ParseError.of(lineNumber, Field.NAME, ErrorCode.EMPTY, profile, buf, from, to));
+            return false;
+        }
+        out.setName(s, e);
+        return true;
+    }
+
+    private boolean decodeValue(ByteBuffer buf, int from, int to, long lineNumber, ErrorSink errors, ParsedRecord out) {
+        int s = trimStart(buf, from, to);
+        int e = trimEnd(buf, s, to);
+        boolean valid = parseDecimal(buf, s, e, out);
+        if (!valid && !isAscii(buf, s, e)) {
+            ByteBuffer digits = unicodeDigits(buf, s, e);
+            valid = parseDecimal(digits, 0, digits.limit(), out);
+        }
+        if (!valid) {
+            errors.add(ParseError.of(lineNumber, Field.VALUE, ErrorCode.INVALID_NUMBER, profile, buf, from, to));
+        }
+        return valid;
+    }
+
+    /**
+     * Mesma gramática de {@code new BigDecimal(String)} (sinal, dígitos com um separador decimal opcional e
+     * expoente {@code e}/{@code E}), verificada byte a byte. Com {@link ValidationProfile#commaDecimal()} a vírgula
+     * também vale como separador.
+     */
+    private boolean parseDecimal(ByteBuffer buf, int s, int e, ParsedRecord out) {
+        int i = s;
+        boolean negative = false;
+        if (i < e && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        long scale = 0;
+        int digits = 0;
+        boolean seenPoint = false;
+        for (; i < e; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                // o campo tem 12 colunas, então 18 dígitos nunca são alcançados
+                if (++digits > 18) {
+                    return false;
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if ((b == '.' || (b == ',' && profile.commaDecimal())) && !seenPoint) {
+                seenPoint = true;
+            } else if (b == 'e' || b == 'E') {
+                break;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < e) {
+            long exponent = parseLong(buf, i + 1, e);
+            if (exponent == NOT_A_NUMBER) {
+                return false;
+            }
+            scale -= exponent;
+            if (scale < Integer.MIN_VALUE || scale > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        out.setValue(negative ? -unscaled : unscaled, (int) scale);
+        return true;
+    }
+
+    private boolean decodeDate(ByteBuffer buf, int from, int to, long lineNumber, ErrorSink errors, ParsedRecord out) {
+        int s = trimStart(buf, from, to);
+        int e = trimEnd(buf, s, to);
+        boolean valid;
+        if (profile.lenientDate()) {
+            valid = parseLenientDate(buf, s, e, out);
+        } else if (columnCount(buf, s, e) != 8) {
+            errors.add(ParseError.of(lineNumber, Field.DATE, ErrorCode.DATE_LENGTH, profile, buf, from, to));
+            return false;
+        } else {
+            // com algum caractere não ASCII os 8 primeiros bytes já incluem um byte negativo, e o parse falha
+            valid = parseDate(buf, s, out) || !isAscii(buf, s, e) && parseDate(unicodeDigits(buf, s, e), 0, out);
+        }
+        if (!valid) {
+            errors.add(ParseError.of(lineNumber, Field.DATE, ErrorCode.INVALID_DATE, profile, buf, from, to));
+        }
+        return valid;
+    }
+
+    /**
+     * Data em 8 caracteres a partir de {@code s}: ano, mês e dia lidos separadamente (4, 2 e 2 caracteres, cada um
+     * com sinal opcional, como {@code Integer.parseInt}) e validados contra o calendário, como {@code LocalDate.of}.
+     */
+    private static boolean parseDate(ByteBuffer buf, int s, ParsedRecord out) {
+        long year = parseLong(buf, s, s + 4);
+        long month = parseLong(buf, s + 4, s + 6);
+        long day = parseLong(buf, s + 6, s + 8);
+        if (year == NOT_A_NUMBER || month == NOT_A_NUMBER || day == NOT_A_NUMBER
+                || month < 1 || month > 12 || day < 1 || day > lengthOfMonth((int) year, (int) month)) {
+            return false;
+        }
+        out.setEpochDay(epochDay((int) year, (int) month, (int) day));
+        return true;
+    }
+
+    /**
+     * Equivalente a {@code LocalDate.parse(text, ofPattern("yyyyMMdd"))}: só 8 dígitos ASCII, ano a partir de 1 e
+     * resolução SMART, em que um dia além do fim do mês (até 31) vira o último dia.
+     */
+    private static boolean parseLenientDate(ByteBuffer buf, int s, int e, ParsedRecord out) {
+        if (e - s != 8 || !allDigits(buf, s, e)) {
+            return false;
+        }
+        int year = digitsValue(buf, s, s + 4);
+        int month = digitsValue(buf, s + 4, s + 6);
+        int day = digitsValue(buf, s + 6, s + 8);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return false;
+        }
+        out.setEpochDay(epochDay(year, month, Math.min(day, lengthOfMonth(year, month))));
+        return true;
+    }
+
+    private boolean outOfRange(ByteBuffer buf, int start, int end, Field field, long lineNumber, ErrorSink errors) {
+        errors.add(ParseError.ofLength(lineNumber, field, ErrorCode.OUT_OF_RANGE, profile, columnCount(buf, start, end)));
+        return false;
+    }
+
+    /** Avança {@code columns} caracteres a partir de {@code pos}; retorna -1 se a linha acabar antes. */
+    private static int advance(ByteBuffer buf, int pos, int end, int columns) {
+        int remaining = columns;
+        while (remaining > 0) {
+            if (pos >= end) {
+                return -1;
+            }
+            int length = utf8Length(buf.get(pos));
+            pos += length;
+            remaining -= length == 4 ? 2 : 1;
+        }
+        return Math.min(pos, end);
+    }
+
+    /** Quantidade de caracteres (UTF-16, como {@code String.length()}) em {@code [from, to)}. */
+    private static int columnCount(ByteBuffer buf, int from, int to) {
+        int count = 0;
+        int pos = from;
+        while (pos < to) {
+            int length = utf8Length(buf.get(pos));
+            pos += length;
+            count += length == 4 ? 2 : 1;
+        }
+        return count;
+    }
+
+    private static int utf8Length(byte lead) {
+        int b = lead & 0xFF;
+        if (b >= 0xF0) return 4;
+        if (b >= 0xE0) return 3;
+        if (b >= 0xC0) return 2;
+        return 1;
+    }
+
+    /** Equivalente a {@code line.trim().isEmpty()} sobre os bytes da linha. */
+    public static boolean isBlank(ByteBuffer buf, int start, int end) {
+        return trimStart(buf, start, end) == end;
+    }
+
+    private static int trimStart(ByteBuffer buf, int from, int to) {
+        while (from < to && (buf.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buf, int from, int to) {
+        while (to > from && (buf.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Inteiro com sinal opcional em {@code [s, e)}, como {@code Long.parseLong} para dígitos ASCII, ou
+     * {@link #NOT_A_NUMBER}. Os campos têm no máximo 12 colunas, então o limite de 18 dígitos nunca estoura.
+     */
+    private static long parseLong(ByteBuffer buf, int s, int e) {
+        if (s == e) {
+            return NOT_A_NUMBER;
+        }
+        boolean negative = false;
+        int i = s;
+        if (buf.get(i) == '-' || buf.get(i) == '+') {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        if (i == e || e - i > 18) {
+            return NOT_A_NUMBER;
+        }
+        long value = 0;
+        for (; i < e; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isAscii(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Campo com caracteres fora do ASCII, um byte por caractere: dígitos de qualquer alfabeto (que
+     * {@code Long.parseLong}, {@code Integer.parseInt} e {@code BigDecimal} aceitam) viram o dígito ASCII e os
+     * demais caracteres não ASCII viram {@code '?'}, que nenhuma conversão aceita.
+     */
+    private static ByteBuffer unicodeDigits(ByteBuffer buf, int from, int to) {
+        String text = decode(buf, from, to);
+        byte[] ascii = new byte[text.length()];
+        for (int i = 0; i < ascii.length; i++) {
+            char c = text.charAt(i);
+            int digit = Character.digit(c, 10);
+            ascii[i] = (byte) (digit >= 0 ? '0' + digit : c < 0x80 ? c : '?');
+        }
+        return ByteBuffer.wrap(ascii);
+    }
+
+    private static boolean allDigits(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digitsValue(ByteBuffer buf, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (buf.get(i) - '0');
+        }
+        return value;
+    }
+
+    static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Mesmo cálculo de {@link LocalDate#toEpochDay()}, sem instanciar a data. */
+    static int epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+
+    private static String decode(ByteBuffer buf, int from, int to) {
+        if (buf.hasArray()) {
+            return new String(buf.array(), buf.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,10 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.nio.ByteBuffer;
+
+@FunctionalInterface
+public interface LineHandler {
+
+    /** Recebe a linha em {@code [start, end)} do buffer, já sem {@code \n} / {@code \r\n}. */
+    void onLine(ByteBuffer buffer, int start, int end, long lineNumber);
+}
@@ -0,0 +1,138 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Percorre as linhas de um arquivo mapeado em memória ({@link FileChannel#map}) sem copiar nem decodificar os
+ * bytes. O arquivo é mapeado em janelas de até 1 GB; a linha que atravessa o fim de uma janela é remapeada no
+ * início da próxima.
+ */
+public final class MappedLineReader {
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private MappedLineReader() {
+    }
+
+    /**
+     * Entrega ao handler todas as linhas entre as posições {@code from} e {@code to} do canal. O intervalo deve
+     * começar no início de uma linha. A numeração das linhas começa em 1.
+     *
+     * @return quantidade de linhas lidas
+     */
+    public static long forEach(FileChannel channel, long from, long to, LineHandler handler) throws IOException {
+        return forEach(channel, from, to, DEFAULT_WINDOW_SIZE, handler);
+    }
+
+    static long forEach(FileChannel channel, long from, long to, int windowSize, LineHandler handler) throws IOException {
+        long lineNumber = 0;
+        long position = from;
+        boolean skipping = false; // restante de uma linha maior que a janela
+
+        while (position < to) {
+            int length = (int) Math.min(windowSize, to - position);
+            boolean lastWindow = position + length == to;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+
+            int lineStart = 0;
+            if (skipping) {
+                int newline = indexOfNewline(window, 0, length);
+                if (newline < 0) {
+                    position += length;
+                    continue;
+                }
+                lineStart = newline + 1;
+                skipping = false;
+            }
+
+            while (lineStart < length) {
+                int newline = indexOfNewline(window, lineStart, length);
+                int lineEnd;
+                if (newline >= 0) {
+                    lineEnd = newline;
+                } else if (lastWindow) {
+                    lineEnd = length;
+                } else if (lineStart > 0) {
+                    break; // linha incompleta: recomeça a próxima janela nela
+                } else {
+                    lineEnd = length;
+                    skipping = true;
+                }
+
+                int contentEnd = lineEnd > lineStart && window.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                handler.onLine(window, lineStart, contentEnd, ++lineNumber);
+                lineStart = Math.min(lineEnd + 1, length);
+            }
+            position += lineStart;
+        }
+        return lineNumber;
+    }
+
+    /**
+     * Divide o arquivo em até {@code chunks} trechos de tamanho parecido, cada um começando no início de uma
+     * linha. Retorna as fronteiras {@code [0, ..., size]}.
+     */
+    public static long[] splitAtLines(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[Math.max(1, chunks) + 1];
+        int count = 1;
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        for (int i = 1; i < chunks; i++) {
+            long boundary = nextLineStart(channel, Math.max(bounds[count - 1], size * i / chunks), probe);
+            if (boundary > bounds[count - 1] && boundary < size) {
+                bounds[count++] = boundary;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        long offset = position - 1;
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            int newline = indexOfNewline(probe, 0, read);
+            if (newline >= 0) {
+                return offset + newline + 1;
+            }
+            offset += read;
+        }
+    }
+
+    /** Procura {@code '\n'} lendo 8 bytes por vez; retorna -1 se não houver em {@code [from, to)}. */
+    static int indexOfNewline(ByteBuffer buf, int from, int to) {
+        boolean littleEndian = buf.order() == ByteOrder.LITTLE_ENDIAN;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = buf.getLong(i) ^ NEWLINES;
+            // bit alto ligado exatamente nos bytes zerados (sem falso positivo, vale para as duas ordens de bytes)
+            long found = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+            if (found != 0) {
+                int zeros = littleEndian ? Long.numberOfTrailingZeros(found) : Long.numberOfLeadingZeros(found);
+                return i + (zeros >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buf.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,171 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Month;
+
+/**
+ * Erro de parse de uma linha: número da linha, campo, código e os bytes originais do campo. A mensagem em
+ * português só é montada em {@link #message()}, então erros apenas contados ou descartados não geram Strings.
+ */
+public final class ParseError {
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final long lineNumber;
+    private final Field field;
+    private final ErrorCode code;
+    private final ValidationProfile profile;
+    private final byte[] raw;
+    private final int length;
+    private final String detail;
+
+    private ParseError(long lineNumber, Field field, ErrorCode code, ValidationProfile profile,
+                       byte[] raw, int length, String detail) {
+        this.lineNumber = lineNumber;
+        this.field = field;
+        this.code = code;
+        this.profile = profile;
+        this.raw = raw;
+        this.length = length;
+        this.detail = detail;
+    }
+
+    /** Erro no campo em {@code [from, to)} do buffer; os bytes são copiados, sem trim. */
+    public static ParseError of(long lineNumber, Field field, ErrorCode code, ValidationProfile profile,
+                                ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes, 0, bytes.length);
+        return new ParseError(lineNumber, field, code, profile, bytes, 0, null);
+    }
+
+    /** Erro no campo com o texto original {@code raw}, sem trim. */
+    public static ParseError of(long lineNumber, Field field, ErrorCode code, ValidationProfile profile, String raw) {
+        return new ParseError(lineNumber, field, code, profile, raw.getBytes(StandardCharsets.UTF_8), 0, null);
+    }
+
+    /** Linha curta demais: {@code length} é o tamanho da linha em caracteres. */
+    public static ParseError ofLength(long lineNumber, Field field, ErrorCode code, ValidationProfile profile, int length) {
+        return new ParseError(lineNumber, field, code, profile, NO_BYTES, length, null);
+    }
+
+    public static ParseError unexpected(long lineNumber, String detail) {
+        return new ParseError(lineNumber, Field.LINE, ErrorCode.UNEXPECTED, ValidationProfile.LEGACY, NO_BYTES, 0, detail);
+    }
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    public Field field() {
+        return field;
+    }
+
+    public ErrorCode code() {
+        return code;
+    }
+
+    /** Cópia dos bytes originais do campo (vazio para erros da linha inteira). */
+    public byte[] raw() {
+        return raw.clone();
+    }
+
+    public String rawText() {
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    /** Mensagem no formato {@code "Linha N: ..."}, igual à gerada antes dos erros estruturados. */
+    public String message() {
+        return "Linha " + lineNumber + ": " + describe();
+    }
+
+    @Override
+    public String toString() {
+        return message();
+    }
+
+    private String decimalText() {
+        String text = rawText().trim();
+        return profile.commaDecimal() ? text.replace(",", ".") : text;
+    }
+
+    private String describe() {
+        boolean strict = profile == ValidationProfile.STRICT;
+        String label = field.label();
+        return switch (code) {
+            case LINE_TOO_SHORT -> "Linha muito curta (tamanho: " + length + ", esperado: "
+                    + FixedWidthOrderParser.LINE_LENGTH + ").";
+            // mesmo texto do StringIndexOutOfBoundsException de String.substring no Java 21
+            case OUT_OF_RANGE -> "Campos fora do intervalo esperado: Range [" + field.begin() + ", " + field.end()
+                    + ") out of bounds for length " + length;
+            case INVALID_NUMBER -> strict
+                    ? label + " inválido: '" + rawText().trim() + "'"
+                    : "Campo '" + label + "' inválido: " + rawText();
+            case NOT_POSITIVE -> label + " deve ser positivo. Valor: " + Long.parseLong(rawText().trim());
+            case NEGATIVE -> label + " não pode ser negativo. Valor: " + new BigDecimal(decimalText());
+            case EMPTY -> strict ? label + " não pode estar vazio" : "Campo '" + label + "' vazio.";
+            case DATE_LENGTH -> "Data deve ter 8 dígitos (yyyymmdd). Valor: '" + rawText().trim() + "'";
+            case INVALID_DATE -> strict
+                    ? "Data inválida: '" + rawText().trim() + "' - " + dateFailure(rawText().trim())
+                    : "Data inválida: " + rawText();
+            case REJECTED -> "Campo '" + label + "' recusado pela validação: '" + rawText().trim() + "'";
+            case UNEXPECTED -> "Erro inesperado: " + detail;
+        };
+    }
+
+    /**
+     * Mensagem que {@code Integer.parseInt} (ano, mês e dia) e {@code LocalDate.of} dariam para o texto no perfil
+     * STRICT, montada sem provocar a exceção.
+     */
+    private static String dateFailure(String text) {
+        if (text.length() < 8) {
+            return "begin 0, end 4, length " + text.length();
+        }
+        String[] parts = {text.substring(0, 4), text.substring(4, 6), text.substring(6, 8)};
+        int[] values = new int[3];
+        for (int i = 0; i < parts.length; i++) {
+            Integer value = parseInt(parts[i]);
+            if (value == null) {
+                return "For input string: \"" + parts[i] + "\"";
+            }
+            values[i] = value;
+        }
+        int year = values[0];
+        int month = values[1];
+        int day = values[2];
+        if (month < 1 || month > 12) {
+            return "Invalid value for MonthOfYear (valid values 1 - 12): " + month;
+        }
+        if (day < 1 || day > 31) {
+            return "Invalid value for DayOfMonth (valid values 1 - 28/31): " + day;
+        }
+        if (day > FixedWidthOrderParser.lengthOfMonth(year, month)) {
+            return day == 29
+                    ? "Invalid date 'February 29' as '" + year + "' is not a leap year"
+                    : "Invalid date '" + Month.of(month).name() + " " + day + "'";
+        }
+        return null;
+    }
+
+    private static Integer parseInt(String text) {
+        int i = 0;
+        boolean negative = false;
+        if (!text.isEmpty() && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        if (i == text.length()) {
+            return null;
+        }
+        int value = 0;
+        for (; i < text.length(); i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0) {
+                return null;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
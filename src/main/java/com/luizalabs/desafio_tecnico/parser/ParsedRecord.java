@@ -0,0 +1,122 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.util.NameDictionary;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Registro mutável preenchido pelo {@link FixedWidthOrderParser}. Pode ser reaproveitado entre linhas;
+ * o nome fica como intervalo de bytes no buffer de origem e só vira String quando pedido.
+ */
+public final class ParsedRecord {
+
+    private ByteBuffer source;
+    private int nameStart;
+    private int nameEnd;
+
+    private long userId;
+    private long orderId;
+    private long productId;
+    private long valueUnscaled;
+    private int valueScale;
+    private int epochDay;
+
+    void setSource(ByteBuffer source) {
+        this.source = source;
+    }
+
+    void setName(int start, int end) {
+        this.nameStart = start;
+        this.nameEnd = end;
+    }
+
+    void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+
+    void setProductId(long productId) {
+        this.productId = productId;
+    }
+
+    void setValue(long unscaled, int scale) {
+        this.valueUnscaled = unscaled;
+        this.valueScale = scale;
+    }
+
+    void setEpochDay(int epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    ByteBuffer source() {
+        return source;
+    }
+
+    int nameStart() {
+        return nameStart;
+    }
+
+    int nameEnd() {
+        return nameEnd;
+    }
+
+    public long userId() {
+        return userId;
+    }
+
+    public long orderId() {
+        return orderId;
+    }
+
+    public long productId() {
+        return productId;
+    }
+
+    /** Valor sem casas decimais; o valor real é {@code valueUnscaled * 10^-valueScale} (ex.: centavos com escala 2). */
+    public long valueUnscaled() {
+        return valueUnscaled;
+    }
+
+    public int valueScale() {
+        return valueScale;
+    }
+
+    public int epochDay() {
+        return epochDay;
+    }
+
+    public BigDecimal value() {
+        return BigDecimal.valueOf(valueUnscaled, valueScale);
+    }
+
+    public LocalDate date() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /** Decodifica o nome (UTF-8). Deve ser chamado antes de o buffer de origem ser reaproveitado. */
+    public String name() {
+        int length = nameEnd - nameStart;
+        if (source.hasArray()) {
+            return new String(source.array(), source.arrayOffset() + nameStart, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        source.get(nameStart, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Como {@link #name()}, devolvendo a String já guardada em {@code names} quando o nome se repete. */
+    public String name(NameDictionary names) {
+        return names.intern(source, nameStart, nameEnd);
+    }
+
+    public ParsedLine toParsedLine() {
+        return new ParsedLine(userId, name(), orderId, productId, value(), date());
+    }
+}
@@ -0,0 +1,41 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+/**
+ * Regras dos perfis. Uma única classe (sem corpo por constante) deixa a chamada {@link FieldRule#test} monomórfica
+ * no parse, que o JIT consegue inlinar; regras extras via {@link FieldRule#of} continuam funcionando.
+ */
+enum StandardRule implements FieldRule {
+
+    POSITIVE_USER_ID(Field.USER_ID, ErrorCode.NOT_POSITIVE),
+    POSITIVE_ORDER_ID(Field.ORDER_ID, ErrorCode.NOT_POSITIVE),
+    POSITIVE_PRODUCT_ID(Field.PRODUCT_ID, ErrorCode.NOT_POSITIVE),
+    NON_NEGATIVE_VALUE(Field.VALUE, ErrorCode.NEGATIVE);
+
+    private final Field field;
+    private final ErrorCode errorCode;
+
+    StandardRule(Field field, ErrorCode errorCode) {
+        this.field = field;
+        this.errorCode = errorCode;
+    }
+
+    @Override
+    public Field field() {
+        return field;
+    }
+
+    @Override
+    public boolean test(ParsedRecord record) {
+        return switch (this) {
+            case POSITIVE_USER_ID -> record.userId() > 0;
+            case POSITIVE_ORDER_ID -> record.orderId() > 0;
+            case POSITIVE_PRODUCT_ID -> record.productId() > 0;
+            case NON_NEGATIVE_VALUE -> record.valueUnscaled() >= 0;
+        };
+    }
+
+    @Override
+    public ErrorCode errorCode() {
+        return errorCode;
+    }
+}
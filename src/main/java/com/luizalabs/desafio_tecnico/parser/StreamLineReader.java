@@ -0,0 +1,80 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Lê linhas de um {@link InputStream} em blocos de bytes, sem Reader nem String por linha. O buffer é
+ * reaproveitado: a linha entregue ao handler só é válida durante a chamada.
+ */
+public final class StreamLineReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private StreamLineReader() {
+    }
+
+    /** @return quantidade de linhas lidas */
+    public static long forEach(InputStream in, LineHandler handler) throws IOException {
+        return forEach(in, BUFFER_SIZE, MAX_LINE_LENGTH, handler);
+    }
+
+    static long forEach(InputStream in, int bufferSize, int maxLineLength, LineHandler handler) throws IOException {
+        byte[] buf = new byte[bufferSize];
+        ByteBuffer view = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+        int filled = 0;
+        int lineStart = 0;
+        int scanFrom = 0;
+        long lineNumber = 0;
+        boolean skipping = false; // restante de uma linha maior que o limite
+
+        while (true) {
+            int newline = MappedLineReader.indexOfNewline(view, scanFrom, filled);
+            if (newline >= 0) {
+                if (!skipping) {
+                    handler.onLine(view, lineStart, contentEnd(buf, lineStart, newline), ++lineNumber);
+                }
+                skipping = false;
+                lineStart = newline + 1;
+                scanFrom = lineStart;
+                continue;
+            }
+
+            if (lineStart > 0) {
+                System.arraycopy(buf, lineStart, buf, 0, filled - lineStart);
+                filled -= lineStart;
+                lineStart = 0;
+            }
+            if (skipping) {
+                filled = 0;
+            } else if (filled >= maxLineLength) {
+                handler.onLine(view, 0, filled, ++lineNumber);
+                filled = 0;
+                skipping = true;
+            } else if (filled == buf.length) {
+                buf = Arrays.copyOf(buf, Math.min(buf.length * 2, maxLineLength));
+                view = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            scanFrom = filled;
+
+            int read = in.read(buf, filled, buf.length - filled);
+            if (read < 0) {
+                break;
+            }
+            filled += read;
+        }
+
+        if (filled > lineStart && !skipping) {
+            handler.onLine(view, lineStart, contentEnd(buf, lineStart, filled), ++lineNumber);
+        }
+        return lineNumber;
+    }
+
+    private static int contentEnd(byte[] buf, int start, int end) {
+        return end > start && buf[end - 1] == '\r' ? end - 1 : end;
+    }
+}
@@ -0,0 +1,55 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import java.util.List;
+
+/**
+ * Conjunto de regras e mensagens aplicado pelo {@link FixedWidthOrderParser}: como cada campo é convertido e
+ * quais {@link FieldRule}s validam o valor convertido.
+ */
+public enum ValidationProfile {
+
+    /** Regras do {@code ParsedLineService}: ids positivos, valor não negativo, data validada campo a campo. */
+    STRICT(false, false, false, List.of(
+            FieldRule.positiveId(Field.USER_ID),
+            FieldRule.positiveId(Field.ORDER_ID),
+            FieldRule.positiveId(Field.PRODUCT_ID),
+            FieldRule.nonNegativeValue())),
+
+    /**
+     * Regras do {@code FileProcessingService}: aceita qualquer sinal, vírgula como separador decimal e data no
+     * formato {@code yyyyMMdd} com ajuste do dia ao fim do mês; linhas com menos de 95 colunas são rejeitadas inteiras.
+     */
+    LEGACY(true, true, true, List.of());
+
+    private final boolean fullLineRequired;
+    private final boolean commaDecimal;
+    private final boolean lenientDate;
+    private final List<FieldRule> rules;
+
+    ValidationProfile(boolean fullLineRequired, boolean commaDecimal, boolean lenientDate, List<FieldRule> rules) {
+        this.fullLineRequired = fullLineRequired;
+        this.commaDecimal = commaDecimal;
+        this.lenientDate = lenientDate;
+        this.rules = rules;
+    }
+
+    /** Linha com menos de 95 colunas vira um único erro {@link ErrorCode#LINE_TOO_SHORT}. */
+    public boolean fullLineRequired() {
+        return fullLineRequired;
+    }
+
+    /** Aceita vírgula como separador decimal no valor. */
+    public boolean commaDecimal() {
+        return commaDecimal;
+    }
+
+    /** Data via {@code DateTimeFormatter} ({@code yyyyMMdd}, resolução SMART) em vez de ano/mês/dia separados. */
+    public boolean lenientDate() {
+        return lenientDate;
+    }
+
+    /** Regras aplicadas depois da conversão de cada campo. */
+    public List<FieldRule> rules() {
+        return rules;
+    }
+}
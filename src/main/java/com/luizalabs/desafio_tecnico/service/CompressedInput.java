@@ -0,0 +1,53 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Detecção e descompressão de uploads compactados com gzip. O formato é reconhecido pelos bytes iniciais
+ * ({@code 1f 8b}), então vale também para arquivos enviados como {@code application/octet-stream}; a descompressão
+ * acontece durante a leitura, sem cópia descompactada em disco.
+ */
+public final class CompressedInput {
+
+    public static final Set<String> GZIP_CONTENT_TYPES = Set.of("application/gzip", "application/x-gzip");
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedInput() {
+    }
+
+    public static boolean isGzip(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return hasGzipMagic(in);
+        }
+    }
+
+    public static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return hasGzipMagic(in);
+        }
+    }
+
+    /** Devolve {@code in} descompactado se ele começar com o cabeçalho gzip; caso contrário, como está. */
+    public static InputStream open(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        boolean gzip = hasGzipMagic(buffered);
+        buffered.reset();
+        return gzip ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    private static boolean hasGzipMagic(InputStream in) throws IOException {
+        return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+    }
+}
@@ -1,150 +1,443 @@
 package com.luizalabs.desafio_tecnico.service;
 
+import com.luizalabs.desafio_tecnico.config.IngestProperties;
 import com.luizalabs.desafio_tecnico.dto.*;
+import com.luizalabs.desafio_tecnico.parser.*;
+import com.luizalabs.desafio_tecnico.util.LongIntMap;
+import com.luizalabs.desafio_tecnico.util.NameDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
 @Service
 public class FileProcessingService {
 
-    public FileProcessingResultDTO processFile(MultipartFile file) throws IOException {
-        Map<Long, UserDTO> userMap = new LinkedHashMap<>();
-        List<String> errors = new ArrayList<>();
+    private final IngestProperties properties;
+    private final IngestMetrics metrics;
+    private final FixedWidthOrderParser byteParser;
+    private final ForkJoinPool parsePool;
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String line;
-            int lineNumber = 1;
+    public FileProcessingService() {
+        this(new IngestProperties());
+    }
 
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) {
-                    lineNumber++;
-                    continue;
-                }
+    public FileProcessingService(IngestProperties properties) {
+        this(properties, new IngestMetrics(new SimpleMeterRegistry()));
+    }
 
-                if (line.length() < 95) {
-                    errors.add(error(lineNumber, "Padrão inválido (tamanho: " + line.length() + ", esperado: 95)."));
-                    lineNumber++;
-                    continue;
-                }
+    @Autowired
+    public FileProcessingService(IngestProperties properties, IngestMetrics metrics) {
+        this(properties, metrics, new FixedWidthOrderParser(ValidationProfile.LEGACY));
+    }
 
-                try {
-                    ParsedLine parsed = parseLine(line, lineNumber, errors);
-                    if (parsed != null) {
-                        addToMap(userMap, parsed);
-                    }
-                } catch (Exception e) {
-                    errors.add(error(lineNumber, "Erro inesperado: " + e.getMessage()));
-                }
+    FileProcessingService(IngestProperties properties, IngestMetrics metrics, FixedWidthOrderParser byteParser) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.byteParser = byteParser;
+        this.parsePool = new ForkJoinPool(properties.getParallelism());
+    }
 
-                lineNumber++;
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdown();
+    }
+
+    public FileProcessingResultDTO processFile(MultipartFile file) throws IOException {
+        if (CompressedInput.isGzip(file)) {
+            try (InputStream in = CompressedInput.open(file.getInputStream())) {
+                return processStream(in, new IngestProgress(), true, "gzip");
             }
         }
+        if (file.getSize() >= properties.getMappedThreshold().toBytes()) {
+            return processFileMapped(file);
+        }
+        // mesmo parser de bytes dos demais caminhos, sem Reader nem String por linha
+        IngestProgress progress = new IngestProgress();
+        try (InputStream in = new CountingInputStream(file.getInputStream(), progress)) {
+            return processStream(in, progress, false, "text");
+        }
+    }
 
-        FileProcessingResultDTO result = new FileProcessingResultDTO();
-        result.setUsers(new ArrayList<>(userMap.values()));
-        result.setErrors(errors);
-        return result;
+    // grava o upload em disco e processa via memory-mapping, sem passar por Reader/String
+    public FileProcessingResultDTO processFileMapped(MultipartFile file) throws IOException {
+        Path spool = Files.createTempFile("pedidos-", ".txt");
+        try {
+            file.transferTo(spool);
+            return processPath(spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    public FileProcessingResultDTO processPath(Path path) throws IOException {
+        return processPath(path, new IngestProgress());
+    }
+
+    /**
+     * Como {@link #processPath(Path)}, atualizando {@code progress} a cada linha lida. Arquivos gzip são lidos
+     * descompactando em sequência; nesse caso o progresso em bytes é o do arquivo compactado.
+     */
+    public FileProcessingResultDTO processPath(Path path, IngestProgress progress) throws IOException {
+        if (CompressedInput.isGzip(path)) {
+            try (InputStream in = CompressedInput.open(new CountingInputStream(Files.newInputStream(path), progress))) {
+                return processStream(in, progress, false, "gzip");
+            }
+        }
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = MappedLineReader.splitAtLines(channel, chunkCount(channel.size()));
+            try (ErrorCollector errors = newCollector()) {
+                OrderAggregator aggregator = bounds.length <= 2
+                        ? parseChunk(channel, 0, channel.size(), 0, errors, progress)
+                        : processChunks(channel, bounds, errors, progress);
+                metrics.uploadFinished("mapped", System.nanoTime() - startNanos, progress.getLinesRead(),
+                        channel.size(), progress, errors);
+                return buildResult(aggregator, errors);
+            }
+        }
+    }
+
+    /**
+     * Cada trecho é processado em paralelo gerando um agregado parcial; a junção segue a ordem dos trechos,
+     * então usuários, pedidos, produtos e erros saem na mesma ordem do processamento sequencial.
+     */
+    private OrderAggregator processChunks(FileChannel channel, long[] bounds, ErrorCollector errors,
+                                          IngestProgress progress) throws IOException {
+        int chunks = bounds.length - 1;
+
+        // numeração global das linhas: conta as linhas de cada trecho antes do parse
+        List<ForkJoinTask<Long>> counts = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            counts.add(parsePool.submit(() -> countLines(channel, from, to)));
+        }
+        List<ForkJoinTask<ChunkResult>> parts = new ArrayList<>(chunks);
+        long firstLine = 0;
+        for (int i = 0; i < chunks; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            long lineOffset = firstLine;
+            ErrorCollector chunkErrors = newChunkCollector(errors);
+            parts.add(parsePool.submit(() -> new ChunkResult(
+                    parseChunk(channel, from, to, lineOffset, chunkErrors, progress), chunkErrors)));
+            firstLine += join(counts.get(i));
+        }
+
+        OrderAggregator aggregator = new OrderAggregator();
+        long mergeNanos = 0;
+        for (ForkJoinTask<ChunkResult> part : parts) {
+            ChunkResult result = join(part);
+            long mergeStart = System.nanoTime();
+            aggregator.merge(result.aggregator());
+            errors.merge(result.errors());
+            mergeNanos += System.nanoTime() - mergeStart;
+        }
+        metrics.merged(mergeNanos);
+        return aggregator;
     }
 
-    private ParsedLine parseLine(String line, int lineNumber, List<String> errors) {
+    private OrderAggregator parseChunk(FileChannel channel, long from, long to, long lineOffset,
+                                       ErrorCollector errors, IngestProgress progress) {
+        OrderAggregator aggregator = newAggregator();
         try {
-            Long userId = parseLong(line.substring(0, 10), "User ID", lineNumber, errors);
-            String name = parseText(line.substring(10, 55), "Nome", lineNumber, errors);
-            Long orderId = parseLong(line.substring(55, 65), "Order ID", lineNumber, errors);
-            Long productId = parseLong(line.substring(65, 75), "Product ID", lineNumber, errors);
-            BigDecimal value = parseDecimal(line.substring(75, 87), "Valor", lineNumber, errors);
-            LocalDate date = parseDate(line.substring(87, 95), lineNumber, errors);
-
-            if (Stream.of(userId, name, orderId, productId, value, date).anyMatch(Objects::isNull)) {
-                return null;
+            MappedLineReader.forEach(channel, from, to, aggregate(aggregator, errors, lineOffset, progress, true));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return aggregator;
+    }
+
+    // leitura sequencial em blocos (upload pequeno ou compactado), sem arquivo temporário nem divisão em trechos
+    private FileProcessingResultDTO processStream(InputStream in, IngestProgress progress, boolean countLineBytes,
+                                                  String source) throws IOException {
+        long startNanos = System.nanoTime();
+        OrderAggregator aggregator = newAggregator();
+        try (ErrorCollector errors = newCollector()) {
+            StreamLineReader.forEach(in, aggregate(aggregator, errors, 0, progress, countLineBytes));
+            metrics.uploadFinished(source, System.nanoTime() - startNanos, progress.getLinesRead(),
+                    progress.getBytesRead(), progress, errors);
+            return buildResult(aggregator, errors);
+        }
+    }
+
+    private LineHandler aggregate(OrderAggregator aggregator, ErrorCollector errors, long lineOffset,
+                                  IngestProgress progress, boolean countLineBytes) {
+        ParsedRecord record = new ParsedRecord();
+        return (buffer, start, end, lineNumber) -> {
+            if (countLineBytes) {
+                progress.lineRead(end - start);
+            } else {
+                progress.lineRead();
+            }
+            if (FixedWidthOrderParser.isBlank(buffer, start, end)) {
+                return;
+            }
+            long errorCount = errors.count();
+            boolean sampled = IngestProgress.sampled(lineNumber);
+            long t0 = sampled ? System.nanoTime() : 0;
+            if (parse(buffer, start, end, lineOffset + lineNumber, errors, record)) {
+                if (sampled) {
+                    long t1 = System.nanoTime();
+                    aggregator.add(record);
+                    progress.phasesSampled(t1 - t0, System.nanoTime() - t1);
+                } else {
+                    aggregator.add(record);
+                }
+            } else {
+                progress.errorsFound((int) (errors.count() - errorCount));
             }
+        };
+    }
+
+    /**
+     * Uma falha inesperada do parser numa linha vira erro dessa linha ({@link ParseError#unexpected}), sem
+     * interromper o upload.
+     */
+    private boolean parse(ByteBuffer buffer, int start, int end, long lineNumber, ErrorSink errors,
+                          ParsedRecord record) {
+        try {
+            return byteParser.parse(buffer, start, end, lineNumber, errors, record);
+        } catch (RuntimeException e) {
+            errors.add(ParseError.unexpected(lineNumber, e.getMessage()));
+            return false;
+        }
+    }
 
-            return new ParsedLine(userId, name, orderId, productId, value, date);
-        } catch (StringIndexOutOfBoundsException e) {
-            errors.add(error(lineNumber, "Campos fora do intervalo esperado: " + e.getMessage()));
-            return null;
+    /**
+     * Processa o arquivo entregando usuários e erros ao listener durante a leitura, sem montar o resultado
+     * completo. Com {@code sortedByUser} o arquivo deve estar agrupado por usuário: cada usuário é entregue
+     * assim que aparece o próximo, e os pedidos em memória ficam limitados a um usuário; só os ids já entregues
+     * são guardados (um long por usuário), para recusar um usuário que volte a aparecer. Sem ele, os erros saem durante a
+     * leitura e os usuários ao final.
+     */
+    public void processFileStreaming(MultipartFile file, boolean sortedByUser, IngestListener listener) throws IOException {
+        StreamingIngest ingest = new StreamingIngest(sortedByUser, listener);
+        try (InputStream in = CompressedInput.open(file.getInputStream())) {
+            StreamLineReader.forEach(in, ingest);
         }
+        ingest.flush();
     }
 
-    private void addToMap(Map<Long, UserDTO> map, ParsedLine parsed) {
-        UserDTO user = map.computeIfAbsent(parsed.userId(), id -> {
-            UserDTO u = new UserDTO();
-            u.setId(id);
-            u.setName(parsed.name());
-            u.setOrders(new ArrayList<>());
-            return u;
-        });
+    private final class StreamingIngest implements LineHandler {
 
-        OrderDTO order = user.getOrders().stream()
-                .filter(o -> o.getId().equals(parsed.orderId()))
-                .findFirst()
-                .orElseGet(() -> {
-                    OrderDTO o = new OrderDTO();
-                    o.setId(parsed.orderId());
-                    o.setDate(parsed.date().toString());
-                    o.setUser(user);
-                    o.setProducts(new ArrayList<>());
-                    user.getOrders().add(o);
-                    return o;
-                });
+        private final boolean sortedByUser;
+        private final IngestListener listener;
+        private final ErrorSink errors;
+        private final ParsedRecord record = new ParsedRecord();
+        // ids já entregues, para recusar usuário fora de ordem em vez de entregá-lo duas vezes: é o único estado
+        // que cresce com o arquivo, um long por usuário (24 a 48 bytes com a folga da tabela), sem objeto por
+        // entrada; os pedidos continuam limitados a um usuário
+        private final LongIntMap emitted = new LongIntMap();
+        private final NameDictionary names = new NameDictionary(properties.getNameDictionarySize());
+        private OrderAggregator aggregator = new OrderAggregator(names);
+        private long currentUserId;
+        private boolean hasCurrentUser;
 
-        ProductDTO product = new ProductDTO();
-        product.setId(parsed.productId());
-        product.setPrice(parsed.value());
-        order.getProducts().add(product);
+        StreamingIngest(boolean sortedByUser, IngestListener listener) {
+            this.sortedByUser = sortedByUser;
+            this.listener = listener;
+            this.errors = error -> listener.onError(error.message());
+        }
+
+        @Override
+        public void onLine(ByteBuffer buffer, int start, int end, long lineNumber) {
+            if (FixedWidthOrderParser.isBlank(buffer, start, end)) {
+                return;
+            }
+            if (!parse(buffer, start, end, lineNumber, errors, record)) {
+                return;
+            }
+            if (sortedByUser) {
+                long userId = record.userId();
+                if (hasCurrentUser && userId != currentUserId) {
+                    flush();
+                }
+                if (emitted.get(userId) != LongIntMap.MISSING) {
+                    listener.onError("Linha " + lineNumber + ": Usuário " + userId
+                            + " fora de ordem; o arquivo deve estar agrupado por usuário.");
+                    return;
+                }
+                currentUserId = userId;
+                hasCurrentUser = true;
+            }
+            aggregator.add(record);
+        }
+
+        void flush() {
+            for (UserDTO user : aggregator.getUsers()) {
+                if (sortedByUser) {
+                    emitted.put(user.getId(), 0);
+                }
+                listener.onUser(user);
+            }
+            aggregator = new OrderAggregator(names);
+            hasCurrentUser = false;
+        }
     }
 
+    /**
+     * Streaming para arquivos em qualquer ordem e maiores que a memória: as linhas válidas passam por uma
+     * ordenação externa ({@link ExternalRecordSorter}) limitada a {@code app.ingest.sort-memory-budget}, e cada
+     * usuário é entregue ao listener com todos os pedidos, em ordem de id. Os erros saem durante a leitura.
+     */
+    public void processFileExternalSort(MultipartFile file, IngestListener listener) throws IOException {
+        ErrorSink errors = error -> listener.onError(error.message());
+        ParsedRecord record = new ParsedRecord();
+        try (ExternalRecordSorter sorter = new ExternalRecordSorter(
+                properties.getSortMemoryBudget().toBytes(), properties.getSortDir());
+             InputStream in = CompressedInput.open(file.getInputStream())) {
+            StreamLineReader.forEach(in, (buffer, start, end, lineNumber) -> {
+                if (FixedWidthOrderParser.isBlank(buffer, start, end)
+                        || !parse(buffer, start, end, lineNumber, errors, record)) {
+                    return;
+                }
+                try {
+                    sorter.add(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            SortedUsers users = new SortedUsers(listener);
+            sorter.forEachSorted(users);
+            users.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // registros já em ordem de usuário: cada usuário sai quando aparece o próximo, sem guardar os anteriores
+    private final class SortedUsers implements Consumer<ParsedRecord> {
+
+        private final IngestListener listener;
+        private final NameDictionary names = new NameDictionary(properties.getNameDictionarySize());
+        private OrderAggregator aggregator = new OrderAggregator(names);
+        private long currentUserId;
+        private boolean hasCurrentUser;
+
+        SortedUsers(IngestListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void accept(ParsedRecord record) {
+            if (hasCurrentUser && record.userId() != currentUserId) {
+                flush();
+            }
+            currentUserId = record.userId();
+            hasCurrentUser = true;
+            aggregator.add(record);
+        }
+
+        void flush() {
+            aggregator.getUsers().forEach(listener::onUser);
+            aggregator = new OrderAggregator(names);
+            hasCurrentUser = false;
+        }
+    }
 
-    private Long parseLong(String str, String fieldName, int lineNumber, List<String> errors) {
+    private long countLines(FileChannel channel, long from, long to) {
         try {
-            return Long.parseLong(str.trim());
-        } catch (NumberFormatException e) {
-            errors.add(error(lineNumber, "Campo '" + fieldName + "' inválido: " + str));
-            return null;
+            return MappedLineReader.forEach(channel, from, to, (buffer, start, end, lineNumber) -> { });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private String parseText(String str, String fieldName, int lineNumber, List<String> errors) {
-        String text = str.trim();
-        if (text.isEmpty()) {
-            errors.add(error(lineNumber, "Campo '" + fieldName + "' vazio."));
-            return null;
+    private int chunkCount(long size) {
+        if (properties.getParallelism() <= 1) {
+            return 1;
         }
-        return text;
+        long bySize = size / Math.max(1, properties.getParallelChunkSize().toBytes());
+        return (int) Math.max(1, Math.min(bySize, properties.getParallelism() * 4L));
     }
 
-    private BigDecimal parseDecimal(String str, String fieldName, int lineNumber, List<String> errors) {
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
         try {
-            String cleanStr = str.trim().replace(",", ".");
-            return new BigDecimal(cleanStr);
-        } catch (NumberFormatException e) {
-            errors.add(error(lineNumber, "Campo '" + fieldName + "' inválido: " + str));
-            return null;
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
-    private LocalDate parseDate(String str, int lineNumber, List<String> errors) {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-            return LocalDate.parse(str.trim(), formatter);
-        } catch (DateTimeParseException e) {
-            errors.add(error(lineNumber, "Data inválida: " + str));
-            return null;
+    private record ChunkResult(OrderAggregator aggregator, ErrorCollector errors) {
+    }
+
+    /** Conta em {@code progress} os bytes lidos do arquivo compactado. */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final IngestProgress progress;
+
+        CountingInputStream(InputStream in, IngestProgress progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                progress.bytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                progress.bytesRead(n);
+            }
+            return n;
+        }
+    }
+
+    private OrderAggregator newAggregator() {
+        return new OrderAggregator(new NameDictionary(properties.getNameDictionarySize()));
+    }
+
+    private ErrorCollector newCollector() throws IOException {
+        Path dir = properties.getErrorDir();
+        if (dir == null) {
+            return new ErrorCollector(properties.getMaxErrors());
+        }
+        Files.createDirectories(dir);
+        return new ErrorCollector(properties.getMaxErrors(), Files.createTempFile(dir, "erros-", ".txt"));
+    }
+
+    // cada trecho grava o próprio arquivo parcial; o merge concatena na ordem dos trechos
+    private ErrorCollector newChunkCollector(ErrorCollector target) throws IOException {
+        if (target.file() == null) {
+            return new ErrorCollector(properties.getMaxErrors());
         }
+        return new ErrorCollector(properties.getMaxErrors(), Files.createTempFile(target.file().getParent(), "erros-", ".part"));
     }
 
-    private String error(int lineNumber, String msg) {
-        return "Linha " + lineNumber + ": " + msg;
+    private FileProcessingResultDTO buildResult(OrderAggregator aggregator, ErrorCollector errors) throws IOException {
+        errors.close();
+        FileProcessingResultDTO result = new FileProcessingResultDTO();
+        result.setUsers(aggregator.getUsers());
+        result.setErrors(errors.messages());
+        result.setErrorCount(errors.count());
+        result.setErrorCodes(errors.counts());
+        result.setErrorFile(errors.file() == null ? null : errors.file().toString());
+        return result;
     }
 
-}
\ No newline at end of file
+}
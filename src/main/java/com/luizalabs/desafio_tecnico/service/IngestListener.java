@@ -0,0 +1,12 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+
+/** Recebe o resultado do processamento em streaming à medida que o arquivo é lido. */
+public interface IngestListener {
+
+    /** Usuário com todos os pedidos já fechados; não receberá mais produtos. */
+    void onUser(UserDTO user);
+
+    void onError(String error);
+}
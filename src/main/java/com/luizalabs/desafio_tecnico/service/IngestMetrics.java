@@ -0,0 +1,75 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.parser.ErrorCollector;
+import com.luizalabs.desafio_tecnico.parser.Field;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de ingestão, registradas uma vez ao fim de cada upload (nada por linha): duração por caminho de
+ * leitura ({@code text}, {@code mapped}, {@code gzip}), linhas e bytes por segundo, erros de parse por campo e o
+ * tempo estimado de parse e de agregação.
+ */
+@Component
+public class IngestMetrics {
+
+    private final MeterRegistry registry;
+
+    public IngestMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void uploadFinished(String source, long elapsedNanos, long lines, long bytes,
+                        IngestProgress progress, ErrorCollector errors) {
+        Timer.builder("ingest.upload")
+                .description("Duração do processamento de um upload")
+                .tag("source", source)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        double seconds = Math.max(1e-9, elapsedNanos / 1e9);
+        DistributionSummary.builder("ingest.lines.per.second")
+                .description("Linhas por segundo de cada upload")
+                .tag("source", source)
+                .register(registry)
+                .record(lines / seconds);
+        DistributionSummary.builder("ingest.bytes.per.second")
+                .description("Bytes por segundo de cada upload")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(registry)
+                .record(bytes / seconds);
+        Counter.builder("ingest.lines").tag("source", source).register(registry).increment(lines);
+        Counter.builder("ingest.bytes").baseUnit("bytes").tag("source", source).register(registry).increment(bytes);
+
+        for (Map.Entry<Field, Long> entry : errors.fieldCounts().entrySet()) {
+            Counter.builder("ingest.parse.errors")
+                    .description("Erros de parse por campo")
+                    .tag("field", entry.getKey().name())
+                    .register(registry)
+                    .increment(entry.getValue());
+        }
+
+        phase("parse", progress.getParseNanos());
+        phase("aggregate", progress.getAggregateNanos());
+    }
+
+    /** Junção dos agregados parciais do processamento em paralelo. */
+    void merged(long elapsedNanos) {
+        phase("merge", elapsedNanos);
+    }
+
+    private void phase(String phase, long nanos) {
+        Timer.builder("ingest.phase")
+                .description("Tempo de parse e de agregação por upload (parse/aggregate estimados por amostragem)")
+                .tag("phase", phase)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
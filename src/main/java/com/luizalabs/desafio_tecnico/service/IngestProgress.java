@@ -0,0 +1,66 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de um processamento em andamento; podem ser lidos por outra thread durante o parse. Os tempos de
+ * parse e de agregação são amostrados (uma linha a cada {@link #PHASE_SAMPLE}) e extrapolados, para não pagar
+ * duas leituras de relógio por linha.
+ */
+public class IngestProgress {
+
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder aggregateNanos = new LongAdder();
+
+    static final int PHASE_SAMPLE = 64;
+
+    /** {@code true} para a linha que deve ter parse e agregação cronometrados. */
+    static boolean sampled(long lineNumber) {
+        return lineNumber % PHASE_SAMPLE == 0;
+    }
+
+    void phasesSampled(long parse, long aggregate) {
+        parseNanos.add(parse * PHASE_SAMPLE);
+        aggregateNanos.add(aggregate * PHASE_SAMPLE);
+    }
+
+    void lineRead(int length) {
+        lines.increment();
+        bytes.add(length + 1L); // + terminador
+    }
+
+    void lineRead() {
+        lines.increment();
+    }
+
+    void bytesRead(long count) {
+        bytes.add(count);
+    }
+
+    void errorsFound(int count) {
+        errors.add(count);
+    }
+
+    public long getLinesRead() {
+        return lines.sum();
+    }
+
+    public long getBytesRead() {
+        return bytes.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    long getAggregateNanos() {
+        return aggregateNanos.sum();
+    }
+}
@@ -0,0 +1,85 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lista gravada em disco como um JSON por linha, lida por faixas de posição. Em memória fica só o offset de
+ * uma linha a cada {@link #STRIDE}: uma página começa no offset anterior mais próximo e pula no máximo
+ * {@code STRIDE - 1} linhas.
+ */
+final class JobResultFile<T> {
+
+    static final int STRIDE = 256;
+
+    private final Path file;
+    private final Class<T> type;
+    private final ObjectMapper mapper;
+    private final int size;
+    private final long[] offsets;
+
+    private JobResultFile(Path file, Class<T> type, ObjectMapper mapper, int size, long[] offsets) {
+        this.file = file;
+        this.type = type;
+        this.mapper = mapper;
+        this.size = size;
+        this.offsets = offsets;
+    }
+
+    static <T> JobResultFile<T> write(Path file, List<T> items, Class<T> type, ObjectMapper mapper) throws IOException {
+        long[] offsets = new long[(items.size() + STRIDE - 1) / STRIDE];
+        long offset = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < items.size(); i++) {
+                if (i % STRIDE == 0) {
+                    offsets[i / STRIDE] = offset;
+                }
+                byte[] line = mapper.writeValueAsBytes(items.get(i));
+                out.write(line);
+                out.write('\n');
+                offset += line.length + 1;
+            }
+        }
+        return new JobResultFile<>(file, type, mapper, items.size(), offsets);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Itens das posições {@code [from, to)}. */
+    List<T> read(int from, int to) {
+        List<T> items = new ArrayList<>(to - from);
+        if (from >= to) {
+            return items;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offsets[from / STRIDE]);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            for (int i = from / STRIDE * STRIDE; i < from; i++) {
+                reader.readLine();
+            }
+            for (int i = from; i < to; i++) {
+                items.add(mapper.readValue(reader.readLine(), type));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,117 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.parser.ParsedRecord;
+import com.luizalabs.desafio_tecnico.util.LongPairMap;
+import com.luizalabs.desafio_tecnico.util.NameDictionary;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monta a árvore usuário → pedido → produto a partir das linhas. Usuários e pedidos ficam indexados por id
+ * (pedido pela chave {@code (userId, orderId)}), então cada linha custa O(1) mesmo para usuários com muitos
+ * pedidos. A ordem de saída é a da primeira aparição no arquivo. O nome só é lido quando o usuário aparece pela
+ * primeira vez, e nomes repetidos compartilham a String do {@link NameDictionary}.
+ */
+public class OrderAggregator {
+
+    private final List<UserDTO> users = new ArrayList<>();
+    private final LongPairMap<UserDTO> usersById = new LongPairMap<>();
+    private final LongPairMap<OrderDTO> ordersByKey = new LongPairMap<>();
+    private final NameDictionary names;
+
+    public OrderAggregator() {
+        this(new NameDictionary());
+    }
+
+    public OrderAggregator(NameDictionary names) {
+        this.names = names;
+    }
+
+    public void add(ParsedLine parsed) {
+        UserDTO user = usersById.get(parsed.userId(), 0);
+        if (user == null) {
+            user = newUser(parsed.userId(), parsed.name());
+        }
+        OrderDTO order = ordersByKey.get(parsed.userId(), parsed.orderId());
+        if (order == null) {
+            order = newOrder(user, parsed.orderId(), parsed.date().toString());
+        }
+        user.addProduct(order, newProduct(parsed.productId(), parsed.value()));
+    }
+
+    // nome, data e valor só viram objetos quando são de fato usados
+    public void add(ParsedRecord record) {
+        UserDTO user = usersById.get(record.userId(), 0);
+        if (user == null) {
+            user = newUser(record.userId(), record.name(names));
+        }
+        OrderDTO order = ordersByKey.get(record.userId(), record.orderId());
+        if (order == null) {
+            order = newOrder(user, record.orderId(), record.date().toString());
+        }
+        user.addProduct(order, newProduct(record.productId(), record.value()));
+    }
+
+    /** Acrescenta um agregado parcial posterior a este, preservando a ordem de primeira aparição. */
+    public void merge(OrderAggregator other) {
+        for (UserDTO user : other.users) {
+            UserDTO existing = usersById.get(user.getId(), 0);
+            if (existing == null) {
+                users.add(user);
+                usersById.put(user.getId(), 0, user);
+                for (OrderDTO order : user.getOrders()) {
+                    ordersByKey.put(user.getId(), order.getId(), order);
+                }
+                continue;
+            }
+            for (OrderDTO order : user.getOrders()) {
+                OrderDTO existingOrder = ordersByKey.get(user.getId(), order.getId());
+                if (existingOrder != null) {
+                    order.getProducts().forEach(product -> existing.addProduct(existingOrder, product));
+                } else {
+                    order.setUser(existing);
+                    existing.addOrder(order);
+                    ordersByKey.put(user.getId(), order.getId(), order);
+                }
+            }
+        }
+    }
+
+    public List<UserDTO> getUsers() {
+        return users;
+    }
+
+    private UserDTO newUser(long userId, String name) {
+        UserDTO user = new UserDTO();
+        user.setId(userId);
+        user.setName(name);
+        user.setOrders(new ArrayList<>());
+        users.add(user);
+        usersById.put(userId, 0, user);
+        return user;
+    }
+
+    private OrderDTO newOrder(UserDTO user, long orderId, String date) {
+        OrderDTO order = new OrderDTO();
+        order.setId(orderId);
+        order.setDate(date);
+        order.setUser(user);
+        order.setProducts(new ArrayList<>());
+        user.addOrder(order);
+        ordersByKey.put(user.getId(), orderId, order);
+        return order;
+    }
+
+    private static ProductDTO newProduct(long productId, BigDecimal price) {
+        ProductDTO product = new ProductDTO();
+        product.setId(productId);
+        product.setPrice(price);
+        return product;
+    }
+}
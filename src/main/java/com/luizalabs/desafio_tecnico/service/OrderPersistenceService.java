@@ -0,0 +1,276 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.config.PersistenceProperties;
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.model.Sequences;
+import com.luizalabs.desafio_tecnico.util.LongPairMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Grava um upload nas tabelas das entidades JPA usando insert em lote via JDBC, sem passar pelo
+ * {@code EntityManager}. Os ids de pedidos e produtos vêm das mesmas sequências do JPA, reservados em blocos de
+ * {@link Sequences#ALLOCATION_SIZE}, então as duas formas de gravação convivem sem colisão. Usuários já gravados
+ * (mesmo {@code external_id}) são reaproveitados; só os novos são inseridos.
+ *
+ * <p>O banco acompanha o store em memória. Um upload que substitui o store apaga antes os pedidos e produtos
+ * gravados e, ao final, os usuários que ficaram sem pedidos. Um upload incremental reaproveita os pedidos já
+ * gravados pela chave (usuário, {@code external_id}), como {@link OrderQueryService#mesclarPedidos}: os produtos
+ * entram no pedido existente em vez de criar outro.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.persistence", name = "enabled", havingValue = "true")
+public class OrderPersistenceService {
+
+    private static final String SELECT_USERS = "select id, external_id from users where external_id in (%s)";
+    private static final int SELECT_CHUNK = 1000;
+    private static final String SELECT_ORDERS = "select o.id, u.external_id, o.external_id from orders o "
+            + "join users u on u.id = o.user_id where o.user_id in (%s)";
+    private static final String DELETE_PRODUCTS = "delete from products";
+    private static final String DELETE_ORDERS = "delete from orders";
+    private static final String DELETE_USERS_WITHOUT_ORDERS =
+            "delete from users where not exists (select 1 from orders where orders.user_id = users.id)";
+    private static final String INSERT_USER = "insert into users (id, external_id, name) values (?, ?, ?)";
+    private static final String INSERT_ORDER = "insert into orders (id, external_id, date, user_id) values (?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT = "insert into products (id, external_id, price, order_id) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PersistenceProperties properties;
+    private final DataFieldMaxValueIncrementer orderSequence;
+    private final DataFieldMaxValueIncrementer productSequence;
+
+    public OrderPersistenceService(JdbcTemplate jdbcTemplate, PersistenceProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.orderSequence = incrementer(jdbcTemplate, Sequences.ORDERS);
+        this.productSequence = incrementer(jdbcTemplate, Sequences.PRODUCTS);
+    }
+
+    /**
+     * Grava usuários, pedidos e produtos em uma única transação.
+     *
+     * @param append {@code false} substitui o que estava gravado (como {@link OrderQueryService#salvarPedidos});
+     *               {@code true} mescla com os pedidos já gravados (como {@link OrderQueryService#mesclarPedidos})
+     */
+    @Transactional
+    public void salvarUpload(List<UserDTO> users, boolean append) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!append) {
+                execute(connection, DELETE_PRODUCTS);
+                execute(connection, DELETE_ORDERS);
+            }
+            UUID[] userIds = insertUsers(connection, users);
+            LongPairMap<Long> known = append ? existingOrders(connection, userIds) : new LongPairMap<>();
+            long[] orderIds = insertOrders(connection, users, userIds, known);
+            insertProducts(connection, users, orderIds);
+            if (!append) {
+                execute(connection, DELETE_USERS_WITHOUT_ORDERS);
+            }
+            return null;
+        });
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.executeUpdate();
+        }
+    }
+
+    private UUID[] insertUsers(Connection connection, List<UserDTO> users) throws SQLException {
+        Map<Long, UUID> known = existingUsers(connection, users);
+        UUID[] ids = new UUID[users.size()];
+        try (Batch batch = new Batch(connection, INSERT_USER)) {
+            for (int u = 0; u < users.size(); u++) {
+                UserDTO user = users.get(u);
+                ids[u] = known.get(user.getId());
+                if (ids[u] != null) {
+                    continue;
+                }
+                ids[u] = UUID.randomUUID();
+                known.put(user.getId(), ids[u]);
+                batch.statement.setObject(1, ids[u]);
+                batch.statement.setObject(2, user.getId());
+                batch.statement.setString(3, user.getName());
+                batch.add();
+            }
+            batch.flush();
+        }
+        return ids;
+    }
+
+    /** Ids dos usuários já gravados, por {@code external_id}, consultados em blocos de {@link #SELECT_CHUNK}. */
+    private static Map<Long, UUID> existingUsers(Connection connection, List<UserDTO> users) throws SQLException {
+        Map<Long, UUID> known = new HashMap<>();
+        for (int from = 0; from < users.size(); from += SELECT_CHUNK) {
+            int to = Math.min(users.size(), from + SELECT_CHUNK);
+            String sql = String.format(SELECT_USERS, String.join(",", Collections.nCopies(to - from, "?")));
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int u = from; u < to; u++) {
+                    statement.setObject(u - from + 1, users.get(u).getId());
+                }
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        known.put(rows.getLong(2), rows.getObject(1, UUID.class));
+                    }
+                }
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Ids dos pedidos já gravados para os usuários do upload, pela chave (id do usuário no arquivo,
+     * {@code external_id} do pedido), consultados em blocos de {@link #SELECT_CHUNK} usuários.
+     */
+    private static LongPairMap<Long> existingOrders(Connection connection, UUID[] userIds) throws SQLException {
+        LongPairMap<Long> known = new LongPairMap<>();
+        for (int from = 0; from < userIds.length; from += SELECT_CHUNK) {
+            int to = Math.min(userIds.length, from + SELECT_CHUNK);
+            String sql = String.format(SELECT_ORDERS, String.join(",", Collections.nCopies(to - from, "?")));
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int u = from; u < to; u++) {
+                    statement.setObject(u - from + 1, userIds[u]);
+                }
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        known.put(rows.getLong(2), rows.getLong(3), rows.getLong(1));
+                    }
+                }
+            }
+        }
+        return known;
+    }
+
+    private long[] insertOrders(Connection connection, List<UserDTO> users, UUID[] userIds,
+                                LongPairMap<Long> known) throws SQLException {
+        int count = 0;
+        for (UserDTO user : users) {
+            count += user.getOrders().size();
+        }
+        long[] ids = new long[count];
+        IdBlock sequence = new IdBlock(orderSequence);
+        int ordinal = 0;
+        try (Batch batch = new Batch(connection, INSERT_ORDER)) {
+            for (int u = 0; u < users.size(); u++) {
+                for (OrderDTO order : users.get(u).getOrders()) {
+                    Long existing = known.get(users.get(u).getId(), order.getId());
+                    if (existing != null) {
+                        ids[ordinal++] = existing;
+                        continue;
+                    }
+                    ids[ordinal] = sequence.next();
+                    batch.statement.setLong(1, ids[ordinal]);
+                    batch.statement.setObject(2, order.getId());
+                    batch.statement.setString(3, order.getDate());
+                    batch.statement.setObject(4, userIds[u]);
+                    batch.add();
+                    ordinal++;
+                }
+            }
+            batch.flush();
+        }
+        return ids;
+    }
+
+    private void insertProducts(Connection connection, List<UserDTO> users, long[] orderIds) throws SQLException {
+        IdBlock sequence = new IdBlock(productSequence);
+        int ordinal = 0;
+        try (Batch batch = new Batch(connection, INSERT_PRODUCT)) {
+            for (UserDTO user : users) {
+                for (OrderDTO order : user.getOrders()) {
+                    for (ProductDTO product : order.getProducts()) {
+                        batch.statement.setLong(1, sequence.next());
+                        batch.statement.setObject(2, product.getId());
+                        batch.statement.setBigDecimal(3, product.getPrice());
+                        batch.statement.setLong(4, orderIds[ordinal]);
+                        batch.add();
+                    }
+                    ordinal++;
+                }
+            }
+            batch.flush();
+        }
+    }
+
+    private static DataFieldMaxValueIncrementer incrementer(JdbcTemplate jdbcTemplate, String sequence) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(product)) {
+            return new PostgresSequenceMaxValueIncrementer(dataSource, sequence);
+        }
+        if ("H2".equals(product)) {
+            return new H2SequenceMaxValueIncrementer(dataSource, sequence);
+        }
+        throw new IllegalStateException("Banco não suportado para gravação em lote: " + product);
+    }
+
+    /** Statement com executeBatch a cada {@code batchSize} linhas; {@link #flush()} envia o restante. */
+    private final class Batch implements AutoCloseable {
+
+        private final PreparedStatement statement;
+        private int pending;
+
+        Batch(Connection connection, String sql) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending == properties.getBatchSize()) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            statement.close();
+        }
+    }
+
+    /** Ids reservados em blocos: um nextval a cada {@link Sequences#ALLOCATION_SIZE} ids. */
+    private static final class IdBlock {
+
+        private final DataFieldMaxValueIncrementer sequence;
+        private long next;
+        private long end;
+
+        IdBlock(DataFieldMaxValueIncrementer sequence) {
+            this.sequence = sequence;
+        }
+
+        long next() {
+            if (next == end) {
+                next = sequence.nextLongValue();
+                end = next + Sequences.ALLOCATION_SIZE;
+            }
+            return next++;
+        }
+    }
+}
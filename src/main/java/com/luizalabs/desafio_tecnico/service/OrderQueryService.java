@@ -1,85 +1,220 @@
 package com.luizalabs.desafio_tecnico.service;
 
-import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.config.StoreProperties;
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.store.OrderSnapshot;
+import com.luizalabs.desafio_tecnico.store.Page;
+import com.luizalabs.desafio_tecnico.store.StoreLayout;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class OrderQueryService {
-    private final List<UserDTO> pedidosProcessados;
+
+    // copy-on-write: cada consulta lê o snapshot uma vez; uploads publicam um novo sem bloquear leitores
+    private final AtomicReference<OrderSnapshot> snapshot;
+    private final StoreLayout layout;
+    // uploads com append ficam numa camada sobre o snapshot até somarem esta fração dos pedidos
+    private final double fracaoCompactacao;
+    // null quando app.store.snapshot-file não está definido
+    private final StoreSnapshotPersistence persistencia;
+
+    // identifica o processo, para que a versão 1 de um boot não coincida com a de outro
+    private final String bootId = Long.toHexString(new SecureRandom().nextLong());
+    private final AtomicLong versao = new AtomicLong();
+
+    private static final String[] FILTROS = {"orderId", "dataInicio", "dataFim"};
+
+    // índice: bits de filtro (orderId, dataInicio, dataFim) e, no bit 3, se a consulta é paginada
+    private final Timer[] pedidosTimers = new Timer[16];
+    // índice: ordenação por nome (bit 0), decrescente (bit 1) e paginada (bit 2)
+    private final Timer[] usuariosTimers = new Timer[8];
 
     public OrderQueryService() {
+        this(StoreLayout.HEAP);
+    }
 
-        this.pedidosProcessados = new ArrayList<>();
+    public OrderQueryService(StoreProperties properties) {
+        this(properties, new SimpleMeterRegistry());
+    }
+
+    public OrderQueryService(StoreLayout layout) {
+        this(layout, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Com {@code app.store.snapshot-file} definido, começa com os pedidos gravados nesse arquivo (sem refazer o
+     * parse, no layout configurado) e mantém o arquivo atualizado.
+     */
+    @Autowired
+    public OrderQueryService(StoreProperties properties, MeterRegistry registry) {
+        this(properties.getLayout(), properties.getCompactFraction(), registry, properties.getSnapshotFile() == null
+                ? null : new StoreSnapshotPersistence(properties.getSnapshotFile(), properties.isSnapshotOnUpload()));
+    }
+
+    public OrderQueryService(StoreLayout layout, MeterRegistry registry) {
+        this(layout, new StoreProperties().getCompactFraction(), registry, null);
+    }
+
+    private OrderQueryService(StoreLayout layout, double fracaoCompactacao, MeterRegistry registry,
+                              StoreSnapshotPersistence persistencia) {
+        this.layout = layout;
+        this.fracaoCompactacao = fracaoCompactacao;
+        this.persistencia = persistencia;
+        this.snapshot = new AtomicReference<>(persistencia == null ? OrderSnapshot.EMPTY : persistencia.load(layout));
+        registrarMetricas(registry);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (persistencia != null) {
+            persistencia.shutdown(snapshot.get());
+        }
     }
 
     public List<UserDTO> consultarPedidos(Optional<Long> orderId, Optional<LocalDate> dataInicio, Optional<LocalDate> dataFim) {
-        return pedidosProcessados.stream()
-                .map(user -> {
-                    List<OrderDTO> pedidosFiltrados = user.getOrders().stream()
-                            .filter(order -> orderId.map(id -> id.equals(order.getId())).orElse(true)) // CORRIGIDO: usar equals()
-                            .filter(order -> {
-                                LocalDate dataPedido = LocalDate.parse(order.getDate());
-                                boolean depoisDataInicio = dataInicio.map(d -> !dataPedido.isBefore(d)).orElse(true);
-                                boolean antesDataFim = dataFim.map(d -> !dataPedido.isAfter(d)).orElse(true);
-                                return depoisDataInicio && antesDataFim;
-                            })
-                            .collect(Collectors.toList());
-
-                    if (pedidosFiltrados.isEmpty()) return null;
-
-                    UserDTO u = new UserDTO();
-                    u.setId(user.getId());
-                    u.setName(user.getName());
-                    u.setOrders(pedidosFiltrados);
-                    return u;
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-
-    public void salvarPedidos(List<UserDTO> novosPedidos) {
-        pedidosProcessados.clear();
-        pedidosProcessados.addAll(novosPedidos);
+        long inicio = System.nanoTime();
+        List<UserDTO> resultado = snapshot.get().findOrders(orderId, dataInicio, dataFim);
+        pedidosTimer(orderId, dataInicio, dataFim, false).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return resultado;
+    }
+
+    public synchronized void salvarPedidos(List<UserDTO> novosPedidos) {
+        publicar(OrderSnapshot.of(novosPedidos, layout));
+    }
+
+    /**
+     * Mescla um upload incremental nos pedidos atuais pela chave (userId, orderId): usuários e pedidos novos são
+     * acrescentados ao final e produtos de pedidos já existentes entram no pedido original. O upload vai para uma
+     * camada sobre o snapshot atual ({@link OrderSnapshot#append}), sem copiar nem reindexar os usuários que ele
+     * não toca; quando a camada passa de {@code app.store.compact-fraction} dos pedidos, o snapshot é remontado.
+     */
+    public synchronized void mesclarPedidos(List<UserDTO> novosPedidos) {
+        if (!novosPedidos.isEmpty()) {
+            OrderSnapshot mesclado = snapshot.get().append(novosPedidos);
+            if (mesclado.appendedOrders() > fracaoCompactacao * mesclado.orderCount()) {
+                mesclado = OrderSnapshot.of(mesclado.users(), layout);
+            }
+            publicar(mesclado);
+        }
     }
 
     public List<UserDTO> buscarTodosUsuarios() {
-        return new ArrayList<>(pedidosProcessados);
+        return new ArrayList<>(snapshot.get().users());
     }
 
     public Optional<UserDTO> buscarUsuarioPorId(Long userId) {
-        return pedidosProcessados.stream()
-                .filter(user -> user.getId().equals(userId))
-                .findFirst();
+        return snapshot.get().findUser(userId);
     }
 
-    public void limparDados() {
-        pedidosProcessados.clear();
+    public synchronized void limparDados() {
+        publicar(OrderSnapshot.EMPTY);
     }
 
-    public List<UserDTO> buscarUsuariosOrdenados(String orderBy, String direction) {
-        Comparator<UserDTO> comparator;
-
-        switch (orderBy.toLowerCase()) {
-            case "name":
-                comparator = Comparator.comparing(UserDTO::getName);
-                break;
-            case "id":
-            default:
-                comparator = Comparator.comparing(UserDTO::getId);
-                break;
+    /**
+     * Versão dos dados consultáveis, trocada a cada upload, mescla ou limpeza. Serve de ETag: a mesma versão
+     * sempre responde igual aos mesmos parâmetros, e consultá-la não lê o snapshot.
+     */
+    public String versaoDados() {
+        return bootId + "-" + versao.get();
+    }
+
+    private void publicar(OrderSnapshot novo) {
+        snapshot.set(novo);
+        versao.incrementAndGet();
+        if (persistencia != null) {
+            persistencia.published(novo);
         }
+    }
 
-        if ("desc".equalsIgnoreCase(direction)) {
-            comparator = comparator.reversed();
+    public List<UserDTO> buscarUsuariosOrdenados(String orderBy, String direction) {
+        long inicio = System.nanoTime();
+        boolean porNome = ordenarPorNome(orderBy);
+        boolean decrescente = "desc".equalsIgnoreCase(direction);
+        List<UserDTO> resultado = snapshot.get().usersSorted(porNome, decrescente);
+        usuariosTimer(porNome, decrescente, false).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return resultado;
+    }
+
+    public Page<UserDTO> buscarUsuariosPaginados(String orderBy, String direction, String cursor, int limit) {
+        long inicio = System.nanoTime();
+        boolean porNome = ordenarPorNome(orderBy);
+        boolean decrescente = "desc".equalsIgnoreCase(direction);
+        Page<UserDTO> resultado = snapshot.get().usersPage(porNome, decrescente, cursor, limit);
+        usuariosTimer(porNome, decrescente, true).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return resultado;
+    }
+
+    public Page<UserDTO> consultarPedidosPaginados(Optional<Long> orderId, Optional<LocalDate> dataInicio,
+                                                   Optional<LocalDate> dataFim, String cursor, int limit) {
+        long inicio = System.nanoTime();
+        Page<UserDTO> resultado = snapshot.get().findOrdersPage(orderId, dataInicio, dataFim, cursor, limit);
+        pedidosTimer(orderId, dataInicio, dataFim, true).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return resultado;
+    }
+
+    private Timer pedidosTimer(Optional<Long> orderId, Optional<LocalDate> dataInicio, Optional<LocalDate> dataFim,
+                               boolean paginada) {
+        return pedidosTimers[(orderId.isPresent() ? 1 : 0) | (dataInicio.isPresent() ? 2 : 0)
+                | (dataFim.isPresent() ? 4 : 0) | (paginada ? 8 : 0)];
+    }
+
+    private Timer usuariosTimer(boolean porNome, boolean decrescente, boolean paginada) {
+        return usuariosTimers[(porNome ? 1 : 0) | (decrescente ? 2 : 0) | (paginada ? 4 : 0)];
+    }
+
+    // timers criados uma vez por combinação de filtros, para a consulta não pagar a busca no registry
+    private void registrarMetricas(MeterRegistry registry) {
+        for (int i = 0; i < pedidosTimers.length; i++) {
+            StringJoiner filtros = new StringJoiner("+").setEmptyValue("nenhum");
+            for (int bit = 0; bit < FILTROS.length; bit++) {
+                if ((i & (1 << bit)) != 0) {
+                    filtros.add(FILTROS[bit]);
+                }
+            }
+            pedidosTimers[i] = Timer.builder("orders.query")
+                    .description("Latência das consultas de pedidos")
+                    .tag("filter", filtros.toString())
+                    .tag("paged", String.valueOf((i & 8) != 0))
+                    .publishPercentileHistogram()
+                    .register(registry);
         }
+        for (int i = 0; i < usuariosTimers.length; i++) {
+            usuariosTimers[i] = Timer.builder("users.query")
+                    .description("Latência das consultas de usuários")
+                    .tag("sort", ((i & 1) != 0 ? "name" : "id") + ((i & 2) != 0 ? "-desc" : "-asc"))
+                    .tag("paged", String.valueOf((i & 4) != 0))
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        Tags tags = Tags.of("layout", layout.name().toLowerCase(Locale.ROOT));
+        Gauge.builder("store.users", snapshot, s -> s.get().userCount()).tags(tags).register(registry);
+        Gauge.builder("store.orders", snapshot, s -> s.get().orderCount()).tags(tags).register(registry);
+        Gauge.builder("store.products", snapshot, s -> s.get().productCount()).tags(tags).register(registry);
+        Gauge.builder("store.estimated.bytes", snapshot, s -> s.get().estimatedBytes())
+                .tags(tags).baseUnit("bytes").register(registry);
+        Gauge.builder("store.appended.orders", snapshot, s -> s.get().appendedOrders())
+                .description("Pedidos na camada de append ainda não compactada")
+                .tags(tags).register(registry);
+        Gauge.builder("store.index.bytes", snapshot, s -> s.get().indexBytes())
+                .description("Índices do store, sempre no heap, mesmo com layout off_heap")
+                .tags(tags).baseUnit("bytes").register(registry);
+    }
 
-        return pedidosProcessados.stream()
-                .sorted(comparator)
-                .toList();
+    private static boolean ordenarPorNome(String orderBy) {
+        return "name".equalsIgnoreCase(orderBy);
     }
-}
\ No newline at end of file
+}
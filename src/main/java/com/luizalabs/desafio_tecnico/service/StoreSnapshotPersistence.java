@@ -0,0 +1,99 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.store.OrderSnapshot;
+import com.luizalabs.desafio_tecnico.store.OrderSnapshotFile;
+import com.luizalabs.desafio_tecnico.store.StoreLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantém o store gravado em um {@link OrderSnapshotFile}. Com gravação a cada upload, cada snapshot publicado é
+ * gravado em segundo plano por uma única thread, sem atrasar o upload; publicações feitas durante uma gravação
+ * são agrupadas e só a mais recente é gravada em seguida. No encerramento o snapshot atual é gravado se ainda
+ * não estiver no arquivo.
+ */
+final class StoreSnapshotPersistence {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreSnapshotPersistence.class);
+
+    private final Path file;
+    private final boolean onUpload;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("store-snapshot").daemon().factory());
+    private final AtomicReference<OrderSnapshot> pending = new AtomicReference<>();
+    private volatile OrderSnapshot written;
+
+    StoreSnapshotPersistence(Path file, boolean onUpload) {
+        this.file = file;
+        this.onUpload = onUpload;
+    }
+
+    /**
+     * Snapshot gravado no arquivo, ou vazio se não houver arquivo ou ele não puder ser lido. O arquivo é lido
+     * mapeado em colunas; com {@code layout} {@link StoreLayout#OFF_HEAP} o mapeamento é usado direto (as colunas
+     * ficam no page cache, fora do heap), e nos demais layouts os dados são remontados no heap.
+     */
+    OrderSnapshot load(StoreLayout layout) {
+        OrderSnapshot loaded = OrderSnapshot.EMPTY;
+        if (Files.exists(file)) {
+            try {
+                long start = System.nanoTime();
+                loaded = OrderSnapshotFile.read(file);
+                if (layout != StoreLayout.OFF_HEAP) {
+                    loaded = OrderSnapshot.of(loaded.users(), layout);
+                }
+                log.info("Snapshot {} carregado em {} ms ({}): {} usuários, {} pedidos", file,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), layout, loaded.userCount(),
+                        loaded.orderCount());
+            } catch (IOException | RuntimeException e) {
+                // o arquivo fica como está; o próximo upload grava um novo
+                log.warn("Snapshot {} ignorado: {}", file, e.getMessage());
+            }
+        }
+        written = loaded;
+        return loaded;
+    }
+
+    void published(OrderSnapshot snapshot) {
+        if (onUpload && pending.getAndSet(snapshot) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /** Espera as gravações pendentes e grava {@code current} se ele ainda não estiver no arquivo. */
+    void shutdown(OrderSnapshot current) {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current != written) {
+            write(current);
+        }
+    }
+
+    private void writePending() {
+        OrderSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot != null) {
+            write(snapshot);
+        }
+    }
+
+    private synchronized void write(OrderSnapshot snapshot) {
+        try {
+            OrderSnapshotFile.write(snapshot, file);
+            written = snapshot;
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha ao gravar o snapshot em {}", file, e);
+        }
+    }
+}
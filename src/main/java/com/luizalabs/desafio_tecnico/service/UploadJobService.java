@@ -0,0 +1,297 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luizalabs.desafio_tecnico.config.JobProperties;
+import com.luizalabs.desafio_tecnico.dto.FileProcessingResultDTO;
+import com.luizalabs.desafio_tecnico.dto.UploadJobDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.exceptions.JobNotFinishedException;
+import com.luizalabs.desafio_tecnico.exceptions.JobNotFoundException;
+import com.luizalabs.desafio_tecnico.store.Page;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Uploads processados fora da thread da requisição. O arquivo é copiado para disco e entra numa fila limitada;
+ * no máximo {@code app.jobs.concurrency} arquivos são processados ao mesmo tempo, o que limita a memória usada
+ * pelos resultados em montagem. Com {@code spring.threads.virtual.enabled} cada job roda numa virtual thread
+ * (a espera pela vez e o I/O do arquivo não prendem uma thread de plataforma); os mesmos limites valem.
+ *
+ * <p>Cada job tem um diretório temporário com o arquivo enviado e, ao terminar, os usuários e erros do resultado
+ * (um JSON por linha), lidos em páginas direto do disco. Em memória fica só o resumo do job, então manter
+ * {@code app.jobs.retained} jobs não cresce com o tamanho dos uploads; o diretório é apagado quando o job é
+ * descartado ou a aplicação encerra.
+ */
+@Service
+public class UploadJobService {
+
+    // totais gravados junto com os DTOs são recalculados a partir dos produtos na leitura
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final FileProcessingService processingService;
+    private final OrderQueryService queryService;
+    private final ObjectProvider<OrderPersistenceService> persistenceService;
+    private final JobProperties properties;
+    private final ExecutorService executor;
+
+    // jobs aceitos (na fila ou rodando) e jobs rodando
+    private final Semaphore admitted;
+    private final Semaphore running;
+
+    // ordem de criação, para descartar os mais antigos
+    private final Map<String, UploadJob> jobs = new LinkedHashMap<>();
+
+    public UploadJobService(FileProcessingService processingService,
+                            OrderQueryService queryService,
+                            ObjectProvider<OrderPersistenceService> persistenceService,
+                            JobProperties properties) {
+        this(processingService, queryService, persistenceService, properties, false);
+    }
+
+    @Autowired
+    public UploadJobService(FileProcessingService processingService,
+                            OrderQueryService queryService,
+                            ObjectProvider<OrderPersistenceService> persistenceService,
+                            JobProperties properties,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.processingService = processingService;
+        this.queryService = queryService;
+        this.persistenceService = persistenceService;
+        this.properties = properties;
+        this.admitted = new Semaphore(properties.getConcurrency() + properties.getQueueCapacity());
+        this.running = new Semaphore(properties.getConcurrency());
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("upload-job-", 0).factory())
+                : Executors.newFixedThreadPool(properties.getConcurrency(),
+                        Thread.ofPlatform().name("upload-job-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> apagar(job.dir));
+        }
+    }
+
+    /**
+     * Enfileira o processamento do arquivo e retorna em seguida.
+     *
+     * @throws RejectedExecutionException se a fila estiver cheia
+     */
+    public UploadJobDTO submeter(MultipartFile file, boolean append) throws IOException {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Fila de uploads cheia");
+        }
+        Path dir = null;
+        try {
+            dir = properties.getDir() == null
+                    ? Files.createTempDirectory("upload-job-")
+                    : Files.createTempDirectory(Files.createDirectories(Path.of(properties.getDir())), "upload-job-");
+            Path spool = dir.resolve("upload.txt");
+            file.transferTo(spool);
+            UploadJob job = new UploadJob(UUID.randomUUID().toString(), dir, Files.size(spool));
+            synchronized (jobs) {
+                executor.execute(() -> executar(job, spool, append));
+                jobs.put(job.id, job);
+                descartarAntigos();
+            }
+            return job.toDTO();
+        } catch (IOException | RuntimeException e) {
+            admitted.release();
+            if (dir != null) {
+                apagar(dir);
+            }
+            throw e;
+        }
+    }
+
+    public UploadJobDTO consultar(String id) {
+        return buscar(id).toDTO();
+    }
+
+    public Page<UserDTO> buscarUsuarios(String id, String cursor, int limit) {
+        return pagina(id, concluido(id).users, cursor, limit);
+    }
+
+    public Page<String> buscarErros(String id, String cursor, int limit) {
+        return pagina(id, concluido(id).errors, cursor, limit);
+    }
+
+    private void executar(UploadJob job, Path spool, boolean append) {
+        try {
+            running.acquire();
+            try {
+                processar(job, spool, append);
+            } finally {
+                running.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            falhar(job, "Processamento interrompido");
+        } finally {
+            admitted.release();
+            if (job.status == UploadJobDTO.Status.DONE) {
+                apagar(spool);
+            } else {
+                apagar(job.dir);
+            }
+        }
+    }
+
+    private void processar(UploadJob job, Path spool, boolean append) {
+        job.startedAt = System.nanoTime();
+        job.status = UploadJobDTO.Status.RUNNING;
+        try {
+            FileProcessingResultDTO result = processingService.processPath(spool, job.progress);
+            JobResultFile<UserDTO> users = JobResultFile.write(
+                    job.dir.resolve("users.ndjson"), result.getUsers(), UserDTO.class, MAPPER);
+            JobResultFile<String> errors = JobResultFile.write(
+                    job.dir.resolve("errors.ndjson"), result.getErrors(), String.class, MAPPER);
+            persistenceService.ifAvailable(persistence -> persistence.salvarUpload(result.getUsers(), append));
+            if (append) {
+                queryService.mesclarPedidos(result.getUsers());
+            } else {
+                queryService.salvarPedidos(result.getUsers());
+            }
+            job.users = users;
+            job.errors = errors;
+            job.finishedAt = System.nanoTime();
+            job.status = UploadJobDTO.Status.DONE;
+        } catch (Exception e) {
+            falhar(job, e.getMessage());
+        } catch (Error e) {
+            // OutOfMemoryError ou StackOverflowError num arquivo grande: o job termina como FAILED (e pode ser
+            // descartado) e o erro segue para a thread
+            falhar(job, e.toString());
+            throw e;
+        }
+    }
+
+    private static void falhar(UploadJob job, String error) {
+        job.error = error;
+        job.finishedAt = System.nanoTime();
+        job.status = UploadJobDTO.Status.FAILED;
+    }
+
+    private UploadJob concluido(String id) {
+        UploadJob job = buscar(id);
+        if (job.status != UploadJobDTO.Status.DONE) {
+            throw new JobNotFinishedException(id);
+        }
+        return job;
+    }
+
+    private static <T> Page<T> pagina(String id, JobResultFile<T> file, String cursor, int limit) {
+        try {
+            return Page.of(file.size(), cursor, limit, file::read);
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof NoSuchFileException) {
+                // job descartado entre a busca e a leitura
+                throw new JobNotFoundException(id);
+            }
+            throw e;
+        }
+    }
+
+    private UploadJob buscar(String id) {
+        UploadJob job;
+        synchronized (jobs) {
+            job = jobs.get(id);
+        }
+        if (job == null) {
+            throw new JobNotFoundException(id);
+        }
+        return job;
+    }
+
+    private void descartarAntigos() {
+        Iterator<UploadJob> iterator = jobs.values().iterator();
+        while (jobs.size() > properties.getRetained() && iterator.hasNext()) {
+            UploadJob job = iterator.next();
+            if (job.status == UploadJobDTO.Status.DONE || job.status == UploadJobDTO.Status.FAILED) {
+                iterator.remove();
+                apagar(job.dir);
+            }
+        }
+    }
+
+    private static void apagar(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException ignored) {
+            // o diretório temporário do sistema é limpo depois
+        }
+    }
+
+    private static final class UploadJob {
+
+        private final String id;
+        private final Path dir;
+        private final long totalBytes;
+        private final IngestProgress progress = new IngestProgress();
+
+        // escritos pela thread do job, lidos pelas requisições de consulta
+        private volatile UploadJobDTO.Status status = UploadJobDTO.Status.QUEUED;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile JobResultFile<UserDTO> users;
+        private volatile JobResultFile<String> errors;
+        private volatile String error;
+
+        UploadJob(String id, Path dir, long totalBytes) {
+            this.id = id;
+            this.dir = dir;
+            this.totalBytes = totalBytes;
+        }
+
+        UploadJobDTO toDTO() {
+            UploadJobDTO.Status current = status;
+            UploadJobDTO dto = new UploadJobDTO();
+            dto.setId(id);
+            dto.setStatus(current);
+            dto.setTotalBytes(totalBytes);
+            dto.setLinesRead(progress.getLinesRead());
+            dto.setBytesRead(Math.min(totalBytes, progress.getBytesRead()));
+            dto.setErrorCount(progress.getErrors());
+            if (current == UploadJobDTO.Status.QUEUED) {
+                return dto;
+            }
+
+            long end = current == UploadJobDTO.Status.RUNNING ? System.nanoTime() : finishedAt;
+            double seconds = Math.max(1e-9, (end - startedAt) / 1e9);
+            dto.setLinesPerSecond((long) (dto.getLinesRead() / seconds));
+            if (current == UploadJobDTO.Status.RUNNING && dto.getBytesRead() > 0) {
+                double bytesPerSecond = dto.getBytesRead() / seconds;
+                dto.setEtaSeconds((long) Math.ceil((totalBytes - dto.getBytesRead()) / bytesPerSecond));
+            } else if (current == UploadJobDTO.Status.DONE) {
+                dto.setUserCount(users.size());
+            } else if (current == UploadJobDTO.Status.FAILED) {
+                dto.setError(error);
+            }
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Coluna de tamanho fixo de inteiros ({@code long}, {@code int} ou {@code byte}) lidos e gravados como
+ * {@code long}. Fica em um array no heap, em {@link ByteBuffer}s diretos fora do heap ou mapeada de um arquivo.
+ */
+abstract class Column {
+
+    // segmentos de 1 GB: um ByteBuffer é limitado a 2 GB e a coluna pode passar disso
+    static final int SEGMENT_BITS = 30;
+
+    abstract long get(int index);
+
+    abstract void set(int index, long value);
+
+    /** Bytes ocupados pelos valores (no heap ou fora dele). */
+    abstract long sizeInBytes();
+
+    static Column longs(int size, boolean offHeap) {
+        return offHeap ? new OffHeap(size, 3) : new Longs(size);
+    }
+
+    static Column ints(int size, boolean offHeap) {
+        return offHeap ? new OffHeap(size, 2) : new Ints(size);
+    }
+
+    static Column bytes(int size, boolean offHeap) {
+        return offHeap ? new OffHeap(size, 0) : new Bytes(size);
+    }
+
+    /**
+     * Coluna sobre {@code size} valores de {@code 1 << shift} bytes do arquivo, a partir de {@code position}, em
+     * little-endian. Com {@link FileChannel.MapMode#READ_WRITE} o arquivo cresce até cobrir a coluna.
+     */
+    static Column mapped(FileChannel channel, FileChannel.MapMode mode, long position, int size, int shift)
+            throws IOException {
+        long bytes = (long) size << shift;
+        ByteBuffer[] segments = new ByteBuffer[(int) ((bytes + OffHeap.SEGMENT_MASK) >>> SEGMENT_BITS)];
+        for (int s = 0; s < segments.length; s++) {
+            long offset = (long) s << SEGMENT_BITS;
+            long length = Math.min(1L << SEGMENT_BITS, bytes - offset);
+            segments[s] = channel.map(mode, position + offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new OffHeap(segments, shift);
+    }
+
+    /** Grava no disco as alterações de uma coluna mapeada; nas demais não faz nada. */
+    void force() {
+    }
+
+    private static final class Longs extends Column {
+
+        private final long[] values;
+
+        Longs(int size) {
+            values = new long[size];
+        }
+
+        @Override
+        long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            values[index] = value;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return (long) values.length * Long.BYTES;
+        }
+    }
+
+    private static final class Ints extends Column {
+
+        private final int[] values;
+
+        Ints(int size) {
+            values = new int[size];
+        }
+
+        @Override
+        long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            values[index] = (int) value;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return (long) values.length * Integer.BYTES;
+        }
+    }
+
+    private static final class Bytes extends Column {
+
+        private final byte[] values;
+
+        Bytes(int size) {
+            values = new byte[size];
+        }
+
+        @Override
+        long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, long value) {
+            values[index] = (byte) value;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return values.length;
+        }
+    }
+
+    /**
+     * Memória liberada pelo GC junto com o snapshot (cleaner do buffer direto ou unmap do arquivo); o limite dos
+     * buffers diretos vem de {@code -XX:MaxDirectMemorySize}. Leituras só usam posições absolutas, então são
+     * seguras entre threads.
+     */
+    private static final class OffHeap extends Column {
+
+        private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+        private final ByteBuffer[] segments;
+        private final int shift;
+
+        OffHeap(int size, int shift) {
+            this.shift = shift;
+            long bytes = (long) size << shift;
+            segments = new ByteBuffer[(int) ((bytes + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int s = 0; s < segments.length; s++) {
+                int length = (int) Math.min(1L << SEGMENT_BITS, bytes - ((long) s << SEGMENT_BITS));
+                segments[s] = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+            }
+        }
+
+        OffHeap(ByteBuffer[] segments, int shift) {
+            this.segments = segments;
+            this.shift = shift;
+        }
+
+        @Override
+        void force() {
+            for (ByteBuffer segment : segments) {
+                if (segment instanceof MappedByteBuffer mapped) {
+                    mapped.force();
+                }
+            }
+        }
+
+        @Override
+        long get(int index) {
+            long offset = (long) index << shift;
+            ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)];
+            int position = (int) (offset & SEGMENT_MASK);
+            return switch (shift) {
+                case 3 -> segment.getLong(position);
+                case 2 -> segment.getInt(position);
+                default -> segment.get(position);
+            };
+        }
+
+        @Override
+        void set(int index, long value) {
+            long offset = (long) index << shift;
+            ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)];
+            int position = (int) (offset & SEGMENT_MASK);
+            switch (shift) {
+                case 3 -> segment.putLong(position, value);
+                case 2 -> segment.putInt(position, (int) value);
+                default -> segment.put(position, (byte) value);
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            long bytes = 0;
+            for (ByteBuffer segment : segments) {
+                bytes += segment.capacity();
+            }
+            return bytes;
+        }
+    }
+}
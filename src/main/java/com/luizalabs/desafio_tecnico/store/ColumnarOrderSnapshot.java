@@ -0,0 +1,247 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot em colunas primitivas ({@link StoreLayout#COLUMNAR} e {@link StoreLayout#OFF_HEAP}): usuários, pedidos
+ * e produtos viram colunas paralelas e os DTOs são montados só na resposta. Os filhos de cada linha ficam
+ * contíguos, delimitados por {@code *Start[i]} e {@code *Start[i + 1]}. Fora do heap ficam só essas colunas; os
+ * índices da classe base e o dicionário de nomes continuam no heap.
+ */
+final class ColumnarOrderSnapshot extends OrderSnapshot {
+
+    // usuários; nomes repetidos compartilham a mesma String
+    private final Column userIds;
+    private final Column userNames;
+    private final String[] names;
+    private final Column userOrderStart;
+
+    // pedidos, por ordinal
+    private final Column orderIds;
+    private final Column orderProductStart;
+
+    // produtos: preço como unscaledValue/scale do BigDecimal, sem perder a escala original
+    private final Column productIds;
+    private final Column priceUnscaled;
+    private final Column priceScale;
+
+    // preços que não cabem em long/byte (ou nulos), por posição do produto
+    private final Map<Integer, BigDecimal> otherPrices;
+
+    ColumnarOrderSnapshot(List<UserDTO> users, boolean offHeap) {
+        int userCount = users.size();
+        int orderCount = 0;
+        int productCount = 0;
+        for (UserDTO user : users) {
+            for (OrderDTO order : ordersOf(user)) {
+                orderCount++;
+                productCount += productsOf(order).size();
+            }
+        }
+
+        this.userIds = Column.longs(userCount, offHeap);
+        this.userNames = Column.ints(userCount, offHeap);
+        this.userOrderStart = Column.ints(userCount + 1, offHeap);
+        this.orderIds = Column.longs(orderCount, offHeap);
+        this.orderProductStart = Column.ints(orderCount + 1, offHeap);
+        this.productIds = Column.longs(productCount, offHeap);
+        this.priceUnscaled = Column.longs(productCount, offHeap);
+        this.priceScale = Column.bytes(productCount, offHeap);
+        this.otherPrices = new HashMap<>();
+        int[] orderUser = new int[orderCount];
+        int[] epochDays = new int[orderCount];
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> distinctNames = new ArrayList<>();
+        int ordinal = 0;
+        int product = 0;
+        for (int u = 0; u < userCount; u++) {
+            UserDTO user = users.get(u);
+            userIds.set(u, idOrNone(user.getId()));
+            userNames.set(u, dictionary.computeIfAbsent(user.getName(), name -> {
+                distinctNames.add(name);
+                return distinctNames.size() - 1;
+            }));
+            userOrderStart.set(u, ordinal);
+            for (OrderDTO order : ordersOf(user)) {
+                orderIds.set(ordinal, idOrNone(order.getId()));
+                orderUser[ordinal] = u;
+                epochDays[ordinal] = Math.toIntExact(LocalDate.parse(order.getDate()).toEpochDay());
+                orderProductStart.set(ordinal, product);
+                for (ProductDTO p : productsOf(order)) {
+                    productIds.set(product, idOrNone(p.getId()));
+                    storePrice(product, p.getPrice());
+                    product++;
+                }
+                ordinal++;
+            }
+        }
+        userOrderStart.set(userCount, ordinal);
+        orderProductStart.set(orderCount, product);
+        this.names = distinctNames.toArray(String[]::new);
+
+        index(userCount, orderUser, epochDays);
+    }
+
+    /**
+     * Snapshot sobre colunas já preenchidas, como as mapeadas de um {@link OrderSnapshotFile}; só os índices são
+     * montados no heap.
+     */
+    ColumnarOrderSnapshot(int userCount, Column userIds, Column userNames, String[] names, Column userOrderStart,
+                          Column orderIds, int[] epochDays, Column orderProductStart,
+                          Column productIds, Column priceUnscaled, Column priceScale, Map<Integer, BigDecimal> otherPrices) {
+        this.userIds = userIds;
+        this.userNames = userNames;
+        this.names = names;
+        this.userOrderStart = userOrderStart;
+        this.orderIds = orderIds;
+        this.orderProductStart = orderProductStart;
+        this.productIds = productIds;
+        this.priceUnscaled = priceUnscaled;
+        this.priceScale = priceScale;
+        this.otherPrices = otherPrices;
+
+        int[] orderUser = new int[epochDays.length];
+        for (int u = 0; u < userCount; u++) {
+            Arrays.fill(orderUser, (int) userOrderStart.get(u), (int) userOrderStart.get(u + 1), u);
+        }
+        index(userCount, orderUser, epochDays);
+    }
+
+    @Override
+    public int productCount() {
+        return (int) orderProductStart.get(orderCount());
+    }
+
+    @Override
+    protected long dataBytes() {
+        long bytes = 0;
+        for (Column column : new Column[]{userIds, userNames, userOrderStart, orderIds, orderProductStart,
+                productIds, priceUnscaled, priceScale}) {
+            bytes += column.sizeInBytes();
+        }
+        for (String name : names) {
+            bytes += 56 + name.length(); // String + array (latin-1)
+        }
+        return bytes + otherPrices.size() * 96L;
+    }
+
+    @Override
+    public List<UserDTO> users() {
+        return new AbstractList<>() {
+            @Override
+            public UserDTO get(int index) {
+                return user(index);
+            }
+
+            @Override
+            public int size() {
+                return userCount();
+            }
+        };
+    }
+
+    @Override
+    protected UserDTO user(int user) {
+        UserDTO dto = userHeader(user);
+        int first = (int) userOrderStart.get(user);
+        int end = (int) userOrderStart.get(user + 1);
+        List<OrderDTO> orders = new ArrayList<>(end - first);
+        for (int ordinal = first; ordinal < end; ordinal++) {
+            OrderDTO order = order(ordinal);
+            order.setUser(dto);
+            orders.add(order);
+        }
+        dto.setOrders(orders);
+        return dto;
+    }
+
+    @Override
+    protected UserDTO userHeader(int user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(idOrNull(userIds.get(user)));
+        dto.setName(userName(user));
+        return dto;
+    }
+
+    @Override
+    protected long userId(int user) {
+        return userIds.get(user);
+    }
+
+    @Override
+    protected String userName(int user) {
+        return names[(int) userNames.get(user)];
+    }
+
+    @Override
+    protected OrderDTO order(int ordinal) {
+        OrderDTO order = new OrderDTO();
+        int first = (int) orderProductStart.get(ordinal);
+        int end = (int) orderProductStart.get(ordinal + 1);
+        order.setId(idOrNull(orderIds.get(ordinal)));
+        order.setDate(LocalDate.ofEpochDay(epochDay(ordinal)).toString());
+        order.setProducts(new ArrayList<>(end - first));
+        for (int product = first; product < end; product++) {
+            ProductDTO dto = new ProductDTO();
+            dto.setId(idOrNull(productIds.get(product)));
+            dto.setPrice(price(product));
+            order.addProduct(dto);
+        }
+        return order;
+    }
+
+    @Override
+    protected long orderId(int ordinal) {
+        return orderIds.get(ordinal);
+    }
+
+    /** Se o preço cabe nas colunas {@code unscaled}/{@code scale}; os demais (e nulos) ficam à parte. */
+    static boolean fitsColumns(BigDecimal price) {
+        return price != null && price.scale() >= Byte.MIN_VALUE && price.scale() <= Byte.MAX_VALUE
+                && price.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    private void storePrice(int product, BigDecimal price) {
+        if (fitsColumns(price)) {
+            priceUnscaled.set(product, price.unscaledValue().longValue());
+            priceScale.set(product, price.scale());
+        } else {
+            otherPrices.put(product, price);
+        }
+    }
+
+    private BigDecimal price(int product) {
+        if (!otherPrices.isEmpty() && otherPrices.containsKey(product)) {
+            return otherPrices.get(product);
+        }
+        return BigDecimal.valueOf(priceUnscaled.get(product), (int) priceScale.get(product));
+    }
+
+    private static long idOrNone(Long id) {
+        return id == null ? NO_ID : id;
+    }
+
+    private static Long idOrNull(long id) {
+        return id == NO_ID ? null : id;
+    }
+
+    private static List<OrderDTO> ordersOf(UserDTO user) {
+        return user.getOrders() == null ? List.of() : user.getOrders();
+    }
+
+    private static List<ProductDTO> productsOf(OrderDTO order) {
+        return order.getProducts() == null ? List.of() : order.getProducts();
+    }
+}
@@ -0,0 +1,60 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação por chave: a chave do último item da página, com um prefixo que identifica a
+ * ordenação que a gerou.
+ */
+final class Cursor {
+
+    private Cursor() {
+    }
+
+    static String encode(String kind, String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((kind + ":" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @return a chave do cursor, ou {@code null} se não houver cursor */
+    static String decode(String cursor, String kind) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+        if (!raw.startsWith(kind + ":")) {
+            throw invalid(cursor);
+        }
+        return raw.substring(kind.length() + 1);
+    }
+
+    static long[] decodeLongs(String cursor, String kind, int count) {
+        String key = decode(cursor, kind);
+        if (key == null) {
+            return null;
+        }
+        String[] parts = key.split(":", count);
+        if (parts.length != count) {
+            throw invalid(cursor);
+        }
+        try {
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = Long.parseLong(parts[i]);
+            }
+            return values;
+        } catch (NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("Cursor inválido: '" + cursor + "'");
+    }
+}
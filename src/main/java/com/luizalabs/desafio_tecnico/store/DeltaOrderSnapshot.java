@@ -0,0 +1,471 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.util.LongIntMap;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Uploads incrementais sobre um snapshot base, que não é copiado nem reindexado. Nesta camada ficam só os usuários
+ * tocados pelos uploads (cópias mescladas, com todos os pedidos) e os novos, com índices próprios; o restante é
+ * lido da base. Posições de usuários e ordinais de pedidos são os mesmos que um snapshot remontado a partir de
+ * {@link #users()} teria, então consultas e cursores não mudam quando a camada é compactada.
+ *
+ * <p>Um novo append sobre esta camada remonta só a camada. Quem publica decide quando compactar, pelo tamanho de
+ * {@link #appendedOrders()}.
+ */
+final class DeltaOrderSnapshot extends OrderSnapshot {
+
+    private final OrderSnapshot base;
+    private final int baseUsers;
+    private final int baseOrders;
+
+    // usuários da camada, por posição: os tocados (posição < baseUsers) e os novos
+    private final int[] positions;
+    private final UserDTO[] users;
+    // por usuário da camada: quantos pedidos já estavam na base e o ordinal da base logo depois deles
+    private final int[] baseOrderCount;
+    private final int[] baseEnd;
+
+    // pedidos que não estão na base, em ordem de ordinal; o ordinal do pedido d é anchor[d] + d, e anchor[d] é
+    // quantos pedidos da base vêm antes dele
+    private final OrderDTO[] orders;
+    private final int[] orderUser;
+    private final int[] anchor;
+    private final int[] epochDays;
+
+    // índices só da camada: usuários novos por id, pedidos da camada por id e por data
+    private final LongIntMap newUsersById;
+    private final LongIntMap ordersById;
+    private final int[] nextWithSameId;
+    private final long[] byDate;
+    // posição de cada byDate[k] (e de cada usuário novo) na ordenação completa, base incluída
+    private final int[] dateRank;
+    private final int[] newSortedById;
+    private final int[] newSortedByName;
+    private final int[] rankById;
+    private final int[] rankByName;
+
+    private final int productCount;
+    private final int appendedOrders;
+    private final int layerProducts;
+
+    DeltaOrderSnapshot(OrderSnapshot current, List<UserDTO> upload) {
+        TreeMap<Integer, UserDTO> layer = new TreeMap<>();
+        LongIntMap newIds = new LongIntMap();
+        if (current instanceof DeltaOrderSnapshot delta) {
+            this.base = delta.base;
+            for (int j = 0; j < delta.users.length; j++) {
+                layer.put(delta.positions[j], delta.users[j]);
+            }
+        } else {
+            this.base = current;
+        }
+        this.baseUsers = base.userCount();
+        this.baseOrders = base.orderCount();
+        int nextPosition = baseUsers;
+        for (Map.Entry<Integer, UserDTO> entry : layer.tailMap(baseUsers).entrySet()) {
+            Long id = entry.getValue().getId();
+            if (id != null) {
+                newIds.putIfAbsent(id, entry.getKey());
+            }
+            nextPosition = entry.getKey() + 1;
+        }
+
+        int uploadProducts = 0;
+        for (UserDTO novo : upload) {
+            for (OrderDTO pedido : ordersOf(novo)) {
+                uploadProducts += pedido.getProducts() == null ? 0 : pedido.getProducts().size();
+            }
+            int position = novo.getId() == null ? LongIntMap.MISSING : base.userPosition(novo.getId());
+            if (position == LongIntMap.MISSING && novo.getId() != null) {
+                position = newIds.get(novo.getId());
+            }
+            if (position == LongIntMap.MISSING) {
+                if (novo.getId() != null) {
+                    newIds.put(novo.getId(), nextPosition);
+                }
+                layer.put(nextPosition++, novo);
+                continue;
+            }
+            UserDTO atual = layer.get(position);
+            UserDTO usuario = copiar(atual != null ? atual : base.user(position));
+            layer.put(position, usuario);
+            mesclar(usuario, novo);
+        }
+        this.productCount = current.productCount() + uploadProducts;
+
+        int layerUsers = layer.size();
+        this.positions = new int[layerUsers];
+        this.users = new UserDTO[layerUsers];
+        this.baseOrderCount = new int[layerUsers];
+        this.baseEnd = new int[layerUsers];
+        int newOrders = 0;
+        int ordersInLayer = 0;
+        int productsInLayer = 0;
+        int j = 0;
+        for (Map.Entry<Integer, UserDTO> entry : layer.entrySet()) {
+            int position = entry.getKey();
+            positions[j] = position;
+            users[j] = entry.getValue();
+            if (position < baseUsers) {
+                baseEnd[j] = base.ordersEnd(position);
+                baseOrderCount[j] = baseEnd[j] - (position == 0 ? 0 : base.ordersEnd(position - 1));
+            } else {
+                baseEnd[j] = baseOrders;
+            }
+            List<OrderDTO> userOrders = ordersOf(users[j]);
+            newOrders += userOrders.size() - baseOrderCount[j];
+            ordersInLayer += userOrders.size();
+            for (OrderDTO order : userOrders) {
+                productsInLayer += order.getProducts() == null ? 0 : order.getProducts().size();
+            }
+            j++;
+        }
+        this.appendedOrders = ordersInLayer;
+        this.layerProducts = productsInLayer;
+
+        this.orders = new OrderDTO[newOrders];
+        this.orderUser = new int[newOrders];
+        this.anchor = new int[newOrders];
+        this.epochDays = new int[newOrders];
+        int d = 0;
+        for (j = 0; j < layerUsers; j++) {
+            List<OrderDTO> userOrders = ordersOf(users[j]);
+            for (int i = baseOrderCount[j]; i < userOrders.size(); i++) {
+                orders[d] = userOrders.get(i);
+                orderUser[d] = positions[j];
+                anchor[d] = baseEnd[j];
+                epochDays[d] = Math.toIntExact(LocalDate.parse(orders[d].getDate()).toEpochDay());
+                d++;
+            }
+        }
+
+        this.newUsersById = newIds;
+        this.ordersById = new LongIntMap(newOrders);
+        this.nextWithSameId = new int[newOrders];
+        this.byDate = new long[newOrders];
+        for (d = newOrders - 1; d >= 0; d--) {
+            long id = orderId(anchor[d] + d);
+            nextWithSameId[d] = id == NO_ID ? LongIntMap.MISSING : ordersById.put(id, d);
+            byDate[d] = (long) epochDays[d] << 32 | (anchor[d] + d);
+        }
+        Arrays.sort(byDate);
+        this.dateRank = new int[newOrders];
+        for (int k = 0; k < newOrders; k++) {
+            dateRank[k] = k + baseDatesBefore(byDate[k]);
+        }
+
+        int firstNew = layerUsers - (nextPosition - baseUsers);
+        this.newSortedById = sortNew(firstNew, false);
+        this.newSortedByName = sortNew(firstNew, true);
+        this.rankById = rank(newSortedById, false);
+        this.rankByName = rank(newSortedByName, true);
+    }
+
+    @Override
+    public OrderSnapshot append(List<UserDTO> users) {
+        return new DeltaOrderSnapshot(this, users);
+    }
+
+    @Override
+    public int appendedOrders() {
+        return appendedOrders;
+    }
+
+    @Override
+    public int userCount() {
+        return baseUsers + newSortedById.length;
+    }
+
+    @Override
+    public int orderCount() {
+        return baseOrders + orders.length;
+    }
+
+    @Override
+    public int productCount() {
+        return productCount;
+    }
+
+    @Override
+    protected long dataBytes() {
+        return base.dataBytes() + HeapOrderSnapshot.dtoBytes(users.length, appendedOrders, layerProducts);
+    }
+
+    @Override
+    public long indexBytes() {
+        return base.indexBytes() + (long) orders.length * (4 * Integer.BYTES + 2 * Long.BYTES)
+                + (long) users.length * (3 * Integer.BYTES) + 4L * newSortedById.length * Integer.BYTES
+                + newUsersById.sizeInBytes() + ordersById.sizeInBytes();
+    }
+
+    @Override
+    public List<UserDTO> users() {
+        return new AbstractList<>() {
+            @Override
+            public UserDTO get(int index) {
+                return user(index);
+            }
+
+            @Override
+            public int size() {
+                return userCount();
+            }
+        };
+    }
+
+    @Override
+    protected UserDTO user(int user) {
+        int j = layerUser(user);
+        return j >= 0 ? users[j] : base.user(user);
+    }
+
+    @Override
+    protected UserDTO userHeader(int user) {
+        if (user < baseUsers) {
+            return base.userHeader(user);
+        }
+        UserDTO source = users[layerUser(user)];
+        UserDTO copy = new UserDTO();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        return copy;
+    }
+
+    @Override
+    protected long userId(int user) {
+        if (user < baseUsers) {
+            return base.userId(user);
+        }
+        Long id = users[layerUser(user)].getId();
+        return id == null ? NO_ID : id;
+    }
+
+    @Override
+    protected String userName(int user) {
+        return user < baseUsers ? base.userName(user) : users[layerUser(user)].getName();
+    }
+
+    @Override
+    protected OrderDTO order(int ordinal) {
+        int at = locate(ordinal);
+        if (at >= 0) {
+            return orders[at];
+        }
+        int baseOrdinal = -1 - at;
+        int j = layerUser(base.userOf(baseOrdinal));
+        if (j < 0) {
+            return base.order(baseOrdinal);
+        }
+        // os pedidos da base vêm primeiro na cópia mesclada, na mesma ordem
+        return users[j].getOrders().get(baseOrdinal - (baseEnd[j] - baseOrderCount[j]));
+    }
+
+    @Override
+    protected long orderId(int ordinal) {
+        int at = locate(ordinal);
+        if (at < 0) {
+            return base.orderId(-1 - at);
+        }
+        Long id = orders[at].getId();
+        return id == null ? NO_ID : id;
+    }
+
+    @Override
+    protected int epochDay(int ordinal) {
+        int at = locate(ordinal);
+        return at >= 0 ? epochDays[at] : base.epochDay(-1 - at);
+    }
+
+    @Override
+    protected int userOf(int ordinal) {
+        int at = locate(ordinal);
+        return at >= 0 ? orderUser[at] : base.userOf(-1 - at);
+    }
+
+    @Override
+    protected int userPosition(long userId) {
+        int user = base.userPosition(userId);
+        return user != LongIntMap.MISSING ? user : newUsersById.get(userId);
+    }
+
+    @Override
+    protected int[] ordersWithId(long orderId) {
+        int[] fromBase = base.ordersWithId(orderId);
+        int[] result = new int[fromBase.length + 4];
+        int count = 0;
+        int b = 0;
+        int d = ordersById.get(orderId);
+        while (b < fromBase.length || d != LongIntMap.MISSING) {
+            int baseOrdinal = b < fromBase.length ? ordinalOf(fromBase[b]) : Integer.MAX_VALUE;
+            int layerOrdinal = d != LongIntMap.MISSING ? anchor[d] + d : Integer.MAX_VALUE;
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            if (baseOrdinal < layerOrdinal) {
+                result[count++] = baseOrdinal;
+                b++;
+            } else {
+                result[count++] = layerOrdinal;
+                d = nextWithSameId[d];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @Override
+    protected long dateKey(int position) {
+        int k = rankBefore(dateRank, position);
+        if (k < byDate.length && dateRank[k] == position) {
+            return byDate[k];
+        }
+        return baseDateKey(position - k);
+    }
+
+    @Override
+    protected int sortedUser(boolean byName, int position) {
+        int[] rank = byName ? rankByName : rankById;
+        int k = rankBefore(rank, position);
+        if (k < rank.length && rank[k] == position) {
+            return (byName ? newSortedByName : newSortedById)[k];
+        }
+        return base.sortedUser(byName, position - k);
+    }
+
+    // índice d do pedido na camada, ou -1 - ordinal na base
+    private int locate(int ordinal) {
+        int low = 0;
+        int high = orders.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (anchor[mid] + mid < ordinal) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < orders.length && anchor[low] + low == ordinal ? low : -1 - (ordinal - low);
+    }
+
+    // ordinal de um pedido da base: soma os pedidos da camada que vêm antes dele
+    private int ordinalOf(int baseOrdinal) {
+        int low = 0;
+        int high = anchor.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (anchor[mid] <= baseOrdinal) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return baseOrdinal + low;
+    }
+
+    private long baseDateKey(int position) {
+        long key = base.dateKey(position);
+        return key & 0xFFFFFFFF00000000L | ordinalOf((int) key);
+    }
+
+    // quantos itens da base, na ordenação por data, têm chave menor
+    private int baseDatesBefore(long key) {
+        int low = 0;
+        int high = baseOrders;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (baseDateKey(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // quantos itens da camada estão antes da posição na ordenação completa
+    private static int rankBefore(int[] rank, int position) {
+        int low = 0;
+        int high = rank.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rank[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int layerUser(int user) {
+        int j = Arrays.binarySearch(positions, user);
+        return j >= 0 ? j : -1;
+    }
+
+    private int[] sortNew(int firstNew, boolean byName) {
+        return IntStream.range(firstNew, positions.length).map(j -> positions[j]).boxed()
+                .sorted((a, b) -> compareUser(a, userId(b), byName ? userName(b) : null, b, byName))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    // novos têm posição maior que qualquer usuário da base, então nunca empatam com um deles
+    private int[] rank(int[] sorted, boolean byName) {
+        int[] rank = new int[sorted.length];
+        for (int k = 0; k < sorted.length; k++) {
+            int user = sorted[k];
+            rank[k] = k + base.lowerBound(userId(user), userName(user), user, byName, false);
+        }
+        return rank;
+    }
+
+    // não altera DTOs publicados: leitores concorrentes ainda podem estar com eles
+    private static void mesclar(UserDTO usuario, UserDTO novo) {
+        Map<Long, Integer> pedidosPorId = new HashMap<>();
+        List<OrderDTO> pedidos = usuario.getOrders();
+        for (int i = 0; i < pedidos.size(); i++) {
+            pedidosPorId.putIfAbsent(pedidos.get(i).getId(), i);
+        }
+        for (OrderDTO pedido : ordersOf(novo)) {
+            Integer existente = pedidosPorId.get(pedido.getId());
+            if (existente == null) {
+                pedido.setUser(usuario);
+                pedidosPorId.put(pedido.getId(), pedidos.size());
+                usuario.addOrder(pedido);
+            } else {
+                OrderDTO original = pedidos.get(existente);
+                pedido.getProducts().forEach(produto -> usuario.addProduct(original, produto));
+            }
+        }
+    }
+
+    private static UserDTO copiar(UserDTO origem) {
+        UserDTO copia = new UserDTO();
+        copia.setId(origem.getId());
+        copia.setName(origem.getName());
+        List<OrderDTO> pedidos = new ArrayList<>();
+        for (OrderDTO pedido : ordersOf(origem)) {
+            OrderDTO copiaPedido = pedido.copy();
+            copiaPedido.setUser(copia);
+            if (copiaPedido.getProducts() == null) {
+                copiaPedido.setProducts(new ArrayList<>());
+            }
+            pedidos.add(copiaPedido);
+        }
+        copia.setOrders(pedidos);
+        return copia;
+    }
+
+    private static List<OrderDTO> ordersOf(UserDTO user) {
+        return user.getOrders() == null ? List.of() : user.getOrders();
+    }
+}
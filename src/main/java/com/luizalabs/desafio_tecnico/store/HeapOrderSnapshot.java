@@ -0,0 +1,106 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Snapshot que guarda os próprios DTOs do upload ({@link StoreLayout#HEAP}). */
+final class HeapOrderSnapshot extends OrderSnapshot {
+
+    // tamanho médio de cada DTO com seus campos (Long, String, BigDecimal, listas) em heap com compressed oops
+    private static final long USER_BYTES = 160;
+    private static final long ORDER_BYTES = 200;
+    private static final long PRODUCT_BYTES = 96;
+
+    private final List<UserDTO> users;
+    private final OrderDTO[] orders;
+    private final int productCount;
+
+    HeapOrderSnapshot(List<UserDTO> users) {
+        this.users = users;
+
+        int orderCount = 0;
+        for (UserDTO user : users) {
+            orderCount += ordersOf(user).size();
+        }
+        this.orders = new OrderDTO[orderCount];
+        int[] orderUser = new int[orderCount];
+        int[] epochDays = new int[orderCount];
+
+        int ordinal = 0;
+        int products = 0;
+        for (int u = 0; u < users.size(); u++) {
+            for (OrderDTO order : ordersOf(users.get(u))) {
+                products += order.getProducts() == null ? 0 : order.getProducts().size();
+                orders[ordinal] = order;
+                orderUser[ordinal] = u;
+                epochDays[ordinal] = Math.toIntExact(LocalDate.parse(order.getDate()).toEpochDay());
+                ordinal++;
+            }
+        }
+        this.productCount = products;
+        index(users.size(), orderUser, epochDays);
+    }
+
+    @Override
+    public int productCount() {
+        return productCount;
+    }
+
+    @Override
+    protected long dataBytes() {
+        return dtoBytes(users.size(), orders.length, productCount);
+    }
+
+    /** Estimativa dos DTOs (e da referência a cada pedido) de tantos usuários, pedidos e produtos. */
+    static long dtoBytes(long users, long orders, long products) {
+        return users * USER_BYTES + orders * (ORDER_BYTES + Integer.BYTES) + products * PRODUCT_BYTES;
+    }
+
+    @Override
+    public List<UserDTO> users() {
+        return users;
+    }
+
+    @Override
+    protected UserDTO user(int user) {
+        return users.get(user);
+    }
+
+    @Override
+    protected UserDTO userHeader(int user) {
+        UserDTO source = users.get(user);
+        UserDTO copy = new UserDTO();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        return copy;
+    }
+
+    @Override
+    protected long userId(int user) {
+        Long id = users.get(user).getId();
+        return id == null ? NO_ID : id;
+    }
+
+    @Override
+    protected String userName(int user) {
+        return users.get(user).getName();
+    }
+
+    @Override
+    protected OrderDTO order(int ordinal) {
+        return orders[ordinal];
+    }
+
+    @Override
+    protected long orderId(int ordinal) {
+        Long id = orders[ordinal].getId();
+        return id == null ? NO_ID : id;
+    }
+
+    private static List<OrderDTO> ordersOf(UserDTO user) {
+        return user.getOrders() == null ? List.of() : user.getOrders();
+    }
+}
@@ -0,0 +1,510 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.util.LongIntMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Estado imutável dos pedidos consultáveis. Um snapshot nunca é alterado depois de publicado: cada upload
+ * gera um novo, então leitores concorrentes sempre enxergam um upload inteiro.
+ *
+ * <p>Os índices são montados na criação. Cada usuário é identificado pela posição no upload e cada pedido por
+ * um ordinal na ordem usuário → pedido; as consultas trabalham sobre essas posições e só no fim montam os DTOs,
+ * preservando essa ordem. As subclasses definem como os dados ficam guardados ({@link StoreLayout}).
+ *
+ * <p>As consultas leem os índices só pelos acessores protegidos ({@link #userPosition}, {@link #ordersWithId},
+ * {@link #dateKey}, {@link #sortedUser}...), que o {@link DeltaOrderSnapshot} sobrescreve para somar uma camada
+ * de append aos índices da base sem remontá-los.
+ */
+public abstract class OrderSnapshot {
+
+    public static final OrderSnapshot EMPTY = new HeapOrderSnapshot(List.of());
+
+    /** Id usado no lugar de um id nulo. */
+    protected static final long NO_ID = Long.MIN_VALUE;
+
+    private static final String BY_ID = "ui";
+    private static final String BY_NAME = "un";
+    private static final String BY_ORDINAL = "oo";
+    private static final String BY_DATE = "od";
+    private static final Comparator<String> NAMES = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private int userCount;
+
+    // por ordinal do pedido
+    private int[] orderUser;
+    private int[] epochDays;
+
+    // userId -> primeira posição do usuário
+    private LongIntMap usersById;
+
+    // orderId -> menor ordinal; os demais com o mesmo id (de outros usuários) seguem encadeados em nextWithSameId
+    private LongIntMap ordersById;
+    private int[] nextWithSameId;
+
+    // (epochDay << 32 | ordinal), ordenado: busca por intervalo em O(log n + k)
+    private long[] byDate;
+
+    // posições de usuários pré-ordenadas por (id, posição) e (nome, id, posição): ordem total para o cursor
+    private int[] usersSortedById;
+    private int[] usersSortedByName;
+
+    public static OrderSnapshot of(List<UserDTO> users) {
+        return of(users, StoreLayout.HEAP);
+    }
+
+    public static OrderSnapshot of(List<UserDTO> users, StoreLayout layout) {
+        if (users.isEmpty()) {
+            return EMPTY;
+        }
+        return switch (layout) {
+            case HEAP -> new HeapOrderSnapshot(List.copyOf(users));
+            case COLUMNAR -> new ColumnarOrderSnapshot(users, false);
+            case OFF_HEAP -> new ColumnarOrderSnapshot(users, true);
+        };
+    }
+
+    /**
+     * Mescla um upload incremental pela chave (userId, orderId): usuários e pedidos novos são acrescentados ao
+     * final e produtos de pedidos já existentes entram no pedido original. O resultado é um
+     * {@link DeltaOrderSnapshot} sobre este snapshot, que não é copiado nem reindexado; o custo é proporcional ao
+     * upload e aos usuários que ele toca.
+     */
+    public OrderSnapshot append(List<UserDTO> users) {
+        return new DeltaOrderSnapshot(this, users);
+    }
+
+    /**
+     * Pedidos guardados na camada de append, incluindo os já existentes dos usuários tocados; 0 num snapshot
+     * compactado. Serve para decidir quando remontar o snapshot inteiro.
+     */
+    public int appendedOrders() {
+        return 0;
+    }
+
+    /** Todos os usuários com todos os pedidos, na ordem do upload. */
+    public abstract List<UserDTO> users();
+
+    /** Usuário completo na posição informada. */
+    protected abstract UserDTO user(int user);
+
+    /** Cópia só com id e nome, para receber os pedidos de uma consulta. */
+    protected abstract UserDTO userHeader(int user);
+
+    protected abstract long userId(int user);
+
+    protected abstract String userName(int user);
+
+    protected abstract OrderDTO order(int ordinal);
+
+    protected abstract long orderId(int ordinal);
+
+    public abstract int productCount();
+
+    /** Bytes dos dados guardados pela subclasse, sem os índices desta classe. */
+    protected abstract long dataBytes();
+
+    /**
+     * Monta os índices; chamado pela subclasse ao fim da construção, quando os acessores já respondem.
+     *
+     * @param orderUser posição do usuário de cada pedido, por ordinal
+     * @param epochDays data de cada pedido, por ordinal
+     */
+    protected final void index(int userCount, int[] orderUser, int[] epochDays) {
+        int orderCount = orderUser.length;
+        this.userCount = userCount;
+        this.orderUser = orderUser;
+        this.epochDays = epochDays;
+
+        usersById = new LongIntMap(userCount);
+        for (int u = 0; u < userCount; u++) {
+            long id = userId(u);
+            if (id != NO_ID) {
+                usersById.putIfAbsent(id, u);
+            }
+        }
+
+        ordersById = new LongIntMap(orderCount);
+        nextWithSameId = new int[orderCount];
+        byDate = new long[orderCount];
+        for (int ordinal = orderCount - 1; ordinal >= 0; ordinal--) {
+            long id = orderId(ordinal);
+            nextWithSameId[ordinal] = id == NO_ID ? LongIntMap.MISSING : ordersById.put(id, ordinal);
+            byDate[ordinal] = (long) epochDays[ordinal] << 32 | ordinal;
+        }
+        Arrays.sort(byDate);
+
+        usersSortedById = IntStream.range(0, userCount).boxed()
+                .sorted((a, b) -> compareUser(a, userId(b), null, b, false))
+                .mapToInt(Integer::intValue).toArray();
+        usersSortedByName = IntStream.range(0, userCount).boxed()
+                .sorted((a, b) -> compareUser(a, userId(b), userName(b), b, true))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    public int orderCount() {
+        return orderUser.length;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * Estimativa da memória do snapshot: dados da subclasse (no layout {@link StoreLayout#HEAP}, por tamanho
+     * médio de cada DTO) mais os índices. Serve para planejar capacidade, não é uma medida exata.
+     */
+    public long estimatedBytes() {
+        return dataBytes() + indexBytes();
+    }
+
+    /**
+     * Bytes dos índices desta classe, que ficam no heap em qualquer layout: por pedido, usuário, data, próximo
+     * com o mesmo id e a posição em {@code byDate} (20 bytes) mais {@code ordersById}, com 2 a 4 slots de 12 bytes
+     * por pedido; por usuário, as duas ordenações e {@code usersById}.
+     */
+    public long indexBytes() {
+        return (long) orderCount() * (3 * Integer.BYTES + Long.BYTES)
+                + 2L * userCount * Integer.BYTES
+                + usersById.sizeInBytes() + ordersById.sizeInBytes();
+    }
+
+    protected int epochDay(int ordinal) {
+        return epochDays[ordinal];
+    }
+
+    /** Posição do usuário dono do pedido. */
+    protected int userOf(int ordinal) {
+        return orderUser[ordinal];
+    }
+
+    /** Primeira posição do usuário com o id, ou {@link LongIntMap#MISSING}. */
+    protected int userPosition(long userId) {
+        return usersById.get(userId);
+    }
+
+    /** Ordinais dos pedidos com o id, em ordem crescente. */
+    protected int[] ordersWithId(long orderId) {
+        int[] ordinals = new int[4];
+        int count = 0;
+        for (int ordinal = ordersById.get(orderId); ordinal != LongIntMap.MISSING; ordinal = nextWithSameId[ordinal]) {
+            if (count == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, count * 2);
+            }
+            ordinals[count++] = ordinal;
+        }
+        return Arrays.copyOf(ordinals, count);
+    }
+
+    /** Chave {@code epochDay << 32 | ordinal} na posição informada da ordenação por data, de 0 a orderCount. */
+    protected long dateKey(int position) {
+        return byDate[position];
+    }
+
+    /** Usuário na posição informada da ordenação por (nome, id, posição) ou (id, posição), de 0 a userCount. */
+    protected int sortedUser(boolean byName, int position) {
+        return byName ? usersSortedByName[position] : usersSortedById[position];
+    }
+
+    /**
+     * Ordinal seguinte ao último pedido do usuário. Vale para os snapshots com índices próprios, em que os pedidos
+     * de cada usuário são contíguos.
+     */
+    final int ordersEnd(int user) {
+        int low = 0;
+        int high = orderUser.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (orderUser[mid] <= user) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Todos os usuários ordenados por id ou por nome, sem reordenar a cada chamada. Decrescente inverte só a
+     * chave principal: usuários com o mesmo nome (ou id) continuam em ordem crescente de id e de upload.
+     */
+    public List<UserDTO> usersSorted(boolean byName, boolean descending) {
+        List<UserDTO> result = new ArrayList<>(userCount());
+        for (int position = first(byName, descending); position >= 0; position = next(position, byName, descending)) {
+            result.add(user(sortedUser(byName, position)));
+        }
+        return result;
+    }
+
+    /** Página de usuários após o cursor, na ordem de {@link #usersSorted}; custa O(log n + limit). */
+    public Page<UserDTO> usersPage(boolean byName, boolean descending, String cursor, int limit) {
+        String kind = byName ? BY_NAME : BY_ID;
+
+        int position;
+        String key = Cursor.decode(cursor, kind);
+        if (key == null) {
+            position = first(byName, descending);
+        } else {
+            String[] parts = key.split(":", 3);
+            long id;
+            int index;
+            try {
+                id = Long.parseLong(parts[0]);
+                index = Integer.parseInt(parts[1]);
+            } catch (RuntimeException e) {
+                throw Cursor.invalid(cursor);
+            }
+            String name = parts.length > 2 ? parts[2] : null;
+            // low: primeira posição >= chave do cursor
+            int count = userCount();
+            int low = lowerBound(id, name, index, byName, false);
+            boolean found = low < count && compareUser(sortedUser(byName, low), id, name, index, byName) == 0;
+            int after = found ? low + 1 : low;
+            if (!descending) {
+                position = after < count ? after : -1;
+            } else if (after < count && comparePrimary(sortedUser(byName, after), id, name, byName) == 0) {
+                // ainda no mesmo grupo de nome (ou id), que segue em ordem crescente
+                position = after;
+            } else {
+                position = previousGroup(lowerBound(id, name, index, byName, true), byName);
+            }
+        }
+
+        List<UserDTO> items = new ArrayList<>(Math.min(limit, userCount()));
+        int last = -1;
+        while (items.size() < limit && position >= 0) {
+            last = sortedUser(byName, position);
+            items.add(user(last));
+            position = next(position, byName, descending);
+        }
+        boolean more = position >= 0 && last >= 0;
+        String next = more ? Cursor.encode(kind, userId(last) + ":" + last + (byName ? ":" + userName(last) : "")) : null;
+        return new Page<>(items, next);
+    }
+
+    // posições na ordenação (crescente completa) de sortedUser; -1 indica fim. Decrescente percorre os grupos da
+    // chave principal de trás para frente, e cada grupo da primeira à última posição
+    private int first(boolean byName, boolean descending) {
+        if (userCount() == 0) {
+            return -1;
+        }
+        return descending ? groupStart(userCount() - 1, byName) : 0;
+    }
+
+    private int next(int position, boolean byName, boolean descending) {
+        if (!descending) {
+            return position + 1 < userCount() ? position + 1 : -1;
+        }
+        int user = sortedUser(byName, position);
+        if (position + 1 < userCount()
+                && comparePrimary(sortedUser(byName, position + 1), userId(user), userName(user), byName) == 0) {
+            return position + 1;
+        }
+        return previousGroup(groupStart(position, byName), byName);
+    }
+
+    private int previousGroup(int groupStart, boolean byName) {
+        return groupStart == 0 ? -1 : groupStart(groupStart - 1, byName);
+    }
+
+    private int groupStart(int position, boolean byName) {
+        int user = sortedUser(byName, position);
+        return lowerBound(userId(user), userName(user), 0, byName, true);
+    }
+
+    // primeira posição da ordenação >= chave; com primaryOnly compara só o nome (ou o id)
+    final int lowerBound(long id, String name, int index, boolean byName, boolean primaryOnly) {
+        int low = 0;
+        int high = userCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int c = primaryOnly
+                    ? comparePrimary(sortedUser(byName, mid), id, name, byName)
+                    : compareUser(sortedUser(byName, mid), id, name, index, byName);
+            if (c < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public Optional<UserDTO> findUser(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        int user = userPosition(userId);
+        return user == LongIntMap.MISSING ? Optional.empty() : Optional.of(user(user));
+    }
+
+    /**
+     * Pedidos filtrados por id e/ou intervalo de datas (inclusivo), agrupados em cópias dos usuários donos.
+     * Usuários sem pedido no filtro não aparecem.
+     */
+    public List<UserDTO> findOrders(Optional<Long> orderId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        // datas de pedido cabem em int; limites fora disso equivalem a "sem limite"
+        long fromDay = Math.max(from.map(LocalDate::toEpochDay).orElse(Long.MIN_VALUE), Integer.MIN_VALUE);
+        long toDay = Math.min(to.map(LocalDate::toEpochDay).orElse(Long.MAX_VALUE), Integer.MAX_VALUE);
+
+        int[] matches;
+        int count = 0;
+        if (orderId.isPresent()) {
+            matches = ordersWithId(orderId.get());
+            for (int ordinal : matches) {
+                long day = epochDay(ordinal);
+                if (day >= fromDay && day <= toDay) {
+                    matches[count++] = ordinal;
+                }
+            }
+        } else if (from.isPresent() || to.isPresent()) {
+            long lastKey = toDay << 32 | 0xFFFFFFFFL;
+            int low = lowerBound(fromDay << 32);
+            int high = lastKey == Long.MAX_VALUE ? orderCount() : lowerBound(lastKey + 1);
+            count = Math.max(0, high - low);
+            matches = new int[count];
+            for (int i = 0; i < count; i++) {
+                matches[i] = (int) dateKey(low + i);
+            }
+            Arrays.sort(matches); // volta à ordem do upload
+        } else {
+            count = orderCount();
+            matches = new int[count];
+            Arrays.setAll(matches, i -> i);
+        }
+        return group(matches, count);
+    }
+
+    /**
+     * Página de pedidos após o cursor, agrupados por usuário como em {@link #findOrders}; um usuário pode se
+     * repetir entre páginas, mas não dentro de uma página. Com filtro de data cada página reúne os próximos
+     * {@code limit} pedidos na ordem de data (e depois a do upload), o que a mantém em O(log n + limit); na
+     * página, cada usuário aparece uma vez, na posição do seu primeiro pedido, com os pedidos em ordem de data.
+     */
+    public Page<UserDTO> findOrdersPage(Optional<Long> orderId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                        String cursor, int limit) {
+        long fromDay = Math.max(from.map(LocalDate::toEpochDay).orElse(Long.MIN_VALUE), Integer.MIN_VALUE);
+        long toDay = Math.min(to.map(LocalDate::toEpochDay).orElse(Long.MAX_VALUE), Integer.MAX_VALUE);
+        int[] page = new int[Math.min(limit, orderCount())];
+        int count = 0;
+        boolean more = false;
+        String kind;
+
+        if (orderId.isPresent()) {
+            kind = BY_ORDINAL;
+            long[] after = Cursor.decodeLongs(cursor, kind, 1);
+            for (int ordinal : ordersWithId(orderId.get())) {
+                long day = epochDay(ordinal);
+                if ((after != null && ordinal <= after[0]) || day < fromDay || day > toDay) {
+                    continue;
+                }
+                if (count == limit) {
+                    more = true;
+                    break;
+                }
+                page[count++] = ordinal;
+            }
+        } else if (from.isPresent() || to.isPresent()) {
+            kind = BY_DATE;
+            long[] after = Cursor.decodeLongs(cursor, kind, 1);
+            long lastKey = toDay << 32 | 0xFFFFFFFFL;
+            int position = lowerBound(fromDay << 32);
+            if (after != null && after[0] != Long.MAX_VALUE) {
+                position = Math.max(position, lowerBound(after[0] + 1));
+            } else if (after != null) {
+                position = orderCount();
+            }
+            int high = lastKey == Long.MAX_VALUE ? orderCount() : lowerBound(lastKey + 1);
+            while (position < high && count < limit) {
+                page[count++] = (int) dateKey(position++);
+            }
+            more = position < high;
+        } else {
+            kind = BY_ORDINAL;
+            long[] after = Cursor.decodeLongs(cursor, kind, 1);
+            long position = after == null ? 0 : Math.max(0, after[0] + 1);
+            while (position < orderCount() && count < limit) {
+                page[count++] = (int) position++;
+            }
+            more = position < orderCount();
+        }
+
+        String next = null;
+        if (more && count > 0) {
+            int last = page[count - 1];
+            next = Cursor.encode(kind, String.valueOf(kind.equals(BY_DATE) ? (long) epochDay(last) << 32 | last : last));
+        }
+        return new Page<>(kind.equals(BY_DATE) ? groupByUser(page, count) : group(page, count), next);
+    }
+
+    private List<UserDTO> group(int[] ordinals, int count) {
+        List<UserDTO> result = new ArrayList<>();
+        int i = 0;
+        while (i < count) {
+            int u = userOf(ordinals[i]);
+            List<OrderDTO> userOrders = new ArrayList<>();
+            while (i < count && userOf(ordinals[i]) == u) {
+                userOrders.add(order(ordinals[i++]));
+            }
+            UserDTO copy = userHeader(u);
+            copy.setOrders(userOrders);
+            result.add(copy);
+        }
+        return result;
+    }
+
+    // pedidos fora da ordem do upload: um usuário pode ter pedidos separados por pedidos de outros
+    private List<UserDTO> groupByUser(int[] ordinals, int count) {
+        Map<Integer, List<OrderDTO>> byUser = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            byUser.computeIfAbsent(userOf(ordinals[i]), u -> new ArrayList<>()).add(order(ordinals[i]));
+        }
+        List<UserDTO> result = new ArrayList<>(byUser.size());
+        byUser.forEach((u, userOrders) -> {
+            UserDTO copy = userHeader(u);
+            copy.setOrders(userOrders);
+            result.add(copy);
+        });
+        return result;
+    }
+
+    // primeira posição da ordenação por data com chave >= key
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = orderCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dateKey(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    final int comparePrimary(int user, long id, String name, boolean byName) {
+        return byName ? NAMES.compare(userName(user), name) : Long.compare(userId(user), id);
+    }
+
+    final int compareUser(int user, long id, String name, int keyUser, boolean byName) {
+        if (byName) {
+            int c = NAMES.compare(userName(user), name);
+            if (c != 0) {
+                return c;
+            }
+        }
+        int c = Long.compare(userId(user), id);
+        return c != 0 ? c : Integer.compare(user, keyUser);
+    }
+}
@@ -0,0 +1,310 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Arquivo binário com um {@link OrderSnapshot}, para recarregar o store sem refazer o parse dos uploads. As
+ * colunas do {@link ColumnarOrderSnapshot} são gravadas em little-endian, alinhadas em 8 bytes; na leitura são
+ * mapeadas direto do arquivo (memory-mapping), e só os índices, as datas e os nomes vão para o heap.
+ *
+ * <p>Formato (versão {@value #VERSION}): cabeçalho com magic, versão e quantidade de usuários, pedidos e produtos;
+ * colunas de usuários, pedidos e produtos; nomes e preços que não cabem nas colunas; e por fim o CRC32C de todos
+ * os bytes anteriores. A gravação vai para um arquivo temporário que substitui o destino de forma atômica, então
+ * quem lê nunca vê um arquivo pela metade.</p>
+ */
+public final class OrderSnapshotFile {
+
+    public static final int VERSION = 1;
+
+    private static final long MAGIC = ByteBuffer.wrap("LLPEDIDO".getBytes(StandardCharsets.US_ASCII))
+            .order(ByteOrder.LITTLE_ENDIAN).getLong();
+    // magic, versão, usuários, pedidos, produtos e 8 bytes reservados
+    private static final int HEADER_BYTES = 32;
+    private static final int CHECKSUM_BYTES = Long.BYTES;
+    private static final long CHECKSUM_CHUNK = 1L << Column.SEGMENT_BITS;
+
+    private OrderSnapshotFile() {
+    }
+
+    /** Grava o snapshot em {@code file}, substituindo o arquivo anterior só quando a gravação termina. */
+    public static void write(OrderSnapshot snapshot, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                write(snapshot, channel);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Mapeia o snapshot gravado em {@code file}. As colunas continuam mapeadas depois que o arquivo é fechado ou
+     * substituído por uma nova gravação, até o snapshot ser coletado.
+     *
+     * @throws IOException se o arquivo não for um snapshot, tiver outra versão ou o checksum não conferir
+     */
+    public static OrderSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CHECKSUM_BYTES) {
+                throw new IOException("Snapshot truncado: " + file);
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getLong() != MAGIC) {
+                throw new IOException("Arquivo não é um snapshot de pedidos: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versão de snapshot não suportada: " + version + " (esperada " + VERSION + ")");
+            }
+            long expected = readFully(channel, size - CHECKSUM_BYTES, CHECKSUM_BYTES).getLong();
+            if (checksum(channel, size - CHECKSUM_BYTES) != expected) {
+                throw new IOException("Checksum do snapshot não confere: " + file);
+            }
+            Layout layout = new Layout(header.getInt(), header.getInt(), header.getInt());
+            if (layout.tail > size - CHECKSUM_BYTES) {
+                throw new IOException("Snapshot truncado: " + file);
+            }
+
+            ByteBuffer tail = readFully(channel, layout.tail, Math.toIntExact(size - CHECKSUM_BYTES - layout.tail));
+            String[] names = new String[tail.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readString(tail);
+            }
+            Map<Integer, BigDecimal> otherPrices = new HashMap<>();
+            for (int i = tail.getInt(); i > 0; i--) {
+                int product = tail.getInt();
+                String price = readString(tail);
+                otherPrices.put(product, price == null ? null : new BigDecimal(price));
+            }
+            if (layout.users == 0) {
+                return OrderSnapshot.EMPTY;
+            }
+
+            Columns columns = layout.map(channel, FileChannel.MapMode.READ_ONLY);
+            int[] epochDays = new int[layout.orders];
+            for (int i = 0; i < epochDays.length; i++) {
+                epochDays[i] = (int) columns.epochDays.get(i);
+            }
+            return new ColumnarOrderSnapshot(layout.users, columns.userIds, columns.userNames, names,
+                    columns.userOrderStart, columns.orderIds, epochDays, columns.orderProductStart,
+                    columns.productIds, columns.priceUnscaled, columns.priceScale, otherPrices);
+        }
+    }
+
+    private static void write(OrderSnapshot snapshot, FileChannel channel) throws IOException {
+        Layout layout = new Layout(snapshot.userCount(), snapshot.orderCount(), snapshot.productCount());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(MAGIC).putInt(VERSION).putInt(layout.users).putInt(layout.orders).putInt(layout.products)
+                .putLong(0)
+                .flip();
+        writeFully(channel, header, 0);
+
+        Columns columns = layout.map(channel, FileChannel.MapMode.READ_WRITE);
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (int u = 0; u < layout.users; u++) {
+            columns.userIds.set(u, snapshot.userId(u));
+            columns.userNames.set(u, dictionary.computeIfAbsent(snapshot.userName(u), name -> {
+                names.add(name);
+                return names.size() - 1;
+            }));
+        }
+
+        // pedidos seguem a ordem usuário -> pedido, então o início de cada usuário sai de userOf
+        Map<Integer, BigDecimal> otherPrices = new LinkedHashMap<>();
+        int user = 0;
+        int product = 0;
+        for (int ordinal = 0; ordinal < layout.orders; ordinal++) {
+            for (int owner = snapshot.userOf(ordinal); user <= owner; user++) {
+                columns.userOrderStart.set(user, ordinal);
+            }
+            columns.orderIds.set(ordinal, snapshot.orderId(ordinal));
+            columns.epochDays.set(ordinal, snapshot.epochDay(ordinal));
+            columns.orderProductStart.set(ordinal, product);
+            OrderDTO order = snapshot.order(ordinal);
+            for (ProductDTO p : order.getProducts() == null ? List.<ProductDTO>of() : order.getProducts()) {
+                columns.productIds.set(product, p.getId() == null ? OrderSnapshot.NO_ID : p.getId());
+                BigDecimal price = p.getPrice();
+                if (ColumnarOrderSnapshot.fitsColumns(price)) {
+                    columns.priceUnscaled.set(product, price.unscaledValue().longValue());
+                    columns.priceScale.set(product, price.scale());
+                } else {
+                    otherPrices.put(product, price);
+                }
+                product++;
+            }
+        }
+        for (; user <= layout.users; user++) {
+            columns.userOrderStart.set(user, layout.orders);
+        }
+        columns.orderProductStart.set(layout.orders, product);
+        columns.force();
+
+        ByteBuffer tail = encodeTail(names, otherPrices);
+        writeFully(channel, tail, layout.tail);
+        long end = layout.tail + tail.limit();
+        ByteBuffer checksum = ByteBuffer.allocate(CHECKSUM_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(0, checksum(channel, end));
+        writeFully(channel, checksum, end);
+    }
+
+    private static ByteBuffer encodeTail(List<String> names, Map<Integer, BigDecimal> otherPrices) {
+        List<byte[]> encodedNames = new ArrayList<>(names.size());
+        long size = 2L * Integer.BYTES;
+        for (String name : names) {
+            byte[] bytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+            encodedNames.add(bytes);
+            size += Integer.BYTES + (bytes == null ? 0 : bytes.length);
+        }
+        List<byte[]> encodedPrices = new ArrayList<>(otherPrices.size());
+        for (BigDecimal price : otherPrices.values()) {
+            byte[] bytes = price == null ? null : price.toString().getBytes(StandardCharsets.US_ASCII);
+            encodedPrices.add(bytes);
+            size += 2L * Integer.BYTES + (bytes == null ? 0 : bytes.length);
+        }
+
+        ByteBuffer tail = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+        tail.putInt(encodedNames.size());
+        encodedNames.forEach(bytes -> putBytes(tail, bytes));
+        tail.putInt(encodedPrices.size());
+        int i = 0;
+        for (int product : otherPrices.keySet()) {
+            tail.putInt(product);
+            putBytes(tail, encodedPrices.get(i++));
+        }
+        return tail.flip();
+    }
+
+    // tamanho -1 indica null
+    private static void putBytes(ByteBuffer buf, byte[] bytes) {
+        if (bytes == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return value;
+    }
+
+    private static long checksum(FileChannel channel, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long position = 0; position < length; position += CHECKSUM_CHUNK) {
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHECKSUM_CHUNK, length - position)));
+        }
+        return crc.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Snapshot truncado");
+            }
+        }
+        return buf.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    /** Posição de cada coluna no arquivo, a partir das quantidades do cabeçalho. */
+    private static final class Layout {
+
+        final int users;
+        final int orders;
+        final int products;
+        final long userIds;
+        final long userNames;
+        final long userOrderStart;
+        final long orderIds;
+        final long epochDays;
+        final long orderProductStart;
+        final long productIds;
+        final long priceUnscaled;
+        final long priceScale;
+        final long tail;
+
+        Layout(int users, int orders, int products) throws IOException {
+            if (users < 0 || orders < 0 || products < 0) {
+                throw new IOException("Cabeçalho de snapshot inválido");
+            }
+            this.users = users;
+            this.orders = orders;
+            this.products = products;
+            userIds = HEADER_BYTES;
+            userNames = align(userIds + 8L * users);
+            userOrderStart = align(userNames + 4L * users);
+            orderIds = align(userOrderStart + 4L * (users + 1));
+            epochDays = align(orderIds + 8L * orders);
+            orderProductStart = align(epochDays + 4L * orders);
+            productIds = align(orderProductStart + 4L * (orders + 1));
+            priceUnscaled = align(productIds + 8L * products);
+            priceScale = align(priceUnscaled + 8L * products);
+            tail = align(priceScale + products);
+        }
+
+        Columns map(FileChannel channel, FileChannel.MapMode mode) throws IOException {
+            return new Columns(
+                    Column.mapped(channel, mode, userIds, users, 3),
+                    Column.mapped(channel, mode, userNames, users, 2),
+                    Column.mapped(channel, mode, userOrderStart, users + 1, 2),
+                    Column.mapped(channel, mode, orderIds, orders, 3),
+                    Column.mapped(channel, mode, epochDays, orders, 2),
+                    Column.mapped(channel, mode, orderProductStart, orders + 1, 2),
+                    Column.mapped(channel, mode, productIds, products, 3),
+                    Column.mapped(channel, mode, priceUnscaled, products, 3),
+                    Column.mapped(channel, mode, priceScale, products, 0));
+        }
+
+        private static long align(long position) {
+            return (position + 7) & ~7L;
+        }
+    }
+
+    private record Columns(Column userIds, Column userNames, Column userOrderStart, Column orderIds,
+                           Column epochDays, Column orderProductStart, Column productIds, Column priceUnscaled,
+                           Column priceScale) {
+
+        void force() {
+            for (Column column : new Column[]{userIds, userNames, userOrderStart, orderIds, epochDays,
+                    orderProductStart, productIds, priceUnscaled, priceScale}) {
+                column.force();
+            }
+        }
+    }
+}
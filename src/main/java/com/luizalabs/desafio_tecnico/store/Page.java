@@ -0,0 +1,29 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import java.util.List;
+
+/** Página de resultados; {@code nextCursor} é {@code null} na última. */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    private static final String BY_POSITION = "ix";
+
+    /** Página de uma lista que não muda mais, a partir da posição guardada no cursor. */
+    public static <T> Page<T> of(List<T> all, String cursor, int limit) {
+        return of(all.size(), cursor, limit, all::subList);
+    }
+
+    /** Como {@link #of(List, String, int)}, para {@code size} itens lidos por faixa (por exemplo, do disco). */
+    public static <T> Page<T> of(int size, String cursor, int limit, Range<T> range) {
+        long[] after = Cursor.decodeLongs(cursor, BY_POSITION, 1);
+        int from = after == null ? 0 : (int) Math.min(size, Math.max(0, after[0] + 1));
+        int to = (int) Math.min(size, (long) from + limit);
+        String next = to < size ? Cursor.encode(BY_POSITION, String.valueOf(to - 1)) : null;
+        return new Page<>(range.read(from, to), next);
+    }
+
+    /** Itens das posições {@code [from, to)}. */
+    @FunctionalInterface
+    public interface Range<T> {
+        List<T> read(int from, int to);
+    }
+}
@@ -0,0 +1,19 @@
+package com.luizalabs.desafio_tecnico.store;
+
+/** Como o snapshot guarda os pedidos em memória. */
+public enum StoreLayout {
+
+    /** Os próprios DTOs do upload. */
+    HEAP,
+
+    /** Arrays primitivos por coluna; os DTOs são montados a cada consulta. */
+    COLUMNAR,
+
+    /**
+     * Mesmas colunas do {@link #COLUMNAR} em memória direta, fora do heap. Os índices por id, por data e as
+     * ordenações de usuários continuam no heap (de 44 a 68 bytes por pedido, ver
+     * {@link OrderSnapshot#indexBytes()}), assim como o dicionário de nomes. A memória direta de um snapshot
+     * substituído só volta quando o GC coleta os buffers.
+     */
+    OFF_HEAP
+}
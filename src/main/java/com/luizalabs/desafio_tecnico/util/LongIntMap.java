@@ -0,0 +1,112 @@
+package com.luizalabs.desafio_tecnico.util;
+
+import java.util.Arrays;
+
+/**
+ * Tabela hash de endereçamento aberto de {@code long} para {@code int} não negativo, só com arrays primitivos.
+ * Serve de índice (chave → posição) sem um objeto por entrada.
+ */
+public final class LongIntMap {
+
+    public static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Bytes ocupados pelas tabelas de chaves e valores. */
+    public long sizeInBytes() {
+        return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+    }
+
+    /** @return o valor associado, ou {@link #MISSING} */
+    public int get(long key) {
+        int i = slot(key);
+        int value;
+        while ((value = values[i]) != MISSING) {
+            if (keys[i] == key) {
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /** Associa o valor à chave e retorna o valor anterior, ou {@link #MISSING}. */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Valor deve ser não negativo. Valor: " + value);
+        }
+        int i = slot(key);
+        int current;
+        while ((current = values[i]) != MISSING) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return current;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > values.length) {
+            resize();
+        }
+        return MISSING;
+    }
+
+    /** Associa só se a chave ainda não existir; retorna o valor já presente, ou {@link #MISSING}. */
+    public int putIfAbsent(long key, int value) {
+        int current = get(key);
+        if (current == MISSING) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldValues.length << 1);
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != MISSING) {
+                int i = slot(oldKeys[j]);
+                while (values[i] != MISSING) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,106 @@
+package com.luizalabs.desafio_tecnico.util;
+
+import java.util.Arrays;
+
+/**
+ * Tabela hash de endereçamento aberto com chave composta por dois {@code long} primitivos, sem boxing nem
+ * objeto de chave por consulta. Não aceita valores {@code null}.
+ */
+public final class LongPairMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] first;
+    private long[] second;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongPairMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongPairMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long a, long b) {
+        int i = slot(a, b);
+        Object value;
+        while ((value = values[i]) != null) {
+            if (first[i] == a && second[i] == b) {
+                return (V) value;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /** Associa o valor à chave e retorna o valor anterior, ou {@code null}. */
+    @SuppressWarnings("unchecked")
+    public V put(long a, long b, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valor não pode ser nulo");
+        }
+        int i = slot(a, b);
+        Object current;
+        while ((current = values[i]) != null) {
+            if (first[i] == a && second[i] == b) {
+                values[i] = value;
+                return (V) current;
+            }
+            i = (i + 1) & mask;
+        }
+        first[i] = a;
+        second[i] = b;
+        values[i] = value;
+        if (++size * 2 > values.length) {
+            resize();
+        }
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slot(long a, long b) {
+        long h = a * 0x9E3779B97F4A7C15L + b;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void resize() {
+        long[] oldFirst = first;
+        long[] oldSecond = second;
+        Object[] oldValues = values;
+        allocate(oldValues.length << 1);
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldFirst[j], oldSecond[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                first[i] = oldFirst[j];
+                second[i] = oldSecond[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        first = new long[capacity];
+        second = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,141 @@
+package com.luizalabs.desafio_tecnico.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Dicionário de nomes com tamanho máximo: o mesmo nome lido em linhas diferentes devolve a mesma String. A busca
+ * compara direto os caracteres (ou bytes ASCII) da linha, sem criar substring; a String só é criada quando o nome
+ * ainda não está no dicionário. Cheio, continua resolvendo os nomes já guardados e só decodifica os novos.
+ *
+ * <p>Não é thread-safe: cada ingestão (ou trecho paralelo) usa o seu.</p>
+ */
+public final class NameDictionary {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final int maxSize;
+    private String[] table = new String[MIN_CAPACITY];
+    private int mask = MIN_CAPACITY - 1;
+    private int size;
+
+    public NameDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public NameDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Nome em {@code [from, to)} de {@code chars}, sem os espaços das pontas (como {@code trim()}). */
+    public String intern(CharSequence chars, int from, int to) {
+        while (from < to && chars.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && chars.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        int length = to - from;
+        int slot = slot(hash);
+        String name;
+        while ((name = table[slot]) != null) {
+            if (name.hashCode() == hash && name.length() == length && regionEquals(name, chars, from)) {
+                return name;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return store(slot, chars.subSequence(from, to).toString());
+    }
+
+    /**
+     * Nome em UTF-8 nos bytes {@code [from, to)} do buffer, já sem espaços nas pontas. Nomes só com ASCII são
+     * buscados direto pelos bytes; os demais são decodificados antes da busca.
+     */
+    public String intern(ByteBuffer buf, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < 0) {
+                String decoded = decode(buf, from, to);
+                return intern(decoded, 0, decoded.length());
+            }
+            hash = 31 * hash + b;
+        }
+        int length = to - from;
+        int slot = slot(hash);
+        String name;
+        while ((name = table[slot]) != null) {
+            if (name.hashCode() == hash && name.length() == length && regionEquals(name, buf, from)) {
+                return name;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return store(slot, decode(buf, from, to));
+    }
+
+    private String store(int slot, String name) {
+        if (size < maxSize) {
+            table[slot] = name;
+            if (++size * 2 > table.length) {
+                grow();
+            }
+        }
+        return name;
+    }
+
+    private void grow() {
+        String[] old = table;
+        table = new String[old.length * 2];
+        mask = table.length - 1;
+        for (String name : old) {
+            if (name != null) {
+                int slot = slot(name.hashCode());
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = name;
+            }
+        }
+    }
+
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static boolean regionEquals(String name, CharSequence chars, int from) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(String name, ByteBuffer buf, int from) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != buf.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buf, int from, int to) {
+        if (buf.hasArray()) {
+            return new String(buf.array(), buf.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -2,10 +2,14 @@ package com.luizalabs.desafio_tecnico.controller;
 
 import com.luizalabs.desafio_tecnico.dto.ApiErrorDTO;
 import com.luizalabs.desafio_tecnico.dto.FileProcessingResultDTO;
+import com.luizalabs.desafio_tecnico.dto.UploadJobDTO;
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
 import com.luizalabs.desafio_tecnico.exceptions.InvalidFileFormatException;
 import com.luizalabs.desafio_tecnico.service.FileProcessingService;
+import com.luizalabs.desafio_tecnico.service.IngestListener;
+import com.luizalabs.desafio_tecnico.service.OrderPersistenceService;
 import com.luizalabs.desafio_tecnico.service.OrderQueryService;
+import com.luizalabs.desafio_tecnico.service.UploadJobService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,12 +18,17 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +44,12 @@ class FileUploadControllerTest {
     @MockitoBean
     private OrderQueryService queryService;
 
+    @MockitoBean
+    private OrderPersistenceService persistenceService;
+
+    @MockitoBean
+    private UploadJobService jobService;
+
     private MockMultipartFile validFile;
     private MockMultipartFile emptyFile;
     private MockMultipartFile invalidTypeFile;
@@ -87,6 +102,76 @@ class FileUploadControllerTest {
 
         verify(processingService, times(1)).processFile(any(MockMultipartFile.class));
         verify(queryService, times(1)).salvarPedidos(resultDTO.getUsers());
+        verify(persistenceService, times(1)).salvarUpload(resultDTO.getUsers(), false);
+    }
+
+    @Test
+    void deveMesclarPedidosQuandoUploadIncremental() throws Exception {
+        // Arrange
+        FileProcessingResultDTO resultDTO = new FileProcessingResultDTO();
+        resultDTO.setUsers(Collections.emptyList());
+        when(processingService.processFile(any(MockMultipartFile.class))).thenReturn(resultDTO);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/upload").file(validFile).param("append", "true"))
+                .andExpect(status().isOk());
+
+        verify(queryService, times(1)).mesclarPedidos(resultDTO.getUsers());
+        verify(queryService, never()).salvarPedidos(any());
+    }
+
+    @Test
+    void naoDevePublicarPedidosQuandoGravacaoNoBancoFalha() throws Exception {
+        // Arrange
+        FileProcessingResultDTO resultDTO = new FileProcessingResultDTO();
+        resultDTO.setUsers(Collections.emptyList());
+        when(processingService.processFile(any(MockMultipartFile.class))).thenReturn(resultDTO);
+        doThrow(new IllegalStateException("banco indisponível")).when(persistenceService).salvarUpload(anyList(), anyBoolean());
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/upload").file(validFile).param("append", "true"))
+                .andExpect(status().isInternalServerError());
+
+        verify(queryService, never()).mesclarPedidos(any());
+        verify(queryService, never()).salvarPedidos(any());
+    }
+
+    @Test
+    void deveRetornarIdDoJobQuandoUploadAssincrono() throws Exception {
+        // Arrange
+        UploadJobDTO job = new UploadJobDTO();
+        job.setId("abc");
+        job.setStatus(UploadJobDTO.Status.QUEUED);
+        when(jobService.submeter(any(MockMultipartFile.class), eq(false))).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/upload").file(validFile).param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/abc"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(processingService, never()).processFile(any());
+        verify(queryService, never()).salvarPedidos(any());
+    }
+
+    @Test
+    void deveAceitarArquivoGzipReconhecidoPeloConteudo() throws Exception {
+        // Arrange
+        ByteArrayOutputStream compactado = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compactado)) {
+            gzip.write("conteudo".getBytes());
+        }
+        MockMultipartFile gzipFile = new MockMultipartFile("file", "pedidos.txt.gz",
+                MediaType.APPLICATION_OCTET_STREAM_VALUE, compactado.toByteArray());
+        FileProcessingResultDTO resultDTO = new FileProcessingResultDTO();
+        resultDTO.setUsers(Collections.emptyList());
+        when(processingService.processFile(any(MockMultipartFile.class))).thenReturn(resultDTO);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/api/upload").file(gzipFile))
+                .andExpect(status().isOk());
+
+        verify(processingService, times(1)).processFile(any(MockMultipartFile.class));
     }
 
     @Test
@@ -107,7 +192,7 @@ class FileUploadControllerTest {
         mockMvc.perform(multipart("/api/upload").file(invalidTypeFile))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.error").value("Formato de arquivo inválido: Tipo de arquivo não suportado. Apenas arquivos de texto são aceitos."));
+                .andExpect(jsonPath("$.error").value("Formato de arquivo inválido: Tipo de arquivo não suportado. Apenas arquivos de texto (ou compactados com gzip) são aceitos."));
 
         verify(processingService, never()).processFile(any());
         verify(queryService, never()).salvarPedidos(any());
@@ -144,4 +229,74 @@ class FileUploadControllerTest {
         verify(processingService, times(1)).processFile(any(MockMultipartFile.class));
         verify(queryService, never()).salvarPedidos(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void deveEnviarUsuariosEErrosComoNdjsonDuranteProcessamento() throws Exception {
+        // Arrange
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(1L);
+        userDTO.setName("Maria");
+        userDTO.setOrders(Collections.emptyList());
+
+        doAnswer(invocation -> {
+            IngestListener listener = invocation.getArgument(2);
+            listener.onError("Linha 1: Campo 'Nome' vazio.");
+            listener.onUser(userDTO);
+            return null;
+        }).when(processingService).processFileStreaming(any(MockMultipartFile.class), eq(true), any(IngestListener.class));
+
+        // Act
+        MvcResult resultado = mockMvc.perform(multipart("/api/upload/stream").file(validFile).param("sorted", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(FileUploadController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(
+                        "{\"type\":\"error\",\"error\":\"Linha 1: Campo 'Nome' vazio.\"}\n" +
+                                "{\"type\":\"user\",\"user\":{\"id\":1,\"name\":\"Maria\",\"orders\":[],\"total\":0}}\n"));
+
+        verify(queryService, never()).salvarPedidos(any());
+    }
+
+    @Test
+    void deveUsarOrdenacaoExternaNoStreamingQuandoSolicitado() throws Exception {
+        // Arrange
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(2L);
+        userDTO.setName("Ana");
+        userDTO.setOrders(Collections.emptyList());
+
+        doAnswer(invocation -> {
+            IngestListener listener = invocation.getArgument(1);
+            listener.onUser(userDTO);
+            return null;
+        }).when(processingService).processFileExternalSort(any(MockMultipartFile.class), any(IngestListener.class));
+
+        // Act
+        MvcResult resultado = mockMvc.perform(multipart("/api/upload/stream").file(validFile)
+                        .param("externalSort", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "{\"type\":\"user\",\"user\":{\"id\":2,\"name\":\"Ana\",\"orders\":[],\"total\":0}}\n"));
+
+        verify(processingService, never()).processFileStreaming(any(), anyBoolean(), any());
+    }
+
+    @Test
+    void deveRetornarBadRequestNoStreamingParaArquivoVazio() throws Exception {
+        // Act & Assert
+        mockMvc.perform(multipart("/api/upload/stream").file(emptyFile))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Formato de arquivo inválido: Arquivo não pode estar vazio"));
+
+        verify(processingService, never()).processFileStreaming(any(), anyBoolean(), any());
+    }
+}
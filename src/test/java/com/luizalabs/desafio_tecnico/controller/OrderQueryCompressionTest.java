@@ -0,0 +1,89 @@
+package com.luizalabs.desafio_tecnico.controller;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.service.OrderQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compressão é feita pelo Tomcat, então o teste sobe o servidor de verdade em vez de usar MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OrderQueryCompressionTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private OrderQueryService queryService;
+
+    @Test
+    void deveCompactarRespostaComETagERetornarNotModifiedNaRevalidacao() throws IOException {
+        // Arrange
+        List<UserDTO> usuarios = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            usuarios.add(usuario(id));
+        }
+        queryService.salvarPedidos(usuarios);
+        HttpHeaders gzip = new HttpHeaders();
+        gzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        // Act
+        ResponseEntity<byte[]> resposta = restTemplate.exchange("/api/users?limit=100", HttpMethod.GET,
+                new HttpEntity<>(gzip), byte[].class);
+        HttpHeaders revalidacao = new HttpHeaders();
+        revalidacao.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        revalidacao.set(HttpHeaders.IF_NONE_MATCH, resposta.getHeaders().getETag());
+        ResponseEntity<byte[]> naoModificada = restTemplate.exchange("/api/users?limit=100", HttpMethod.GET,
+                new HttpEntity<>(revalidacao), byte[].class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals("gzip", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("W/\"" + queryService.versaoDados() + "\"", resposta.getHeaders().getETag());
+        assertTrue(descompactar(resposta.getBody()).startsWith("[{\"id\":1,"));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+        assertEquals(resposta.getHeaders().getETag(), naoModificada.getHeaders().getETag());
+        assertNull(naoModificada.getBody());
+    }
+
+    private static UserDTO usuario(long id) {
+        ProductDTO produto = new ProductDTO();
+        produto.setId(id * 100);
+        produto.setPrice(new BigDecimal("10.00"));
+        OrderDTO pedido = new OrderDTO();
+        pedido.setId(id * 10);
+        pedido.setDate("2024-01-01");
+        pedido.setProducts(new ArrayList<>(List.of(produto)));
+        UserDTO usuario = new UserDTO();
+        usuario.setId(id);
+        usuario.setName("Cliente " + id);
+        usuario.setOrders(new ArrayList<>(List.of(pedido)));
+        return usuario;
+    }
+
+    private static String descompactar(byte[] corpo) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(corpo))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
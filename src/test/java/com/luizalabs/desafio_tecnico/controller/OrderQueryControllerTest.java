@@ -2,6 +2,7 @@ package com.luizalabs.desafio_tecnico.controller;
 
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
 import com.luizalabs.desafio_tecnico.service.OrderQueryService;
+import com.luizalabs.desafio_tecnico.store.Page;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +21,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -145,6 +147,49 @@ class OrderQueryControllerTest {
         verify(queryService, times(1)).buscarUsuariosOrdenados(eq("name"), eq("desc"));
     }
 
+    @Test
+    void deveListarUsuariosPaginadosComCursorNoHeader() throws Exception {
+        // Arrange
+        when(queryService.buscarUsuariosPaginados(eq("name"), eq("asc"), eq("abc"), eq(2)))
+                .thenReturn(new Page<>(List.of(userDTO), "proximo"));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users")
+                        .param("order-by", "name")
+                        .param("limit", "2")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OrderQueryController.NEXT_CURSOR_HEADER, "proximo"))
+                .andExpect(jsonPath("$[0].name").value("Maria"));
+
+        verify(queryService, never()).buscarUsuariosOrdenados(any(), any());
+    }
+
+    @Test
+    void deveOmitirCursorNaUltimaPaginaDePedidos() throws Exception {
+        // Arrange
+        when(queryService.consultarPedidosPaginados(any(), any(), any(), any(), eq(50)))
+                .thenReturn(new Page<>(List.of(userDTO), null));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(OrderQueryController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].name").value("Maria"));
+    }
+
+    @Test
+    void deveRetornarBadRequestParaLimiteInvalido() throws Exception {
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Parâmetro inválido: limit deve estar entre 1 e 10000. Valor: 0"));
+
+        verify(queryService, never()).buscarUsuariosPaginados(any(), any(), any(), anyInt());
+    }
+
     @Test
     void deveRetornarInternalServerErrorParaListarUsuarios() throws Exception {
         // Arrange
@@ -161,6 +206,52 @@ class OrderQueryControllerTest {
         verify(queryService, times(1)).buscarUsuariosOrdenados(eq("id"), eq("asc"));
     }
 
+    @Test
+    void deveEnviarETagDaVersaoDosDados() throws Exception {
+        // Arrange
+        when(queryService.versaoDados()).thenReturn("boot-3");
+        when(queryService.buscarUsuariosOrdenados("id", "asc")).thenReturn(List.of(userDTO));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"boot-3\""));
+    }
+
+    @Test
+    void deveExporCursorEETagParaOutraOrigem() throws Exception {
+        // Arrange
+        when(queryService.versaoDados()).thenReturn("boot-3");
+        when(queryService.buscarUsuariosPaginados("id", "asc", null, 1))
+                .thenReturn(new Page<>(List.of(userDTO), "proximo"));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("limit", "1")
+                        .header("Origin", "http://painel.exemplo"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "proximo"))
+                .andExpect(header().string("Access-Control-Expose-Headers", "X-Next-Cursor, ETag"));
+    }
+
+    @Test
+    void deveRetornarNotModifiedSemConsultarQuandoETagForAtual() throws Exception {
+        // Arrange
+        when(queryService.versaoDados()).thenReturn("boot-3");
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders").param("orderId", "1")
+                        .header("If-None-Match", "W/\"boot-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"boot-3\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("limit", "10")
+                        .header("If-None-Match", "\"boot-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(queryService, never()).consultarPedidos(any(), any(), any());
+        verify(queryService, never()).buscarUsuariosPaginados(any(), any(), any(), anyInt());
+    }
+
     @Test
     void deveLimparDadosComSucesso() throws Exception {
         // Arrange
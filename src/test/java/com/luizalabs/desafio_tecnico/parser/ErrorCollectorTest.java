@@ -0,0 +1,80 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorCollectorTest {
+
+    private final FixedWidthOrderParser parser = new FixedWidthOrderParser(ValidationProfile.STRICT);
+
+    @Test
+    void deveGuardarSoOsPrimeirosErrosEContarTodosPorCodigo() {
+        // Arrange
+        ErrorCollector erros = new ErrorCollector(2);
+        byte[] linha = linha("000000000A", "", "0000000002", "0000000003", "-10.00", " 2024011").getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        boolean valido = parser.parse(ByteBuffer.wrap(linha), 0, linha.length, 7, erros, new ParsedRecord());
+
+        // Assert
+        assertFalse(valido);
+        assertEquals(4, erros.count());
+        assertTrue(erros.truncated());
+        assertEquals(Map.of(ErrorCode.INVALID_NUMBER, 1L, ErrorCode.EMPTY, 1L, ErrorCode.NEGATIVE, 1L,
+                ErrorCode.DATE_LENGTH, 1L), erros.counts());
+        assertEquals(List.of("Linha 7: User ID inválido: '000000000A'", "Linha 7: Nome não pode estar vazio"),
+                erros.messages());
+
+        ParseError primeiro = erros.errors().get(0);
+        assertEquals(7, primeiro.lineNumber());
+        assertEquals(Field.USER_ID, primeiro.field());
+        assertEquals("000000000A", primeiro.rawText());
+    }
+
+    @Test
+    void deveGerarAsMesmasMensagensDaListaDeStrings() {
+        // Arrange
+        ErrorCollector erros = new ErrorCollector(Integer.MAX_VALUE);
+        List<String> mensagens = new ArrayList<>();
+        byte[] linha = linha("0000000000", "Ana", "0000000002", "0000000003", "10.00", "20240230").getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        parser.parse(linha, 0, linha.length, 1, mensagens, new ParsedRecord());
+        parser.parse(ByteBuffer.wrap(linha), 0, linha.length, 1, erros, new ParsedRecord());
+
+        // Assert
+        assertEquals(mensagens, erros.messages());
+        assertEquals(List.of("Linha 1: User ID deve ser positivo. Valor: 0",
+                "Linha 1: Data inválida: '20240230' - Invalid date 'FEBRUARY 30'"), mensagens);
+    }
+
+    @Test
+    void deveJuntarColetoresNaOrdemRespeitandoOLimite() throws Exception {
+        // Arrange
+        ErrorCollector primeiro = new ErrorCollector(3);
+        ErrorCollector segundo = new ErrorCollector(3);
+        for (int i = 1; i <= 2; i++) {
+            primeiro.add(ParseError.unexpected(i, "a"));
+            segundo.add(ParseError.unexpected(10 + i, "b"));
+        }
+
+        // Act
+        primeiro.merge(segundo);
+
+        // Assert
+        assertEquals(4, primeiro.count());
+        assertEquals(List.of(1L, 2L, 11L), primeiro.errors().stream().map(ParseError::lineNumber).toList());
+        assertEquals(Map.of(ErrorCode.UNEXPECTED, 4L), primeiro.counts());
+    }
+
+    private static String linha(String userId, String nome, String orderId, String productId, String valor, String data) {
+        return userId + String.format("%-45s", nome) + orderId + productId + String.format("%12s", valor) + data;
+    }
+}
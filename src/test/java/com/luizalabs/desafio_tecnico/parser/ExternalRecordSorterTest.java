@@ -0,0 +1,91 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalRecordSorterTest {
+
+    private final FixedWidthOrderParser parser = new FixedWidthOrderParser();
+
+    @Test
+    void deveOrdenarPorUsuarioEPedidoEmRunsNoDiscoMantendoOrdemDeEntradaNosEmpates(@TempDir Path diretorio)
+            throws IOException {
+        // Arrange
+        Random aleatorio = new Random(42);
+        List<String> esperado = new ArrayList<>();
+        List<String> obtido = new ArrayList<>();
+        int runs;
+
+        // Act
+        try (ExternalRecordSorter ordenador = new ExternalRecordSorter(ExternalRecordSorter.MIN_MEMORY_BUDGET, diretorio)) {
+            for (int produto = 1; produto <= 5000; produto++) {
+                long usuario = 1 + aleatorio.nextInt(300);
+                long pedido = 1 + aleatorio.nextInt(4);
+                String nome = usuario % 2 == 0 ? "Cliente " + usuario : "Conceição " + usuario;
+                ordenador.add(registro(usuario, nome, pedido, produto, "20240101"));
+                esperado.add(String.format("%05d|%s|%d|%05d", usuario, nome, pedido, produto));
+            }
+            ordenador.forEachSorted(r -> obtido.add(
+                    String.format("%05d|%s|%d|%05d", r.userId(), r.name(), r.orderId(), r.productId())));
+            runs = ordenador.runCount();
+            assertFalse(arquivos(diretorio).isEmpty(), "Runs devem ficar em disco até o close");
+        }
+
+        // Assert
+        esperado.sort(null);
+        assertTrue(runs > 3, "Orçamento mínimo deve gerar várias runs e merge em passadas: " + runs);
+        assertEquals(esperado, obtido, "Ordem por usuário e pedido; empates na ordem de entrada (produto)");
+        assertTrue(arquivos(diretorio).isEmpty(), "Runs devem ser apagadas no close");
+    }
+
+    @Test
+    void deveOrdenarEmMemoriaQuandoCabeNoOrcamento(@TempDir Path diretorio) throws IOException {
+        // Arrange
+        List<String> obtido = new ArrayList<>();
+
+        // Act
+        try (ExternalRecordSorter ordenador = new ExternalRecordSorter(1024 * 1024, diretorio)) {
+            ordenador.add(registro(2, "Maria Santos", 7, 1, "20240102"));
+            ordenador.add(registro(1, "João Silva", 9, 2, "20240103"));
+            ordenador.add(registro(2, "Maria Santos", 3, 3, "20240104"));
+            ordenador.add(registro(1, "João Silva", 9, 4, "20240105"));
+            ordenador.forEachSorted(r -> obtido.add(r.userId() + "|" + r.name() + "|" + r.orderId() + "|"
+                    + r.productId() + "|" + r.value() + "|" + r.date()));
+
+            // Assert
+            assertEquals(0, ordenador.runCount());
+        }
+        assertEquals(List.of(
+                "1|João Silva|9|2|10.50|2024-01-03",
+                "1|João Silva|9|4|10.50|2024-01-05",
+                "2|Maria Santos|3|3|10.50|2024-01-04",
+                "2|Maria Santos|7|1|10.50|2024-01-02"), obtido);
+        assertTrue(arquivos(diretorio).isEmpty(), "Nada deve ir para o disco");
+        assertThrows(IllegalArgumentException.class, () -> new ExternalRecordSorter(1024, diretorio));
+    }
+
+    private ParsedRecord registro(long usuario, String nome, long pedido, long produto, String data) {
+        byte[] linha = String.format("%010d%-45s%010d%010d%12s%s", usuario, nome, pedido, produto, "10.50", data)
+                .getBytes(StandardCharsets.UTF_8);
+        ParsedRecord registro = new ParsedRecord();
+        assertTrue(parser.parse(linha, 0, linha.length, 1, new ArrayList<>(), registro));
+        return registro;
+    }
+
+    private static List<Path> arquivos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.toList();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.service.ParsedLineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedWidthOrderParserTest {
+
+    private FixedWidthOrderParser parser;
+    private ParsedRecord registro;
+
+    @BeforeEach
+    void configurar() {
+        parser = new FixedWidthOrderParser();
+        registro = new ParsedRecord();
+    }
+
+    @Test
+    void testarParseamentoLinhaValidaEmPrimitivos() {
+        // Arrange
+        byte[] linha = formatarLinha("0000000070", "Palmer Prosacco", "0000000753", "0000000003", "1836.74", "20210308")
+                .getBytes(StandardCharsets.UTF_8);
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        boolean valido = parser.parse(linha, 0, linha.length, 1, erros, registro);
+
+        // Assert
+        assertTrue(valido, "Linha deve ser válida");
+        assertTrue(erros.isEmpty(), "Não deve ter erros");
+        assertEquals(70L, registro.userId());
+        assertEquals("Palmer Prosacco", registro.name());
+        assertEquals(753L, registro.orderId());
+        assertEquals(3L, registro.productId());
+        assertEquals(183674L, registro.valueUnscaled(), "Valor deve estar em centavos");
+        assertEquals(2, registro.valueScale());
+        assertEquals(LocalDate.of(2021, 3, 8).toEpochDay(), registro.epochDay());
+    }
+
+    @Test
+    void testarParseamentoComOffsetDentroDoBuffer() {
+        // Arrange
+        String primeira = formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "20231215");
+        String segunda = formatarLinha("0000000002", "Maria Santos", "0000000002", "0000000007", "0000010.00", "20240229");
+        byte[] buffer = (primeira + "\n" + segunda + "\n").getBytes(StandardCharsets.UTF_8);
+        int inicioSegunda = primeira.getBytes(StandardCharsets.UTF_8).length + 1;
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        boolean valido = parser.parse(buffer, inicioSegunda, buffer.length - inicioSegunda - 1, 2, erros, registro);
+
+        // Assert
+        assertTrue(valido);
+        assertEquals(2L, registro.userId());
+        assertEquals("Maria Santos", registro.name());
+        assertEquals(7L, registro.productId());
+        assertEquals(LocalDate.of(2024, 2, 29), registro.date());
+    }
+
+    @Test
+    void testarNomeComAcentoNaoDeslocaColunas() {
+        // Arrange
+        byte[] linha = formatarLinha("0000000001", "José Conceição", "0000000009", "0000000004", "0000099.90", "20200101")
+                .getBytes(StandardCharsets.UTF_8);
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        boolean valido = parser.parse(linha, 0, linha.length, 1, erros, registro);
+
+        // Assert
+        assertTrue(valido, "Erros: " + erros);
+        assertEquals("José Conceição", registro.name());
+        assertEquals(9L, registro.orderId());
+        assertEquals(new BigDecimal("99.90"), registro.value());
+    }
+
+    @ParameterizedTest
+    @MethodSource("linhasComResultadoEsperado")
+    void deveProduzirResultadoEMensagensDoPerfilStrict(String linha, ParsedLine esperado, List<String> errosEsperados) {
+        // Arrange
+        byte[] bytes = linha.getBytes(StandardCharsets.UTF_8);
+        List<String> erros = new ArrayList<>();
+        List<String> errosDoServico = new ArrayList<>();
+
+        // Act
+        boolean valido = parser.parse(bytes, 0, bytes.length, 7, erros, registro);
+        ParsedLine doServico = new ParsedLineService().parse(linha, 7, errosDoServico);
+
+        // Assert
+        assertEquals(errosEsperados, erros);
+        assertEquals(esperado != null, valido);
+        if (esperado != null) {
+            assertEquals(esperado, registro.toParsedLine());
+        }
+        assertEquals(esperado, doServico, "ParsedLineService deve usar o mesmo parser");
+        assertEquals(errosEsperados, errosDoServico);
+    }
+
+    @Test
+    void deveAplicarRegrasExtrasDepoisDasRegrasDoPerfil() {
+        // Arrange
+        FieldRule dataMinima = FieldRule.of(Field.DATE, r -> r.epochDay() >= LocalDate.of(2000, 1, 1).toEpochDay());
+        FixedWidthOrderParser comRegra = new FixedWidthOrderParser(ValidationProfile.STRICT, List.of(dataMinima));
+        byte[] antiga = formatarLinha("0000000000", "João Silva", "0000000001", "0000000001", "0000123.45", "18001215")
+                .getBytes(StandardCharsets.UTF_8);
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        boolean valido = comRegra.parse(antiga, 0, antiga.length, 3, erros, registro);
+
+        // Assert
+        assertFalse(valido);
+        assertEquals(List.of(
+                "Linha 3: User ID deve ser positivo. Valor: 0",
+                "Linha 3: Campo 'Data' recusado pela validação: '18001215'"), erros);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "STRICT, 20240229, 2024-02-29",
+            "STRICT, 20230229, ",
+            "STRICT, 20240230, ",
+            "STRICT, 20000229, 2000-02-29",
+            "STRICT, 19000229, ",
+            "STRICT, 2024+1+5, 2024-01-05",
+            "LEGACY, 20230229, 2023-02-28",
+            "LEGACY, 20240231, 2024-02-29",
+            "LEGACY, 20240132, ",
+            "LEGACY, 00000101, ",
+            "LEGACY, 2024+1+5, "
+    })
+    void deveValidarCalendarioPorPerfil(ValidationProfile perfil, String data, LocalDate esperada) {
+        // Arrange
+        byte[] linha = formatarLinha("0000000001", "Ana", "0000000001", "0000000001", "10.00", data)
+                .getBytes(StandardCharsets.UTF_8);
+        ErrorCollector erros = new ErrorCollector(10);
+
+        // Act
+        boolean valido = new FixedWidthOrderParser(perfil).parse(ByteBuffer.wrap(linha), 0, linha.length, 1, erros, registro);
+
+        // Assert
+        assertEquals(esperada != null, valido);
+        if (esperada != null) {
+            assertEquals(esperada, registro.date());
+        } else {
+            assertEquals(Map.of(ErrorCode.INVALID_DATE, 1L), erros.counts());
+        }
+    }
+
+    @Test
+    void deveAceitarDigitosDeOutrosAlfabetosComoOJdk() {
+        // Arrange
+        byte[] linha = formatarLinha("٠٠٠٠٠٠٠٠١٢", "Ana", "0000000003", "0000000004", "٣.٥٠", "٢٠٢٤٠١٠١")
+                .getBytes(StandardCharsets.UTF_8);
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        boolean valido = parser.parse(linha, 0, linha.length, 1, erros, registro);
+
+        // Assert
+        assertTrue(valido, erros.toString());
+        assertEquals(12L, registro.userId());
+        assertEquals(new BigDecimal("3.50"), registro.value());
+        assertEquals(LocalDate.of(2024, 1, 1), registro.date());
+    }
+
+    // resultados do ParsedLineService antes de ele passar a usar este parser
+    private static Stream<Arguments> linhasComResultadoEsperado() {
+        return Stream.of(
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "20231215"),
+                        valida(1, "123.45", "2023-12-15"), List.of()),
+                Arguments.of(formatarLinha("000000ABC1", "", "0000000002", "-000000003", "-0000500.00", "20241315"),
+                        null, List.of(
+                                "Linha 7: User ID inválido: '000000ABC1'",
+                                "Linha 7: Nome não pode estar vazio",
+                                "Linha 7: Product ID deve ser positivo. Valor: -3",
+                                "Linha 7: Valor não pode ser negativo. Valor: -500.00",
+                                "Linha 7: Data inválida: '20241315' - Invalid value for MonthOfYear (valid values 1 - 12): 13")),
+                Arguments.of(formatarLinha("0000000000", "João Silva", "0000000001", "0000000001", "0000123.45", "20231215"),
+                        null, List.of("Linha 7: User ID deve ser positivo. Valor: 0")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000000.00", "20231215"),
+                        valida(1, "0.00", "2023-12-15"), List.of()),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "-0000000.00", "20231215"),
+                        valida(1, "0.00", "2023-12-15"), List.of()),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "1.5E2", "20231215"),
+                        valida(1, "1.5E+2", "2023-12-15"), List.of()),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "12,50", "20231215"),
+                        null, List.of("Linha 7: Valor inválido: '12,50'")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "20210229"),
+                        null, List.of("Linha 7: Data inválida: '20210229' - Invalid date 'February 29' as '2021' is not a leap year")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "20240431"),
+                        null, List.of("Linha 7: Data inválida: '20240431' - Invalid date 'APRIL 31'")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "20240132"),
+                        null, List.of("Linha 7: Data inválida: '20240132' - Invalid value for DayOfMonth (valid values 1 - 28/31): 32")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "2024AB01"),
+                        null, List.of("Linha 7: Data inválida: '2024AB01' - For input string: \"AB\"")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "  202412"),
+                        null, List.of("Linha 7: Data deve ter 8 dígitos (yyyymmdd). Valor: '202412'")),
+                Arguments.of(formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "18001215"),
+                        valida(1, "123.45", "1800-12-15"), List.of()),
+                Arguments.of(formatarLinha("   +000012", "João Silva", "0000000001", "0000000001", "     123", "20231215"),
+                        valida(12, "123", "2023-12-15"), List.of()),
+                Arguments.of("0000000001João Silva",
+                        null, List.of("Linha 7: Campos fora do intervalo esperado: Range [10, 55) out of bounds for length 20")),
+                Arguments.of("0000000001João Silva                                   00000000010000000001  0000123.45",
+                        null, List.of("Linha 7: Campos fora do intervalo esperado: Range [87, 95) out of bounds for length 87")),
+                Arguments.of("",
+                        null, List.of("Linha 7: Campos fora do intervalo esperado: Range [0, 10) out of bounds for length 0"))
+        );
+    }
+
+    private static ParsedLine valida(long userId, String valor, String data) {
+        return new ParsedLine(userId, "João Silva", 1L, 1L, new BigDecimal(valor), LocalDate.parse(data));
+    }
+
+    private static String formatarLinha(String userId, String nome, String orderId, String productId, String valor, String data) {
+        String nomePreenchido = String.format("%-45s", nome); // Preenche com espaços até 45 caracteres
+        String valorPreenchido = String.format("%12s", valor); // Preenche com espaços à esquerda até 12 caracteres
+        return userId + nomePreenchido + orderId + productId + valorPreenchido + data;
+    }
+}
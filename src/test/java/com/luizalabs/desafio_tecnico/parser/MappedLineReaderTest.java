@@ -0,0 +1,130 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLineReaderTest {
+
+    @TempDir
+    Path diretorio;
+
+    @ParameterizedTest
+    @ValueSource(ints = {40, 41, 47, 64, MappedLineReader.DEFAULT_WINDOW_SIZE})
+    void deveLerMesmasLinhasQueBufferedReaderIndependenteDaJanela(int tamanhoJanela) throws IOException {
+        // Arrange
+        String conteudo = "primeira linha\r\nsegunda\n\n  \numa linha um pouco maior que as outras\nsem quebra final";
+        Path arquivo = escrever(conteudo);
+
+        // Act
+        List<String> linhas = ler(arquivo, tamanhoJanela);
+
+        // Assert
+        assertEquals(conteudo.lines().toList(), linhas);
+    }
+
+    @Test
+    void deveNumerarLinhasSequencialmente() throws IOException {
+        // Arrange
+        Path arquivo = escrever("a\nb\nc\n");
+        List<Long> numeros = new ArrayList<>();
+
+        // Act
+        long total;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            total = MappedLineReader.forEach(canal, 0, canal.size(), (buffer, inicio, fim, numero) -> numeros.add(numero));
+        }
+
+        // Assert
+        assertEquals(3, total);
+        assertEquals(List.of(1L, 2L, 3L), numeros);
+    }
+
+    @Test
+    void deveTruncarLinhaMaiorQueAJanelaSemPerderAsSeguintes() throws IOException {
+        // Arrange
+        Path arquivo = escrever("0123456789abcdef\nfim\n");
+
+        // Act
+        List<String> linhas = ler(arquivo, 8);
+
+        // Assert
+        assertEquals(List.of("01234567", "fim"), linhas);
+    }
+
+    @Test
+    void deveDividirArquivoEmTrechosAlinhadosComInicioDeLinha() throws IOException {
+        // Arrange
+        String conteudo = "linha 1\nlinha 2\nlinha 3\nlinha 4\nlinha 5\nlinha 6\n";
+        Path arquivo = escrever(conteudo);
+
+        // Act
+        long[] fronteiras;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            fronteiras = MappedLineReader.splitAtLines(canal, 4);
+        }
+
+        // Assert
+        assertEquals(0, fronteiras[0]);
+        assertEquals(conteudo.length(), fronteiras[fronteiras.length - 1]);
+        for (int i = 1; i < fronteiras.length - 1; i++) {
+            assertEquals('\n', conteudo.charAt((int) fronteiras[i] - 1), "Trecho deve começar após uma quebra de linha");
+            assertTrue(fronteiras[i] > fronteiras[i - 1]);
+        }
+    }
+
+    @Test
+    void deveIgnorarArquivoVazio() throws IOException {
+        // Arrange
+        Path arquivo = escrever("");
+
+        // Act & Assert
+        assertTrue(ler(arquivo, 8).isEmpty());
+    }
+
+    @Test
+    void deveEncontrarQuebraDeLinhaEmQualquerPosicaoDaPalavra() {
+        for (ByteOrder ordem : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            for (int posicao = 0; posicao < 20; posicao++) {
+                byte[] bytes = new byte[20];
+                java.util.Arrays.fill(bytes, (byte) 0x0B);
+                bytes[posicao] = '\n';
+                ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ordem);
+
+                assertEquals(posicao, MappedLineReader.indexOfNewline(buffer, 0, bytes.length), "Ordem " + ordem);
+            }
+        }
+    }
+
+    private Path escrever(String conteudo) throws IOException {
+        Path arquivo = diretorio.resolve("linhas.txt");
+        Files.writeString(arquivo, conteudo, StandardCharsets.UTF_8);
+        return arquivo;
+    }
+
+    private List<String> ler(Path arquivo, int tamanhoJanela) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedLineReader.forEach(canal, 0, canal.size(), tamanhoJanela, (buffer, inicio, fim, numero) -> {
+                byte[] bytes = new byte[fim - inicio];
+                buffer.get(inicio, bytes);
+                linhas.add(new String(bytes, StandardCharsets.UTF_8));
+            });
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,64 @@
+package com.luizalabs.desafio_tecnico.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamLineReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8, 64})
+    void deveLerMesmasLinhasQueBufferedReaderIndependenteDoBuffer(int tamanhoBuffer) throws IOException {
+        // Arrange
+        String conteudo = "primeira linha\r\nsegunda\n\n  \numa linha um pouco maior que as outras\nsem quebra final\r";
+
+        // Act
+        List<String> linhas = ler(conteudo, tamanhoBuffer, 1024);
+
+        // Assert
+        assertEquals(conteudo.lines().toList(), linhas);
+    }
+
+    @Test
+    void deveTruncarLinhaMaiorQueOLimiteSemPerderAsSeguintes() throws IOException {
+        // Act
+        List<String> linhas = ler("0123456789abcdef\nfim\n", 4, 8);
+
+        // Assert
+        assertEquals(List.of("01234567", "fim"), linhas);
+    }
+
+    @Test
+    void deveNumerarLinhasSequencialmente() throws IOException {
+        // Arrange
+        List<Long> numeros = new ArrayList<>();
+        InputStream entrada = new ByteArrayInputStream("a\nb\nc\n".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        long total = StreamLineReader.forEach(entrada, (buffer, inicio, fim, numero) -> numeros.add(numero));
+
+        // Assert
+        assertEquals(3, total);
+        assertEquals(List.of(1L, 2L, 3L), numeros);
+    }
+
+    private List<String> ler(String conteudo, int tamanhoBuffer, int limiteLinha) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        InputStream entrada = new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+        StreamLineReader.forEach(entrada, tamanhoBuffer, limiteLinha, (buffer, inicio, fim, numero) -> {
+            byte[] bytes = new byte[fim - inicio];
+            buffer.get(inicio, bytes);
+            linhas.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return linhas;
+    }
+}
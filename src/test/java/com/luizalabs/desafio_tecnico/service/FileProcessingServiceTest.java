@@ -1,20 +1,37 @@
 package com.luizalabs.desafio_tecnico.service;
 
+import com.luizalabs.desafio_tecnico.config.IngestProperties;
 import com.luizalabs.desafio_tecnico.dto.FileProcessingResultDTO;
 import com.luizalabs.desafio_tecnico.dto.OrderDTO;
 import com.luizalabs.desafio_tecnico.dto.ProductDTO;
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.parser.ErrorCode;
+import com.luizalabs.desafio_tecnico.parser.Field;
+import com.luizalabs.desafio_tecnico.parser.FieldRule;
+import com.luizalabs.desafio_tecnico.parser.FixedWidthOrderParser;
+import com.luizalabs.desafio_tecnico.parser.ValidationProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -218,10 +235,361 @@ class FileProcessingServiceTest {
         assertTrue(resultado.getErrors().get(0).contains("Linha 1: Linha muito curta (tamanho: 20, esperado: 95)."), "Deve ter erro de linha curta");
     }
 
+    @Test
+    void testarProcessamentoMapeadoIgualAoProcessamentoPorStream(@TempDir Path diretorio) throws IOException {
+        // Arrange
+        String conteudoTeste = conteudoMisto();
+        Path arquivo = diretorio.resolve("pedidos.txt");
+        Files.writeString(arquivo, conteudoTeste, StandardCharsets.UTF_8);
+        MockMultipartFile arquivoMock = new MockMultipartFile(
+                "arquivo",
+                "teste.txt",
+                "text/plain",
+                conteudoTeste.getBytes(StandardCharsets.UTF_8)
+        );
+
+        // Act
+        FileProcessingResultDTO esperado = fileProcessingService.processFile(arquivoMock);
+        FileProcessingResultDTO resultado = fileProcessingService.processPath(arquivo);
+
+        // Assert
+        assertEquals(esperado.getErrors(), resultado.getErrors(), "Erros devem ser idênticos");
+        assertEquals(resumir(esperado), resumir(resultado), "Usuários, pedidos e produtos devem ser idênticos");
+    }
+
+    @Test
+    void testarUploadGzipIgualAoArquivoSemCompressao(@TempDir Path diretorio) throws IOException {
+        // Arrange
+        String conteudoTeste = conteudoMisto().repeat(3);
+        byte[] compactado = gzip(conteudoTeste);
+        MockMultipartFile texto = new MockMultipartFile("arquivo", "teste.txt", "text/plain",
+                conteudoTeste.getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile arquivoGzip = new MockMultipartFile("arquivo", "teste.txt.gz", "application/gzip", compactado);
+        Path arquivo = diretorio.resolve("pedidos.txt.gz");
+        Files.write(arquivo, compactado);
+        IngestProgress progresso = new IngestProgress();
+
+        // Act
+        FileProcessingResultDTO esperado = fileProcessingService.processFile(texto);
+        FileProcessingResultDTO resultado = fileProcessingService.processFile(arquivoGzip);
+        FileProcessingResultDTO resultadoEmDisco = fileProcessingService.processPath(arquivo, progresso);
+
+        // Assert
+        assertEquals(esperado.getErrors(), resultado.getErrors(), "Erros devem ser idênticos");
+        assertEquals(resumir(esperado), resumir(resultado), "Usuários, pedidos e produtos devem ser idênticos");
+        assertEquals(resumir(esperado), resumir(resultadoEmDisco));
+        assertEquals(compactado.length, progresso.getBytesRead(), "Progresso deve contar os bytes compactados");
+        assertEquals(conteudoTeste.lines().count(), progresso.getLinesRead());
+    }
+
+    @Test
+    void testarUploadAcimaDoLimiteUsaProcessamentoMapeado() throws IOException {
+        // Arrange
+        IngestProperties propriedades = new IngestProperties();
+        propriedades.setMappedThreshold(DataSize.ofBytes(1));
+        FileProcessingService servicoMapeado = new FileProcessingService(propriedades);
+        String conteudoTeste = conteudoMisto();
+        MockMultipartFile arquivoMock = new MockMultipartFile(
+                "arquivo",
+                "teste.txt",
+                "text/plain",
+                conteudoTeste.getBytes(StandardCharsets.UTF_8)
+        );
+
+        // Act
+        FileProcessingResultDTO esperado = fileProcessingService.processFile(arquivoMock);
+        FileProcessingResultDTO resultado = servicoMapeado.processFile(arquivoMock);
+
+        // Assert
+        assertEquals(esperado.getErrors(), resultado.getErrors());
+        assertEquals(resumir(esperado), resumir(resultado));
+    }
+
+    @Test
+    void testarProcessamentoParaleloIgualAoSequencial(@TempDir Path diretorio) throws IOException {
+        // Arrange
+        IngestProperties propriedades = new IngestProperties();
+        propriedades.setParallelism(4);
+        propriedades.setParallelChunkSize(DataSize.ofBytes(500));
+        FileProcessingService servicoParalelo = new FileProcessingService(propriedades);
+
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            conteudo.append(conteudoMisto());
+            conteudo.append(formatarLinha(String.format("%010d", 100 + i % 7), "Cliente " + (i % 7),
+                    String.format("%010d", i % 5), String.format("%010d", i), "0000010.00", "20240101")).append("\n");
+        }
+        Path arquivo = diretorio.resolve("pedidos.txt");
+        Files.writeString(arquivo, conteudo, StandardCharsets.UTF_8);
+
+        // Act
+        FileProcessingResultDTO esperado = fileProcessingService.processPath(arquivo);
+        FileProcessingResultDTO resultado = servicoParalelo.processPath(arquivo);
+
+        // Assert
+        assertEquals(esperado.getErrors(), resultado.getErrors(), "Erros e números de linha devem ser idênticos");
+        assertEquals(resumir(esperado), resumir(resultado), "Agregado deve ser idêntico");
+        assertEquals(esperado.getUsers().stream().map(UserDTO::getId).toList(),
+                resultado.getUsers().stream().map(UserDTO::getId).toList(), "Ordem dos usuários deve ser a mesma");
+        servicoParalelo.shutdown();
+    }
+
+    @Test
+    void testarLimiteDeErrosComContadoresEArquivoDeErros(@TempDir Path diretorio) throws IOException {
+        // Arrange
+        IngestProperties propriedades = new IngestProperties();
+        propriedades.setParallelism(4);
+        propriedades.setParallelChunkSize(DataSize.ofBytes(500));
+        propriedades.setMaxErrors(3);
+        propriedades.setErrorDir(diretorio.resolve("erros"));
+        FileProcessingService servicoLimitado = new FileProcessingService(propriedades);
+
+        Path arquivo = diretorio.resolve("pedidos.txt");
+        Files.writeString(arquivo, conteudoMisto().repeat(20), StandardCharsets.UTF_8);
+
+        // Act
+        FileProcessingResultDTO completo = fileProcessingService.processPath(arquivo);
+        FileProcessingResultDTO resultado = servicoLimitado.processPath(arquivo);
+
+        // Assert
+        assertEquals(completo.getErrors().subList(0, 3), resultado.getErrors(), "Devem ficar só os primeiros erros");
+        assertEquals(completo.getErrors().size(), resultado.getErrorCount());
+        assertEquals(resultado.getErrorCount(),
+                resultado.getErrorCodes().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(20, resultado.getErrorCodes().get(ErrorCode.LINE_TOO_SHORT));
+        assertEquals(completo.getErrors(), Files.readAllLines(Path.of(resultado.getErrorFile()), StandardCharsets.UTF_8),
+                "Arquivo de erros deve ter todos os erros, na ordem das linhas");
+        try (var arquivos = Files.list(diretorio.resolve("erros"))) {
+            assertEquals(1, arquivos.count(), "Arquivos parciais dos trechos devem ser removidos");
+        }
+        servicoLimitado.shutdown();
+    }
+
+    @Test
+    void testarProcessamentoStreamingIgualAoProcessamentoCompleto() throws IOException {
+        // Arrange
+        MockMultipartFile arquivoMock = new MockMultipartFile(
+                "arquivo",
+                "teste.txt",
+                "text/plain",
+                conteudoMisto().getBytes(StandardCharsets.UTF_8)
+        );
+        List<UserDTO> usuarios = new ArrayList<>();
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        FileProcessingResultDTO esperado = fileProcessingService.processFile(arquivoMock);
+        fileProcessingService.processFileStreaming(arquivoMock, false, new IngestListener() {
+            @Override
+            public void onUser(UserDTO user) {
+                usuarios.add(user);
+            }
+
+            @Override
+            public void onError(String error) {
+                erros.add(error);
+            }
+        });
+
+        // Assert
+        FileProcessingResultDTO resultado = new FileProcessingResultDTO();
+        resultado.setUsers(usuarios);
+        assertEquals(esperado.getErrors(), erros);
+        assertEquals(resumir(esperado), resumir(resultado));
+    }
+
+    @Test
+    void testarProcessamentoStreamingAgrupadoEntregaCadaUsuarioAoFecharOGrupo() throws IOException {
+        // Arrange
+        String conteudoTeste =
+                formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000010.00", "20241215") + "\n" +
+                        formatarLinha("0000000001", "João Silva", "0000000002", "0000000002", "0000020.00", "20241215") + "\n" +
+                        formatarLinha("0000000002", "Maria Santos", "0000000003", "0000000003", "0000030.00", "20241216") + "\n" +
+                        formatarLinha("0000000002", "Maria Santos", "0000000003", "0000000004", "000003X.00", "20241216") + "\n" +
+                        formatarLinha("0000000002", "Maria Santos", "0000000003", "0000000005", "0000040.00", "20241216") + "\n" +
+                        formatarLinha("0000000001", "João Silva", "0000000009", "0000000006", "0000050.00", "20241217") + "\n" +
+                        formatarLinha("0000000003", "Ana Costa", "0000000004", "0000000007", "0000060.00", "20241218");
+        MockMultipartFile arquivoMock = new MockMultipartFile(
+                "arquivo",
+                "teste.txt",
+                "text/plain",
+                conteudoTeste.getBytes(StandardCharsets.UTF_8)
+        );
+        List<String> eventos = new ArrayList<>();
+
+        // Act
+        fileProcessingService.processFileStreaming(arquivoMock, true, new IngestListener() {
+            @Override
+            public void onUser(UserDTO user) {
+                int produtos = user.getOrders().stream().mapToInt(o -> o.getProducts().size()).sum();
+                eventos.add("usuario " + user.getId() + " (" + produtos + " produtos)");
+            }
+
+            @Override
+            public void onError(String error) {
+                eventos.add(error);
+            }
+        });
+
+        // Assert
+        assertEquals(List.of(
+                "usuario 1 (2 produtos)",
+                "Linha 4: Campo 'Valor' inválido:   000003X.00",
+                "usuario 2 (2 produtos)",
+                "Linha 6: Usuário 1 fora de ordem; o arquivo deve estar agrupado por usuário.",
+                "usuario 3 (1 produtos)"), eventos);
+    }
+
+    @Test
+    void deveAgruparArquivoForaDeOrdemComOrdenacaoExternaEmMemoriaLimitada(@TempDir Path diretorio) throws IOException {
+        // Arrange
+        IngestProperties propriedades = new IngestProperties();
+        propriedades.setSortMemoryBudget(DataSize.ofKilobytes(16));
+        propriedades.setSortDir(diretorio);
+        FileProcessingService servico = new FileProcessingService(propriedades);
+
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            conteudo.append(conteudoMisto());
+            for (int j = 0; j < 20; j++) {
+                int usuario = 100 + (i * 37 + j * 11) % 53;
+                conteudo.append(formatarLinha(String.format("%010d", usuario), "Cliente " + usuario,
+                        String.format("%010d", j % 3), String.format("%010d", i * 20 + j), "0000010.00", "20240101"))
+                        .append("\n");
+            }
+        }
+        MockMultipartFile arquivoMock = new MockMultipartFile(
+                "arquivo",
+                "teste.txt",
+                "text/plain",
+                conteudo.toString().getBytes(StandardCharsets.UTF_8)
+        );
+        List<UserDTO> usuarios = new ArrayList<>();
+        List<String> erros = new ArrayList<>();
+
+        // Act
+        FileProcessingResultDTO esperado = fileProcessingService.processFile(arquivoMock);
+        servico.processFileExternalSort(arquivoMock, new IngestListener() {
+            @Override
+            public void onUser(UserDTO user) {
+                usuarios.add(user);
+            }
+
+            @Override
+            public void onError(String error) {
+                erros.add(error);
+            }
+        });
+
+        // Assert
+        FileProcessingResultDTO resultado = new FileProcessingResultDTO();
+        resultado.setUsers(usuarios);
+        List<Long> ids = usuarios.stream().map(UserDTO::getId).toList();
+        assertEquals(esperado.getErrors(), erros, "Erros devem sair durante a leitura, na ordem do arquivo");
+        assertEquals(ids.stream().sorted().distinct().toList(), ids, "Cada usuário uma vez, em ordem de id");
+        assertEquals(resumir(esperado).stream().sorted().toList(), resumir(resultado).stream().sorted().toList(),
+                "Mesmos usuários, pedidos e produtos do processamento em memória");
+        try (var arquivos = Files.list(diretorio)) {
+            assertEquals(0, arquivos.count(), "Runs temporárias devem ser apagadas");
+        }
+        servico.shutdown();
+    }
+
+    @Test
+    void deveRegistrarMetricasDeIngestaoPorUploadEErrosPorCampo() throws IOException {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FileProcessingService servico = new FileProcessingService(new IngestProperties(), new IngestMetrics(registry));
+        MockMultipartFile arquivoMock = new MockMultipartFile(
+                "arquivo",
+                "teste.txt",
+                "text/plain",
+                conteudoMisto().getBytes(StandardCharsets.UTF_8)
+        );
+
+        // Act
+        FileProcessingResultDTO resultado = servico.processFile(arquivoMock);
+
+        // Assert
+        assertEquals(1, registry.get("ingest.upload").tag("source", "text").timer().count());
+        assertEquals(9, registry.get("ingest.lines").tag("source", "text").counter().count());
+        assertEquals(arquivoMock.getSize(), registry.get("ingest.bytes").counter().count());
+        double errosPorCampo = registry.get("ingest.parse.errors").counters().stream()
+                .mapToDouble(Counter::count).sum();
+        assertEquals(resultado.getErrorCount(), (long) errosPorCampo, "Cada erro deve ser contado no seu campo");
+        assertTrue(registry.get("ingest.parse.errors").tag("field", "VALUE").counter().count() > 0);
+        assertNotNull(registry.get("ingest.phase").tag("phase", "parse").timer());
+        assertNotNull(registry.get("ingest.phase").tag("phase", "aggregate").timer());
+        servico.shutdown();
+    }
+
+    @Test
+    void deveRegistrarErroInesperadoDaLinhaSemInterromperUpload() throws IOException {
+        // Arrange
+        FixedWidthOrderParser parser = new FixedWidthOrderParser(ValidationProfile.LEGACY, List.of(
+                FieldRule.of(Field.USER_ID, r -> {
+                    if (r.userId() == 2) {
+                        throw new IllegalStateException("regra quebrada");
+                    }
+                    return true;
+                })));
+        FileProcessingService servico = new FileProcessingService(new IngestProperties(),
+                new IngestMetrics(new SimpleMeterRegistry()), parser);
+        String conteudo = formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000010.00", "20241215") + "\n"
+                + formatarLinha("0000000002", "Maria Santos", "0000000002", "0000000002", "0000010.00", "20241215") + "\n"
+                + formatarLinha("0000000003", "Ana Souza", "0000000003", "0000000003", "0000010.00", "20241215");
+
+        try {
+            // Act
+            FileProcessingResultDTO resultado = servico.processFile(
+                    new MockMultipartFile("arquivo", "teste.txt", "text/plain", conteudo.getBytes(StandardCharsets.UTF_8)));
+
+            // Assert
+            assertEquals(List.of(1L, 3L), resultado.getUsers().stream().map(UserDTO::getId).toList());
+            assertEquals(List.of("Linha 2: Erro inesperado: regra quebrada"), resultado.getErrors());
+            assertEquals(Map.of(ErrorCode.UNEXPECTED, 1L), resultado.getErrorCodes());
+        } finally {
+            servico.shutdown();
+        }
+    }
+
+    private String conteudoMisto() {
+        return formatarLinha("0000000001", "João Silva", "0000000001", "0000000001", "0000123.45", "20241215") + "\r\n" +
+                formatarLinha("0000000002", "Maria Santos", "0000000002", "0000000002", "0000256,789", "20240230") + "\n" +
+                formatarLinha("000000ABC3", "Pedro Oliveira", "0000000003", "0000000003", "0000150.00", "20241217") + "\n" +
+                "   \n" +
+                formatarLinha("0000000001", "João Silva", "0000000001", "0000000004", "-0000010.00", "20241215") + "\n" +
+                formatarLinha("0000000004", "Ana Costa", "0000000004", "0000000004", "00001X0.00", "20241232") + "\n" +
+                formatarLinha("0000000006", "", "0000000006", "0000000006", "0000300.00", "20241219") + "\n" +
+                formatarLinha("0000000001", "João Silva", "0000000009", "0000000001", "0000001.00", "20230101") + "\n" +
+                "linha curta\n";
+    }
+
+    private List<String> resumir(FileProcessingResultDTO resultado) {
+        List<String> resumo = new ArrayList<>();
+        for (UserDTO usuario : resultado.getUsers()) {
+            for (OrderDTO pedido : usuario.getOrders()) {
+                for (ProductDTO produto : pedido.getProducts()) {
+                    resumo.add(usuario.getId() + "|" + usuario.getName() + "|" + pedido.getId() + "|" + pedido.getDate()
+                            + "|" + produto.getId() + "|" + produto.getPrice());
+                }
+            }
+        }
+        return resumo;
+    }
+
     // Método auxiliar para formatar linhas com tamanho exato de 95 caracteres
     private String formatarLinha(String userId, String nome, String orderId, String productId, String valor, String data) {
         String nomePreenchido = String.format("%-45s", nome); // Preenche com espaços até 45 caracteres
         String valorPreenchido = String.format("%12s", valor); // Preenche com espaços à esquerda até 12 caracteres
         return userId + nomePreenchido + orderId + productId + valorPreenchido + data;
     }
-}
\ No newline at end of file
+
+    private static byte[] gzip(String conteudo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(conteudo.getBytes(StandardCharsets.UTF_8));
+        }
+        return saida.toByteArray();
+    }
+}
@@ -0,0 +1,186 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.parser.FixedWidthOrderParser;
+import com.luizalabs.desafio_tecnico.parser.ParsedRecord;
+import com.luizalabs.desafio_tecnico.util.NameDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderAggregatorTest {
+
+    @Test
+    void deveAgruparProdutosPorUsuarioEPedidoNaOrdemDeAparicao() {
+        // Arrange
+        OrderAggregator agregador = new OrderAggregator();
+
+        // Act
+        agregador.add(linha(2, "Maria", 20, 1, "10.00"));
+        agregador.add(linha(1, "João", 10, 2, "5.00"));
+        agregador.add(linha(2, "Maria", 21, 3, "1.00"));
+        agregador.add(linha(2, "Outro Nome", 20, 4, "2.50"));
+
+        // Assert
+        List<UserDTO> usuarios = agregador.getUsers();
+        assertEquals(List.of(2L, 1L), usuarios.stream().map(UserDTO::getId).toList());
+        UserDTO maria = usuarios.get(0);
+        assertEquals("Maria", maria.getName(), "Nome da primeira aparição deve ser mantido");
+        assertEquals(List.of(20L, 21L), maria.getOrders().stream().map(OrderDTO::getId).toList());
+        assertEquals(2, maria.getOrders().get(0).getProducts().size());
+        assertSame(maria, maria.getOrders().get(0).getUser());
+    }
+
+    @Test
+    void deveCompartilharNomesRepetidosERespeitarLimiteDoDicionario() {
+        // Arrange
+        NameDictionary dicionario = new NameDictionary(2);
+        OrderAggregator agregador = new OrderAggregator(dicionario);
+
+        // Act
+        agregador.add(registro(1, "Ana Souza"));
+        agregador.add(registro(2, "Ana Souza"));
+        agregador.add(registro(3, "Bruno"));
+        agregador.add(registro(4, "Carla"));
+        agregador.add(registro(5, "Carla"));
+
+        // Assert
+        List<UserDTO> usuarios = agregador.getUsers();
+        assertEquals("Ana Souza", usuarios.get(0).getName());
+        assertSame(usuarios.get(0).getName(), usuarios.get(1).getName(), "Nome repetido deve reaproveitar a mesma String");
+        assertEquals("Carla", usuarios.get(3).getName());
+        assertNotSame(usuarios.get(3).getName(), usuarios.get(4).getName(), "Dicionário cheio não guarda nomes novos");
+        assertEquals(2, dicionario.size());
+    }
+
+    @Test
+    void deveManterPedidosSeparadosQuandoMesmoIdPertenceAUsuariosDiferentes() {
+        // Arrange
+        OrderAggregator agregador = new OrderAggregator();
+
+        // Act
+        agregador.add(linha(1, "João", 10, 1, "1.00"));
+        agregador.add(linha(2, "Maria", 10, 2, "2.00"));
+
+        // Assert
+        assertEquals(1, agregador.getUsers().get(0).getOrders().get(0).getProducts().size());
+        assertEquals(1, agregador.getUsers().get(1).getOrders().get(0).getProducts().size());
+    }
+
+    @Test
+    void deveSuportarUsuarioComMuitosPedidos() {
+        // Arrange
+        OrderAggregator agregador = new OrderAggregator();
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            agregador.add(linha(1, "Vendedor", i % 20_000, i, "1.00"));
+        }
+
+        // Assert
+        UserDTO vendedor = agregador.getUsers().get(0);
+        assertEquals(20_000, vendedor.getOrders().size());
+        assertEquals(0L, vendedor.getOrders().get(0).getId());
+        assertEquals(3, vendedor.getOrders().get(0).getProducts().size());
+        assertEquals(2, vendedor.getOrders().get(19_999).getProducts().size());
+    }
+
+    @Test
+    void deveJuntarAgregadosParciaisComoSeFossemSequenciais() {
+        // Arrange
+        OrderAggregator sequencial = new OrderAggregator();
+        OrderAggregator primeiro = new OrderAggregator();
+        OrderAggregator segundo = new OrderAggregator();
+        List<ParsedLine> linhas = List.of(
+                linha(1, "João", 10, 1, "1.00"),
+                linha(2, "Maria", 20, 2, "2.00"),
+                linha(1, "João", 11, 3, "3.00"),
+                linha(3, "Ana", 30, 4, "4.00"),
+                linha(1, "João", 10, 5, "5.00"),
+                linha(2, "Maria", 21, 6, "6.00"));
+        linhas.forEach(sequencial::add);
+        linhas.subList(0, 3).forEach(primeiro::add);
+        linhas.subList(3, 6).forEach(segundo::add);
+
+        // Act
+        primeiro.merge(segundo);
+
+        // Assert
+        assertEquals(resumir(sequencial), resumir(primeiro));
+    }
+
+    @Test
+    void deveManterTotaisDePedidoEUsuarioAtualizadosDuranteAgregacaoEJuncao() {
+        // Arrange
+        OrderAggregator primeiro = new OrderAggregator();
+        OrderAggregator segundo = new OrderAggregator();
+        primeiro.add(linha(1, "João", 10, 1, "10.50"));
+        primeiro.add(linha(1, "João", 11, 2, "1.25"));
+        OrderDTO pedido = primeiro.getUsers().get(0).getOrders().get(0);
+        assertEquals(new BigDecimal("10.50"), pedido.getTotal());
+        segundo.add(linha(1, "João", 10, 3, "0.255"));
+        segundo.add(linha(1, "João", 12, 5, "3.00"));
+
+        // Act
+        primeiro.add(linha(1, "João", 10, 4, "2.00"));
+        primeiro.merge(segundo);
+
+        // Assert
+        assertEquals(new BigDecimal("12.755"), pedido.getTotal());
+        UserDTO joao = primeiro.getUsers().get(0);
+        assertEquals(new BigDecimal("17.005"), joao.getTotal(), "Pedido novo da junção também entra no total");
+        joao.setOrders(new ArrayList<>(joao.getOrders().subList(0, 1)));
+        assertEquals(new BigDecimal("12.755"), joao.getTotal(), "Trocar a lista recalcula o total");
+    }
+
+    @Test
+    void deveRecalcularTotalQuandoListaDeProdutosETrocada() {
+        // Arrange
+        OrderAggregator agregador = new OrderAggregator();
+        agregador.add(linha(1, "João", 10, 1, "10.00"));
+        OrderDTO pedido = agregador.getUsers().get(0).getOrders().get(0);
+        assertEquals(new BigDecimal("10.00"), pedido.getTotal());
+
+        // Act
+        pedido.setProducts(new ArrayList<>(List.of(produto("3.00"))));
+        pedido.addProduct(produto("4.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("7.00"), pedido.getTotal());
+    }
+
+    private static ProductDTO produto(String valor) {
+        ProductDTO produto = new ProductDTO();
+        produto.setPrice(new BigDecimal(valor));
+        return produto;
+    }
+
+    private static ParsedLine linha(long userId, String nome, long orderId, long productId, String valor) {
+        return new ParsedLine(userId, nome, orderId, productId, new BigDecimal(valor), LocalDate.of(2024, 1, 1));
+    }
+
+    private static List<String> resumir(OrderAggregator agregador) {
+        return agregador.getUsers().stream()
+                .flatMap(u -> u.getOrders().stream()
+                        .flatMap(o -> o.getProducts().stream()
+                                .map(p -> u.getId() + "|" + o.getId() + "|" + p.getId() + "|" + (o.getUser() == u))))
+                .toList();
+    }
+
+    private static ParsedRecord registro(long userId, String nome) {
+        byte[] linha = String.format("%010d%-45s%010d%010d%12s%s", userId, nome, userId, userId, "1.00", "20240101")
+                .getBytes(StandardCharsets.UTF_8);
+        ParsedRecord registro = new ParsedRecord();
+        assertTrue(new FixedWidthOrderParser().parse(linha, 0, linha.length, 1, new ArrayList<>(), registro));
+        return registro;
+    }
+}
@@ -0,0 +1,219 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.config.PersistenceProperties;
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.model.Order;
+import com.luizalabs.desafio_tecnico.model.Product;
+import com.luizalabs.desafio_tecnico.model.User;
+import com.luizalabs.desafio_tecnico.repository.OrderRepository;
+import com.luizalabs.desafio_tecnico.repository.ProductsRepository;
+import com.luizalabs.desafio_tecnico.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({OrderPersistenceService.class, PersistenceProperties.class})
+@TestPropertySource(properties = {"app.persistence.enabled=true", "app.persistence.batch-size=7"})
+class OrderPersistenceServiceTest {
+
+    @Autowired
+    private OrderPersistenceService persistenceService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void deveGravarUploadEmLotesPreservandoRelacionamentos() {
+        // Arrange
+        List<UserDTO> usuarios = new ArrayList<>();
+        for (long u = 1; u <= 5; u++) {
+            UserDTO usuario = usuario(u, "Cliente " + u);
+            for (long o = 1; o <= 3; o++) {
+                OrderDTO pedido = pedido(usuario, u * 100 + o, "2024-01-0" + o);
+                for (long p = 1; p <= 2; p++) {
+                    pedido.getProducts().add(produto(u * 1000 + o * 10 + p, u + "." + o + p));
+                }
+            }
+            usuarios.add(usuario);
+        }
+
+        // Act
+        persistenceService.salvarUpload(usuarios, false);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(5, userRepository.count());
+        assertEquals(15, orderRepository.count());
+        assertEquals(30, productsRepository.count());
+
+        User cliente3 = userRepository.findAll().stream()
+                .filter(u -> u.getExternalId() == 3L).findFirst().orElseThrow();
+        assertEquals("Cliente 3", cliente3.getName());
+        List<Order> pedidos = cliente3.getOrders().stream().sorted(Comparator.comparing(Order::getExternalId)).toList();
+        assertEquals(List.of(301L, 302L, 303L), pedidos.stream().map(Order::getExternalId).toList());
+        assertEquals("2024-01-02", pedidos.get(1).getDate());
+        assertEquals(new BigDecimal("6.43"), pedidos.get(1).getTotal());
+        assertEquals(List.of(3021L, 3022L), pedidos.get(1).getProducts().stream()
+                .map(Product::getExternalId).sorted().toList());
+    }
+
+    @Test
+    void deveCompartilharSequenciasComOJpaSemColisaoDeIds() {
+        // Arrange
+        User usuario = new User();
+        usuario.setName("Via JPA");
+        usuario = userRepository.save(usuario);
+        Order pedidoJpa = new Order();
+        pedidoJpa.setDate("2024-01-01");
+        pedidoJpa.setUser(usuario);
+        pedidoJpa = orderRepository.saveAndFlush(pedidoJpa);
+
+        UserDTO usuarioLote = usuario(9L, "Via lote");
+        pedido(usuarioLote, 900L, "2024-01-01").getProducts().add(produto(9000L, "1.00"));
+
+        // Act
+        persistenceService.salvarUpload(List.of(usuarioLote), true);
+        Order pedidoJpaDepois = new Order();
+        pedidoJpaDepois.setDate("2024-01-02");
+        pedidoJpaDepois.setUser(usuario);
+        pedidoJpaDepois = orderRepository.saveAndFlush(pedidoJpaDepois);
+
+        // Assert
+        List<Long> ids = orderRepository.findAll().stream().map(Order::getId).toList();
+        assertEquals(3, ids.size());
+        assertEquals(3, ids.stream().distinct().count(), "Ids de pedidos não podem colidir: " + ids);
+        assertNotEquals(pedidoJpa.getId(), pedidoJpaDepois.getId());
+    }
+
+    @Test
+    void deveReaproveitarUsuarioJaGravadoEmUploadIncremental() {
+        // Arrange
+        UserDTO primeiro = usuario(7L, "Cliente 7");
+        pedido(primeiro, 701L, "2024-01-01").getProducts().add(produto(7011L, "1.00"));
+        UserDTO segundo = usuario(7L, "Cliente 7");
+        pedido(segundo, 702L, "2024-01-02").getProducts().add(produto(7021L, "2.00"));
+        UserDTO novo = usuario(8L, "Cliente 8");
+        pedido(novo, 801L, "2024-01-03").getProducts().add(produto(8011L, "3.00"));
+        persistenceService.salvarUpload(List.of(primeiro), false);
+
+        // Act
+        persistenceService.salvarUpload(List.of(segundo, novo), true);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(2, userRepository.count());
+        User cliente7 = userRepository.findAll().stream()
+                .filter(u -> u.getExternalId() == 7L).findFirst().orElseThrow();
+        assertEquals(List.of(701L, 702L), cliente7.getOrders().stream().map(Order::getExternalId).sorted().toList());
+        assertEquals(3, orderRepository.count());
+    }
+
+    @Test
+    void deveSubstituirPedidosGravadosAoReenviarOMesmoArquivo() {
+        // Arrange
+        persistenceService.salvarUpload(List.of(usuarioComPedido(1L, 101L, 1011L), usuarioComPedido(2L, 201L, 2011L)), false);
+        entityManager.clear();
+        User cliente1 = userRepository.findAll().stream()
+                .filter(u -> u.getExternalId() == 1L).findFirst().orElseThrow();
+
+        // Act
+        persistenceService.salvarUpload(List.of(usuarioComPedido(1L, 101L, 1011L), usuarioComPedido(2L, 201L, 2011L)), false);
+        persistenceService.salvarUpload(List.of(usuarioComPedido(1L, 101L, 1011L)), false);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, userRepository.count(), "Usuário fora do novo upload não tem mais pedidos");
+        assertEquals(1, orderRepository.count());
+        assertEquals(1, productsRepository.count());
+        assertEquals(cliente1.getId(), userRepository.findAll().get(0).getId(), "Usuário deve ser reaproveitado");
+    }
+
+    @Test
+    void deveAcrescentarProdutosAoPedidoJaGravadoEmUploadIncremental() {
+        // Arrange
+        persistenceService.salvarUpload(List.of(usuarioComPedido(1L, 101L, 1011L)), false);
+
+        // Act
+        persistenceService.salvarUpload(List.of(usuarioComPedido(1L, 101L, 1012L)), true);
+        persistenceService.salvarUpload(List.of(usuarioComPedido(1L, 102L, 1021L)), true);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, userRepository.count());
+        assertEquals(2, orderRepository.count(), "Pedido mesclado não pode virar outra linha");
+        assertEquals(3, productsRepository.count());
+        Order pedido = orderRepository.findAll().stream()
+                .filter(o -> o.getExternalId() == 101L).findFirst().orElseThrow();
+        assertEquals(List.of(1011L, 1012L), pedido.getProducts().stream().map(Product::getExternalId).sorted().toList());
+        assertEquals(new BigDecimal("2.00"), pedido.getTotal());
+    }
+
+    @Test
+    void deveRecusarUsuarioDuplicadoPorExternalId() {
+        // Arrange
+        User usuario = new User();
+        usuario.setExternalId(5L);
+        usuario.setName("Primeiro");
+        userRepository.saveAndFlush(usuario);
+        User duplicado = new User();
+        duplicado.setExternalId(5L);
+        duplicado.setName("Segundo");
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(duplicado));
+    }
+
+    private static UserDTO usuarioComPedido(long id, long pedidoId, long produtoId) {
+        UserDTO usuario = usuario(id, "Cliente " + id);
+        pedido(usuario, pedidoId, "2024-01-01").getProducts().add(produto(produtoId, "1.00"));
+        return usuario;
+    }
+
+    private static UserDTO usuario(long id, String nome) {
+        UserDTO usuario = new UserDTO();
+        usuario.setId(id);
+        usuario.setName(nome);
+        usuario.setOrders(new ArrayList<>());
+        return usuario;
+    }
+
+    private static OrderDTO pedido(UserDTO usuario, long id, String data) {
+        OrderDTO pedido = new OrderDTO();
+        pedido.setId(id);
+        pedido.setDate(data);
+        pedido.setUser(usuario);
+        pedido.setProducts(new ArrayList<>());
+        usuario.getOrders().add(pedido);
+        return pedido;
+    }
+
+    private static ProductDTO produto(long id, String valor) {
+        ProductDTO produto = new ProductDTO();
+        produto.setId(id);
+        produto.setPrice(new BigDecimal(valor));
+        return produto;
+    }
+}
@@ -1,17 +1,29 @@
 package com.luizalabs.desafio_tecnico.service;
 
+import com.luizalabs.desafio_tecnico.config.StoreProperties;
 import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
 import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.store.OrderSnapshot;
+import com.luizalabs.desafio_tecnico.store.Page;
+import com.luizalabs.desafio_tecnico.store.StoreLayout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -211,6 +223,51 @@ class OrderQueryServiceTest {
             assertEquals(1, resultado.get(0).getOrders().size());
             assertEquals(102L, resultado.get(0).getOrders().get(0).getId());
         }
+
+        @Test
+        @DisplayName("Deve retornar o mesmo ID de pedido em usuários diferentes")
+        void deveRetornarMesmoIdPedidoEmUsuariosDiferentes() {
+            List<UserDTO> usuarios = createTestUsers();
+            OrderDTO repetido = new OrderDTO();
+            repetido.setId(101L);
+            repetido.setDate("2024-05-05");
+            usuarios.get(2).getOrders().add(repetido);
+            orderQueryService.salvarPedidos(usuarios);
+
+            List<UserDTO> resultado = orderQueryService.consultarPedidos(
+                    Optional.of(101L),
+                    Optional.empty(),
+                    Optional.empty()
+            );
+
+            assertEquals(List.of("João Silva", "Ana Costa"), resultado.stream().map(UserDTO::getName).toList());
+            assertEquals("2024-05-05", resultado.get(1).getOrders().get(0).getDate());
+        }
+
+        @Test
+        @DisplayName("Deve manter a ordem do upload em consultas por intervalo de datas")
+        void deveManterOrdemDoUploadEmConsultaPorIntervalo() {
+            List<UserDTO> resultado = orderQueryService.consultarPedidos(
+                    Optional.empty(),
+                    Optional.of(LocalDate.of(2024, 1, 1)),
+                    Optional.of(LocalDate.of(2024, 12, 31))
+            );
+
+            assertEquals(List.of(1L, 2L, 3L), resultado.stream().map(UserDTO::getId).toList());
+            assertEquals(List.of(101L, 102L), resultado.get(0).getOrders().stream().map(OrderDTO::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Deve aceitar limites de data extremos")
+        void deveAceitarLimitesDeDataExtremos() {
+            List<UserDTO> resultado = orderQueryService.consultarPedidos(
+                    Optional.empty(),
+                    Optional.of(LocalDate.MIN),
+                    Optional.of(LocalDate.MAX)
+            );
+
+            assertEquals(3, resultado.size());
+        }
     }
 
     @Nested
@@ -242,6 +299,190 @@ class OrderQueryServiceTest {
             List<UserDTO> resultado = orderQueryService.buscarTodosUsuarios();
             assertTrue(resultado.isEmpty());
         }
+
+        @Test
+        @DisplayName("Deve trocar a versão dos dados a cada alteração")
+        void deveTrocarVersaoDosDadosACadaAlteracao() {
+            String inicial = orderQueryService.versaoDados();
+
+            orderQueryService.consultarPedidos(Optional.empty(), Optional.empty(), Optional.empty());
+            String aposConsulta = orderQueryService.versaoDados();
+            orderQueryService.salvarPedidos(new ArrayList<>());
+            String aposUpload = orderQueryService.versaoDados();
+            orderQueryService.limparDados();
+
+            assertEquals(inicial, aposConsulta, "Consulta não deve mudar a versão");
+            assertNotEquals(aposConsulta, aposUpload);
+            assertNotEquals(aposUpload, orderQueryService.versaoDados());
+            assertNotEquals(inicial, new OrderQueryService().versaoDados(), "Versão deve ser única por instância");
+        }
+
+        @Test
+        @DisplayName("Deve medir consultas por combinação de filtros e expor o tamanho do store")
+        void deveMedirConsultasPorFiltroEExporTamanhoDoStore() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            OrderQueryService servico = new OrderQueryService(StoreLayout.COLUMNAR, registry);
+            OrderAggregator agregador = new OrderAggregator();
+            agregador.add(linha(1, "João", 10, 1, "10.00", "2024-01-01"));
+            agregador.add(linha(1, "João", 10, 2, "5.00", "2024-01-01"));
+            agregador.add(linha(2, "Maria", 20, 3, "7.50", "2024-02-01"));
+            servico.salvarPedidos(agregador.getUsers());
+
+            servico.consultarPedidos(Optional.of(1L), Optional.empty(), Optional.empty());
+            servico.consultarPedidos(Optional.empty(), Optional.of(LocalDate.of(2024, 1, 1)), Optional.of(LocalDate.of(2024, 12, 31)));
+            servico.consultarPedidosPaginados(Optional.empty(), Optional.empty(), Optional.empty(), null, 10);
+            servico.buscarUsuariosOrdenados("name", "desc");
+
+            assertEquals(1, registry.get("orders.query").tags("filter", "orderId", "paged", "false").timer().count());
+            assertEquals(1, registry.get("orders.query").tags("filter", "dataInicio+dataFim", "paged", "false").timer().count());
+            assertEquals(1, registry.get("orders.query").tags("filter", "nenhum", "paged", "true").timer().count());
+            assertEquals(1, registry.get("users.query").tags("sort", "name-desc", "paged", "false").timer().count());
+            assertEquals(2, registry.get("store.users").tag("layout", "columnar").gauge().value());
+            assertEquals(2, registry.get("store.orders").gauge().value());
+            assertEquals(3, registry.get("store.products").gauge().value());
+            assertTrue(registry.get("store.estimated.bytes").gauge().value() > 0);
+            assertTrue(registry.get("store.index.bytes").gauge().value() > 0);
+
+            servico.limparDados();
+            assertEquals(0, registry.get("store.users").gauge().value(), "Gauge deve ler o snapshot publicado");
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes para o snapshot em arquivo")
+    class SnapshotEmArquivoTests {
+
+        @TempDir
+        Path diretorio;
+
+        @Test
+        @DisplayName("Deve gravar o store a cada upload e recarregá-lo ao reiniciar")
+        void deveGravarStoreACadaUploadERecarregarAoReiniciar() {
+            StoreProperties propriedades = new StoreProperties();
+            propriedades.setSnapshotFile(diretorio.resolve("pedidos.snap"));
+            OrderQueryService servico = new OrderQueryService(propriedades);
+            OrderAggregator agregador = new OrderAggregator();
+            agregador.add(linha(1, "João", 10, 1, "10.00", "2024-01-01"));
+            agregador.add(linha(2, "Maria", 20, 3, "7.50", "2024-02-01"));
+            servico.salvarPedidos(agregador.getUsers());
+            OrderAggregator incremental = new OrderAggregator();
+            incremental.add(linha(3, "Ana", 30, 4, "1.00", "2024-03-01"));
+            servico.mesclarPedidos(incremental.getUsers());
+            servico.encerrar();
+
+            OrderQueryService reiniciado = new OrderQueryService(propriedades);
+
+            assertEquals(List.of(1L, 2L, 3L), reiniciado.buscarTodosUsuarios().stream().map(UserDTO::getId).toList());
+            assertEquals(new BigDecimal("7.50"), reiniciado.buscarUsuarioPorId(2L).orElseThrow().getTotal());
+            assertEquals(1, reiniciado.consultarPedidos(Optional.empty(), Optional.of(LocalDate.of(2024, 3, 1)),
+                    Optional.empty()).size());
+            reiniciado.limparDados();
+            reiniciado.encerrar();
+            assertTrue(new OrderQueryService(propriedades).buscarTodosUsuarios().isEmpty(),
+                    "Limpeza também deve ser gravada");
+        }
+
+        @ParameterizedTest
+        @EnumSource(StoreLayout.class)
+        @DisplayName("Deve carregar o snapshot do arquivo no layout configurado")
+        void deveCarregarSnapshotNoLayoutConfigurado(StoreLayout layout) {
+            StoreProperties propriedades = new StoreProperties();
+            propriedades.setSnapshotFile(diretorio.resolve("pedidos.snap"));
+            OrderQueryService servico = new OrderQueryService(propriedades);
+            OrderAggregator agregador = new OrderAggregator();
+            agregador.add(linha(1, "João", 10, 1, "10.00", "2024-01-01"));
+            servico.salvarPedidos(agregador.getUsers());
+            servico.encerrar();
+
+            OrderSnapshot carregado = new StoreSnapshotPersistence(propriedades.getSnapshotFile(), false).load(layout);
+
+            assertEquals(1, carregado.orderCount());
+            assertEquals(new BigDecimal("10.00"), carregado.users().get(0).getTotal());
+            // só o layout heap guarda os DTOs; os layouts em colunas montam um DTO novo a cada consulta
+            assertEquals(layout == StoreLayout.HEAP, carregado.users().get(0) == carregado.users().get(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes para mesclarPedidos")
+    class MesclarPedidosTests {
+
+        @Test
+        @DisplayName("Deve mesclar usuários, pedidos e produtos por (userId, orderId)")
+        void deveMesclarUploadIncrementalPorUsuarioEPedido() {
+            // Arrange
+            OrderAggregator base = new OrderAggregator();
+            base.add(linha(1, "João", 10, 1, "10.00", "2024-01-01"));
+            base.add(linha(2, "Maria", 20, 2, "5.00", "2024-01-02"));
+            orderQueryService.salvarPedidos(base.getUsers());
+            UserDTO joaoAntes = orderQueryService.buscarUsuarioPorId(1L).orElseThrow();
+
+            OrderAggregator delta = new OrderAggregator();
+            delta.add(linha(1, "João", 10, 3, "2.50", "2024-01-01"));
+            delta.add(linha(1, "João", 11, 4, "1.00", "2024-01-03"));
+            delta.add(linha(3, "Ana", 30, 5, "7.00", "2024-01-04"));
+
+            // Act
+            orderQueryService.mesclarPedidos(delta.getUsers());
+
+            // Assert
+            List<UserDTO> usuarios = orderQueryService.buscarTodosUsuarios();
+            assertEquals(List.of(1L, 2L, 3L), usuarios.stream().map(UserDTO::getId).toList());
+            UserDTO joao = usuarios.get(0);
+            assertEquals(List.of(10L, 11L), joao.getOrders().stream().map(OrderDTO::getId).toList());
+            assertEquals(2, joao.getOrders().get(0).getProducts().size());
+            assertEquals(new BigDecimal("12.50"), joao.getOrders().get(0).getTotal());
+            assertEquals(new BigDecimal("13.50"), joao.getTotal());
+            assertEquals(1, orderQueryService.consultarPedidos(Optional.of(11L), Optional.empty(), Optional.empty()).size());
+            assertEquals(1, orderQueryService.consultarPedidos(Optional.empty(),
+                    Optional.of(LocalDate.of(2024, 1, 4)), Optional.empty()).size());
+
+            assertEquals(1, joaoAntes.getOrders().size(), "Snapshot anterior não deve ser alterado");
+            assertEquals(new BigDecimal("10.00"), joaoAntes.getTotal());
+        }
+
+        @Test
+        @DisplayName("Deve manter uploads incrementais em camada e compactar ao passar da fração configurada")
+        void deveCompactarCamadaIncrementalAoPassarDaFracao() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            OrderQueryService servico = new OrderQueryService(StoreLayout.COLUMNAR, registry);
+            OrderAggregator base = new OrderAggregator();
+            for (long u = 1; u <= 100; u++) {
+                base.add(linha(u, "Cliente " + u, u, u, "1.00", "2024-01-01"));
+            }
+            servico.salvarPedidos(base.getUsers());
+
+            for (long u = 101; u <= 110; u++) {
+                OrderAggregator incremental = new OrderAggregator();
+                incremental.add(linha(u, "Cliente " + u, u, u, "1.00", "2024-01-02"));
+                servico.mesclarPedidos(incremental.getUsers());
+            }
+
+            assertEquals(10, registry.get("store.appended.orders").gauge().value(), "10 de 110 pedidos: fica na camada");
+            assertEquals(110, registry.get("store.orders").gauge().value());
+            assertEquals(10, servico.consultarPedidos(Optional.empty(), Optional.of(LocalDate.of(2024, 1, 2)),
+                    Optional.empty()).size());
+
+            OrderAggregator incremental = new OrderAggregator();
+            incremental.add(linha(111, "Cliente 111", 111, 111, "1.00", "2024-01-02"));
+            incremental.add(linha(112, "Cliente 112", 112, 112, "1.00", "2024-01-02"));
+            servico.mesclarPedidos(incremental.getUsers());
+
+            assertEquals(0, registry.get("store.appended.orders").gauge().value(), "12 de 112 pedidos: compacta");
+            assertEquals(112, servico.buscarTodosUsuarios().size());
+            assertEquals(12, servico.consultarPedidos(Optional.empty(), Optional.of(LocalDate.of(2024, 1, 2)),
+                    Optional.empty()).size());
+        }
+
+        @Test
+        @DisplayName("Deve manter os dados atuais quando o upload incremental está vazio")
+        void deveManterDadosQuandoUploadIncrementalVazio() {
+            // Act
+            orderQueryService.mesclarPedidos(List.of());
+
+            // Assert
+            assertEquals(3, orderQueryService.buscarTodosUsuarios().size());
+        }
     }
 
     @Nested
@@ -389,6 +630,219 @@ class OrderQueryServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Testes de paginação")
+    class PaginacaoTests {
+
+        @BeforeEach
+        void salvarMuitosUsuarios() {
+            List<UserDTO> usuarios = new ArrayList<>();
+            for (long i = 0; i < 25; i++) {
+                UserDTO user = new UserDTO();
+                user.setId((i * 7) % 25);
+                user.setName("Cliente " + (char) ('A' + (i % 5)));
+                List<OrderDTO> pedidos = new ArrayList<>();
+                for (long j = 0; j < 3; j++) {
+                    OrderDTO pedido = new OrderDTO();
+                    pedido.setId(i * 10 + j);
+                    pedido.setDate(LocalDate.of(2024, 1, 1).plusDays((i * 3 + j * 11) % 40).toString());
+                    pedidos.add(pedido);
+                }
+                user.setOrders(pedidos);
+                usuarios.add(user);
+            }
+            orderQueryService.salvarPedidos(usuarios);
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.luizalabs.desafio_tecnico.service.OrderQueryServiceTest#ordenacoes")
+        @DisplayName("Páginas de usuários devem reproduzir a listagem completa")
+        void paginasDeUsuariosDevemReproduzirListagemCompleta(String orderBy, String direction) {
+            List<UserDTO> esperado = orderQueryService.buscarUsuariosOrdenados(orderBy, direction);
+
+            List<UserDTO> paginado = new ArrayList<>();
+            String cursor = null;
+            do {
+                Page<UserDTO> pagina = orderQueryService.buscarUsuariosPaginados(orderBy, direction, cursor, 4);
+                assertTrue(pagina.items().size() <= 4);
+                paginado.addAll(pagina.items());
+                cursor = pagina.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(esperado, paginado);
+        }
+
+        @Test
+        @DisplayName("Ordem decrescente por nome deve manter empates em ordem crescente de id")
+        void ordemDecrescentePorNomeDeveManterEmpatesEmOrdemCrescenteDeId() {
+            List<UserDTO> resultado = orderQueryService.buscarUsuariosOrdenados("name", "desc");
+
+            List<String> nomes = resultado.stream().map(UserDTO::getName).toList();
+            assertEquals(nomes.stream().sorted(Comparator.reverseOrder()).toList(), nomes);
+            for (int i = 1; i < resultado.size(); i++) {
+                if (resultado.get(i).getName().equals(resultado.get(i - 1).getName())) {
+                    assertTrue(resultado.get(i).getId() > resultado.get(i - 1).getId(),
+                            "Empate no nome deve seguir o id crescente: " + resultado.get(i).getName());
+                }
+            }
+            assertEquals(List.of(3L, 8L, 13L, 18L, 23L), resultado.subList(0, 5).stream().map(UserDTO::getId).toList());
+        }
+
+        @Test
+        @DisplayName("Páginas de pedidos devem reproduzir a consulta completa")
+        void paginasDePedidosDevemReproduzirConsultaCompleta() {
+            List<Long> esperado = idsPedidos(orderQueryService.consultarPedidos(
+                    Optional.empty(), Optional.empty(), Optional.empty()));
+
+            List<Long> paginado = new ArrayList<>();
+            String cursor = null;
+            do {
+                Page<UserDTO> pagina = orderQueryService.consultarPedidosPaginados(
+                        Optional.empty(), Optional.empty(), Optional.empty(), cursor, 7);
+                paginado.addAll(idsPedidos(pagina.items()));
+                cursor = pagina.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(esperado, paginado);
+        }
+
+        @Test
+        @DisplayName("Páginas com filtro de data devem seguir a ordem de data")
+        void paginasComFiltroDeDataDevemSeguirOrdemDeData() {
+            Optional<LocalDate> inicio = Optional.of(LocalDate.of(2024, 1, 10));
+            Optional<LocalDate> fim = Optional.of(LocalDate.of(2024, 1, 20));
+            List<UserDTO> completo = orderQueryService.consultarPedidos(Optional.empty(), inicio, fim);
+
+            List<OrderDTO> paginado = new ArrayList<>();
+            String ultimaData = "";
+            String cursor = null;
+            do {
+                Page<UserDTO> pagina = orderQueryService.consultarPedidosPaginados(Optional.empty(), inicio, fim, cursor, 5);
+                List<String> datas = pagina.items().stream()
+                        .flatMap(u -> u.getOrders().stream()).map(OrderDTO::getDate).sorted().toList();
+                assertTrue(datas.get(0).compareTo(ultimaData) >= 0, "Página anterior deve ter só datas menores ou iguais");
+                ultimaData = datas.get(datas.size() - 1);
+                pagina.items().forEach(u -> paginado.addAll(u.getOrders()));
+                cursor = pagina.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(idsPedidos(completo).stream().sorted().toList(),
+                    paginado.stream().map(OrderDTO::getId).sorted().toList());
+        }
+
+        @Test
+        @DisplayName("Página com filtro de data deve agrupar os pedidos de cada usuário")
+        void paginaComFiltroDeDataDeveAgruparPedidosDeCadaUsuario() {
+            UserDTO primeiro = usuarioComPedidos(1L, "João", pedidoEm(10L, "2021-01-01"), pedidoEm(11L, "2021-01-03"));
+            UserDTO segundo = usuarioComPedidos(2L, "Maria", pedidoEm(20L, "2021-01-02"));
+            orderQueryService.salvarPedidos(List.of(primeiro, segundo));
+
+            Page<UserDTO> pagina = orderQueryService.consultarPedidosPaginados(
+                    Optional.empty(), Optional.of(LocalDate.of(2021, 1, 1)), Optional.empty(), null, 10);
+
+            assertEquals(List.of(1L, 2L), pagina.items().stream().map(UserDTO::getId).toList());
+            assertEquals(List.of(10L, 11L), pagina.items().get(0).getOrders().stream().map(OrderDTO::getId).toList());
+            assertEquals(List.of(20L), pagina.items().get(1).getOrders().stream().map(OrderDTO::getId).toList());
+            assertNull(pagina.nextCursor());
+        }
+
+        private UserDTO usuarioComPedidos(long id, String nome, OrderDTO... pedidos) {
+            UserDTO usuario = new UserDTO();
+            usuario.setId(id);
+            usuario.setName(nome);
+            usuario.setOrders(new ArrayList<>(List.of(pedidos)));
+            return usuario;
+        }
+
+        private OrderDTO pedidoEm(long id, String data) {
+            OrderDTO pedido = new OrderDTO();
+            pedido.setId(id);
+            pedido.setDate(data);
+            return pedido;
+        }
+
+        @Test
+        @DisplayName("Deve rejeitar cursor inválido")
+        void deveRejeitarCursorInvalido() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> orderQueryService.buscarUsuariosPaginados("id", "asc", "não é cursor", 10));
+            String cursorDePedidos = orderQueryService.consultarPedidosPaginados(
+                    Optional.empty(), Optional.empty(), Optional.empty(), null, 1).nextCursor();
+            assertThrows(IllegalArgumentException.class,
+                    () -> orderQueryService.buscarUsuariosPaginados("id", "asc", cursorDePedidos, 10));
+        }
+
+        private List<Long> idsPedidos(List<UserDTO> usuarios) {
+            return usuarios.stream().flatMap(u -> u.getOrders().stream()).map(OrderDTO::getId).toList();
+        }
+    }
+
+    static Stream<Arguments> ordenacoes() {
+        return Stream.of(
+                Arguments.of("id", "asc"),
+                Arguments.of("id", "desc"),
+                Arguments.of("name", "asc"),
+                Arguments.of("name", "desc"));
+    }
+
+    @Nested
+    @DisplayName("Testes de concorrência")
+    class ConcorrenciaTests {
+
+        @Test
+        @DisplayName("Leitores devem sempre ver um upload completo enquanto outro é salvo")
+        void leitoresDevemVerUploadCompletoDuranteEscrita() throws Exception {
+            List<UserDTO> uploadPequeno = createTestUsers();
+            List<UserDTO> uploadGrande = new ArrayList<>();
+            for (long i = 0; i < 1_000; i++) {
+                UserDTO user = new UserDTO();
+                user.setId(i);
+                user.setName("Usuário " + i);
+                user.setOrders(new ArrayList<>());
+                uploadGrande.add(user);
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            AtomicBoolean executando = new AtomicBoolean(true);
+            try {
+                Future<?> escritor = executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        orderQueryService.salvarPedidos(i % 2 == 0 ? uploadGrande : uploadPequeno);
+                    }
+                    executando.set(false);
+                });
+                List<Future<?>> leitores = new ArrayList<>();
+                for (int r = 0; r < 3; r++) {
+                    leitores.add(executor.submit(() -> {
+                        while (executando.get()) {
+                            int total = orderQueryService.buscarUsuariosOrdenados("name", "asc").size();
+                            assertTrue(total == 3 || total == 1_000, "Leitura parcial: " + total);
+                            orderQueryService.consultarPedidos(Optional.empty(), Optional.empty(), Optional.empty());
+                        }
+                    }));
+                }
+
+                escritor.get(30, TimeUnit.SECONDS);
+                for (Future<?> leitor : leitores) {
+                    leitor.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Alterar a lista salva não deve afetar os dados publicados")
+        void alteracaoNaListaOriginalNaoDeveAfetarDadosPublicados() {
+            List<UserDTO> novosPedidos = createTestUsers();
+            orderQueryService.salvarPedidos(novosPedidos);
+
+            novosPedidos.clear();
+
+            assertEquals(3, orderQueryService.buscarTodosUsuarios().size());
+        }
+    }
+
     @Nested
     @DisplayName("Testes de Integração")
     class TestesIntegracao {
@@ -418,4 +872,8 @@ class OrderQueryServiceTest {
             assertTrue(orderQueryService.buscarTodosUsuarios().isEmpty());
         }
     }
-}
\ No newline at end of file
+
+    private static ParsedLine linha(long userId, String nome, long orderId, long productId, String valor, String data) {
+        return new ParsedLine(userId, nome, orderId, productId, new BigDecimal(valor), LocalDate.parse(data));
+    }
+}
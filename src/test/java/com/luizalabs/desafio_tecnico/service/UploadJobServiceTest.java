@@ -0,0 +1,231 @@
+package com.luizalabs.desafio_tecnico.service;
+
+import com.luizalabs.desafio_tecnico.config.JobProperties;
+import com.luizalabs.desafio_tecnico.dto.FileProcessingResultDTO;
+import com.luizalabs.desafio_tecnico.dto.UploadJobDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.exceptions.JobNotFoundException;
+import com.luizalabs.desafio_tecnico.store.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UploadJobServiceTest {
+
+    private FileProcessingService processingService;
+    private OrderQueryService queryService;
+    private UploadJobService jobService;
+
+    @BeforeEach
+    void configurar() {
+        processingService = new FileProcessingService();
+        queryService = new OrderQueryService();
+        jobService = new UploadJobService(processingService, queryService, semPersistencia(), new JobProperties());
+    }
+
+    @AfterEach
+    void encerrar() {
+        jobService.shutdown();
+        processingService.shutdown();
+    }
+
+    @Test
+    void deveProcessarUploadEmSegundoPlanoEPaginarResultado() throws Exception {
+        // Arrange
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            conteudo.append(formatarLinha(i, "Cliente " + i)).append("\n");
+        }
+        conteudo.append("linha inválida\n");
+
+        // Act
+        UploadJobDTO aceito = jobService.submeter(arquivo(conteudo.toString()), false);
+        UploadJobDTO concluido = aguardar(aceito.getId());
+
+        // Assert
+        assertEquals(UploadJobDTO.Status.DONE, concluido.getStatus());
+        assertEquals(6, concluido.getLinesRead());
+        assertEquals(1, concluido.getErrorCount());
+        assertEquals(5, concluido.getUserCount());
+        assertEquals(concluido.getTotalBytes(), concluido.getBytesRead());
+
+        Page<UserDTO> primeira = jobService.buscarUsuarios(aceito.getId(), null, 3);
+        Page<UserDTO> segunda = jobService.buscarUsuarios(aceito.getId(), primeira.nextCursor(), 3);
+        assertEquals(List.of(1L, 2L, 3L), primeira.items().stream().map(UserDTO::getId).toList());
+        assertEquals(List.of(4L, 5L), segunda.items().stream().map(UserDTO::getId).toList());
+        assertNull(segunda.nextCursor());
+        assertEquals(1, jobService.buscarErros(aceito.getId(), null, 10).items().size());
+        assertEquals(5, queryService.buscarTodosUsuarios().size(), "Resultado deve ficar disponível para consulta");
+    }
+
+    @Test
+    void deveManterResultadoEmDiscoEApagarAoDescartarJob(@TempDir Path diretorio) throws Exception {
+        // Arrange
+        JobProperties propriedades = new JobProperties();
+        propriedades.setRetained(1);
+        propriedades.setDir(diretorio.toString());
+        UploadJobService servico = new UploadJobService(processingService, queryService, semPersistencia(), propriedades);
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 1; i <= 600; i++) {
+            conteudo.append(formatarLinha(i, "Cliente " + i)).append("\n");
+        }
+
+        try {
+            // Act
+            String id = aguardar(servico, servico.submeter(arquivo(conteudo.toString()), false).getId()).getId();
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+            do {
+                Page<UserDTO> pagina = servico.buscarUsuarios(id, cursor, 100);
+                pagina.items().forEach(u -> ids.add(u.getId()));
+                cursor = pagina.nextCursor();
+            } while (cursor != null);
+            Page<UserDTO> meio = servico.buscarUsuarios(id, servico.buscarUsuarios(id, null, 300).nextCursor(), 2);
+            List<Path> arquivos = arquivos(diretorio);
+
+            // Assert
+            assertEquals(LongStream.rangeClosed(1, 600).boxed().toList(), ids);
+            assertEquals(List.of(301L, 302L), meio.items().stream().map(UserDTO::getId).toList());
+            assertEquals("Cliente 301", meio.items().get(0).getName());
+            assertEquals(new BigDecimal("10.00"), meio.items().get(0).getOrders().get(0).getTotal());
+            assertTrue(arquivos.stream().anyMatch(a -> a.endsWith("users.ndjson")), "Usuários devem ficar em disco");
+            assertTrue(arquivos.stream().noneMatch(a -> a.endsWith("upload.txt")), "Arquivo enviado deve ser apagado");
+
+            aguardar(servico, servico.submeter(arquivo(formatarLinha(1, "A")), false).getId());
+            assertThrows(JobNotFoundException.class, () -> servico.buscarUsuarios(id, null, 10));
+            assertEquals(2, arquivos(diretorio).size(), "Só o resultado do job mantido deve ficar em disco");
+        } finally {
+            servico.shutdown();
+        }
+        assertTrue(arquivos(diretorio).isEmpty(), "Resultados devem ser apagados no encerramento");
+    }
+
+    @ParameterizedTest(name = "virtual threads: {0}")
+    @ValueSource(booleans = {false, true})
+    void deveRecusarUploadQuandoFilaEstiverCheia(boolean virtualThreads) throws Exception {
+        // Arrange
+        CountDownLatch liberar = new CountDownLatch(1);
+        FileProcessingService bloqueado = new FileProcessingService() {
+            @Override
+            public FileProcessingResultDTO processPath(Path path, IngestProgress progress) throws IOException {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.processPath(path, progress);
+            }
+        };
+        JobProperties propriedades = new JobProperties();
+        propriedades.setConcurrency(1);
+        propriedades.setQueueCapacity(1);
+        UploadJobService limitado = new UploadJobService(bloqueado, queryService, semPersistencia(), propriedades, virtualThreads);
+
+        try {
+            // Act
+            List<UploadJobDTO> aceitos = new ArrayList<>();
+            aceitos.add(limitado.submeter(arquivo(formatarLinha(1, "A")), false));
+            aceitos.add(limitado.submeter(arquivo(formatarLinha(2, "B")), false));
+
+            // Assert
+            assertEquals(UploadJobDTO.Status.QUEUED, limitado.consultar(aceitos.get(1).getId()).getStatus());
+            assertThrows(RejectedExecutionException.class,
+                    () -> limitado.submeter(arquivo(formatarLinha(3, "C")), false));
+            liberar.countDown();
+            for (UploadJobDTO aceito : aceitos) {
+                assertEquals(UploadJobDTO.Status.DONE, aguardar(limitado, aceito.getId()).getStatus());
+            }
+        } finally {
+            liberar.countDown();
+            limitado.shutdown();
+            bloqueado.shutdown();
+        }
+    }
+
+    @Test
+    void deveMarcarJobComoFalhoQuandoProcessamentoLancaError() throws Exception {
+        // Arrange
+        FileProcessingService semMemoria = new FileProcessingService() {
+            @Override
+            public FileProcessingResultDTO processPath(Path path, IngestProgress progress) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        };
+        UploadJobService servico = new UploadJobService(semMemoria, queryService, semPersistencia(), new JobProperties());
+
+        try {
+            // Act
+            UploadJobDTO falho = aguardar(servico, servico.submeter(arquivo(formatarLinha(1, "A")), false).getId());
+            UploadJobDTO seguinte = aguardar(servico, servico.submeter(arquivo(formatarLinha(2, "B")), false).getId());
+
+            // Assert
+            assertEquals(UploadJobDTO.Status.FAILED, falho.getStatus());
+            assertEquals("java.lang.OutOfMemoryError: Java heap space", falho.getError());
+            assertEquals(UploadJobDTO.Status.FAILED, seguinte.getStatus(), "Fila deve continuar andando");
+        } finally {
+            servico.shutdown();
+            semMemoria.shutdown();
+        }
+    }
+
+    @Test
+    void deveLancarExcecaoParaJobInexistente() {
+        // Act & Assert
+        assertThrows(JobNotFoundException.class, () -> jobService.consultar("inexistente"));
+    }
+
+    private UploadJobDTO aguardar(String id) throws InterruptedException {
+        return aguardar(jobService, id);
+    }
+
+    private static UploadJobDTO aguardar(UploadJobService servico, String id) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        UploadJobDTO job = servico.consultar(id);
+        while ((job.getStatus() == UploadJobDTO.Status.QUEUED || job.getStatus() == UploadJobDTO.Status.RUNNING)
+                && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            job = servico.consultar(id);
+        }
+        return job;
+    }
+
+    private static List<Path> arquivos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            return arquivos.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<OrderPersistenceService> semPersistencia() {
+        return mock(ObjectProvider.class);
+    }
+
+    private static MockMultipartFile arquivo(String conteudo) {
+        return new MockMultipartFile("file", "pedidos.txt", "text/plain", conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String formatarLinha(long userId, String nome) {
+        return String.format("%010d%-45s%010d%010d%12s%s", userId, nome, userId * 10, userId * 100, "10.00", "20240101");
+    }
+}
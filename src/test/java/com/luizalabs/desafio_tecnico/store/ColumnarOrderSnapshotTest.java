@@ -0,0 +1,121 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.service.OrderAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarOrderSnapshotTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private List<UserDTO> users;
+    private OrderSnapshot heap;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        OrderAggregator agregador = new OrderAggregator();
+        String[] nomes = {"Ana", "Bruno", "Carla", "Ana"};
+        String[] valores = {"10.00", "0.255", "1234.5", "7", "99999999999999999999.99"};
+        for (int i = 0; i < 2_000; i++) {
+            long userId = random.nextInt(150);
+            agregador.add(new ParsedLine(userId, nomes[(int) (userId % nomes.length)], (long) random.nextInt(400),
+                    (long) i, new BigDecimal(valores[random.nextInt(valores.length)]),
+                    LocalDate.of(2021, 1, 1).plusDays(random.nextInt(1_000))));
+        }
+        users = agregador.getUsers();
+        heap = OrderSnapshot.of(users, StoreLayout.HEAP);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StoreLayout.class, names = {"COLUMNAR", "OFF_HEAP"})
+    void deveRetornarOsMesmosUsuariosQueOLayoutHeap(StoreLayout layout) throws Exception {
+        // Arrange
+        OrderSnapshot columnar = OrderSnapshot.of(users, layout);
+
+        // Act / Assert
+        assertJsonEquals(heap.users(), columnar.users());
+        assertJsonEquals(heap.usersSorted(true, false), columnar.usersSorted(true, false));
+        assertJsonEquals(heap.usersSorted(false, true), columnar.usersSorted(false, true));
+        assertJsonEquals(heap.findUser(42L).orElseThrow(), columnar.findUser(42L).orElseThrow());
+        assertTrue(columnar.findUser(999L).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StoreLayout.class, names = {"COLUMNAR", "OFF_HEAP"})
+    void deveFiltrarPedidosComoOLayoutHeap(StoreLayout layout) throws Exception {
+        // Arrange
+        OrderSnapshot columnar = OrderSnapshot.of(users, layout);
+        List<Optional<Long>> ids = List.of(Optional.empty(), Optional.of(7L), Optional.of(1_000L));
+        List<Optional<LocalDate>> datas = List.of(Optional.empty(), Optional.of(LocalDate.of(2022, 3, 1)));
+
+        // Act / Assert
+        for (Optional<Long> id : ids) {
+            for (Optional<LocalDate> de : datas) {
+                for (Optional<LocalDate> ate : datas) {
+                    assertJsonEquals(heap.findOrders(id, de, ate), columnar.findOrders(id, de, ate));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StoreLayout.class, names = {"COLUMNAR", "OFF_HEAP"})
+    void devePaginarComOsMesmosCursoresDoLayoutHeap(StoreLayout layout) throws Exception {
+        // Arrange
+        OrderSnapshot columnar = OrderSnapshot.of(users, layout);
+        Optional<LocalDate> de = Optional.of(LocalDate.of(2022, 1, 1));
+        List<Page<UserDTO>> paginasHeap = new ArrayList<>();
+        List<Page<UserDTO>> paginasColunas = new ArrayList<>();
+
+        // Act
+        String cursor = null;
+        do {
+            Page<UserDTO> pagina = heap.findOrdersPage(Optional.empty(), de, Optional.empty(), cursor, 97);
+            paginasHeap.add(pagina);
+            paginasColunas.add(columnar.findOrdersPage(Optional.empty(), de, Optional.empty(), cursor, 97));
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+        Page<UserDTO> usuariosHeap = heap.usersPage(true, true, null, 10);
+        Page<UserDTO> usuariosColunas = columnar.usersPage(true, true, usuariosHeap.nextCursor(), 10);
+
+        // Assert
+        assertJsonEquals(paginasHeap, paginasColunas);
+        assertJsonEquals(heap.usersPage(true, true, usuariosHeap.nextCursor(), 10), usuariosColunas);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StoreLayout.class, names = {"COLUMNAR", "OFF_HEAP"})
+    void deveManterPrecoComEscalaOriginalETotais(StoreLayout layout) {
+        // Arrange
+        OrderSnapshot columnar = OrderSnapshot.of(users, layout);
+
+        // Act
+        UserDTO usuario = columnar.users().get(0);
+
+        // Assert
+        UserDTO original = heap.users().get(0);
+        assertEquals(original.getTotal(), usuario.getTotal());
+        assertEquals(original.getOrders().get(0).getProducts().get(0).getPrice(),
+                usuario.getOrders().get(0).getProducts().get(0).getPrice());
+        assertEquals(original.getOrders().get(0).getDate(), usuario.getOrders().get(0).getDate());
+        assertSame(usuario, usuario.getOrders().get(0).getUser());
+    }
+
+    private void assertJsonEquals(Object esperado, Object atual) throws Exception {
+        assertEquals(mapper.writeValueAsString(esperado), mapper.writeValueAsString(atual));
+    }
+}
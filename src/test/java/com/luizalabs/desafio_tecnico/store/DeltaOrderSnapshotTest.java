@@ -0,0 +1,231 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.service.OrderAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaOrderSnapshotTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(StoreLayout.class)
+    void deveResponderComoOSnapshotRemontadoComOsMesmosCursores(StoreLayout layout) throws Exception {
+        // Arrange
+        List<ParsedLine> inicial = linhas(new Random(42), 2_000, 150);
+        List<ParsedLine> primeiro = linhas(new Random(7), 60, 200);
+        List<ParsedLine> segundo = linhas(new Random(9), 60, 220);
+        List<ParsedLine> todas = new ArrayList<>(inicial);
+        todas.addAll(primeiro);
+        todas.addAll(segundo);
+        OrderSnapshot remontado = OrderSnapshot.of(agregar(todas), StoreLayout.HEAP);
+
+        // Act
+        OrderSnapshot camada = OrderSnapshot.of(agregar(inicial), layout)
+                .append(agregar(primeiro))
+                .append(agregar(segundo));
+
+        // Assert
+        assertInstanceOf(DeltaOrderSnapshot.class, camada);
+        assertEquals(remontado.userCount(), camada.userCount());
+        assertEquals(remontado.orderCount(), camada.orderCount());
+        assertEquals(remontado.productCount(), camada.productCount());
+        assertJsonEquals(remontado.users(), camada.users());
+        for (boolean porNome : new boolean[]{false, true}) {
+            for (boolean decrescente : new boolean[]{false, true}) {
+                assertJsonEquals(remontado.usersSorted(porNome, decrescente), camada.usersSorted(porNome, decrescente));
+                assertJsonEquals(paginasDeUsuarios(remontado, porNome, decrescente),
+                        paginasDeUsuarios(camada, porNome, decrescente));
+            }
+        }
+        for (long id : new long[]{3, 149, 180, 219, 999}) {
+            assertJsonEquals(remontado.findUser(id).orElse(null), camada.findUser(id).orElse(null));
+        }
+        List<Optional<Long>> ids = List.of(Optional.empty(), Optional.of(7L), Optional.of(401L));
+        List<Optional<LocalDate>> datas = List.of(Optional.empty(), Optional.of(LocalDate.of(2022, 3, 1)));
+        for (Optional<Long> id : ids) {
+            for (Optional<LocalDate> de : datas) {
+                for (Optional<LocalDate> ate : datas) {
+                    assertJsonEquals(remontado.findOrders(id, de, ate), camada.findOrders(id, de, ate));
+                    assertJsonEquals(paginasDePedidos(remontado, id, de, ate), paginasDePedidos(camada, id, de, ate));
+                }
+            }
+        }
+        assertJsonEquals(remontado.users(), OrderSnapshot.of(camada.users(), layout).users());
+    }
+
+    @Test
+    void naoDeveMaterializarUsuariosQueOUploadNaoToca() {
+        // Arrange
+        List<UserDTO> usuarios = agregar(linhas(new Random(42), 2_000, 150));
+        ColunaContada produtos = new ColunaContada(2_000);
+        OrderSnapshot base = colunar(usuarios, produtos);
+        UserDTO tocado = usuarios.get(5);
+        int produtosDoTocado = tocado.getOrders().stream().mapToInt(o -> o.getProducts().size()).sum();
+        long pedidoExistente = tocado.getOrders().get(0).getId();
+        OrderAggregator upload = new OrderAggregator();
+        upload.add(new ParsedLine(tocado.getId(), tocado.getName(), pedidoExistente, 9_001L,
+                new BigDecimal("1.00"), LocalDate.of(2024, 1, 1)));
+        upload.add(new ParsedLine(tocado.getId(), tocado.getName(), 9_999L, 9_002L,
+                new BigDecimal("2.00"), LocalDate.of(2024, 1, 2)));
+        upload.add(new ParsedLine(5_000L, "Nova", 9_998L, 9_003L, new BigDecimal("3.00"), LocalDate.of(2024, 1, 3)));
+        produtos.leituras = 0;
+
+        // Act
+        OrderSnapshot camada = base.append(upload.getUsers());
+
+        // Assert
+        assertEquals(produtosDoTocado, produtos.leituras, "Só os produtos do usuário tocado podem ser lidos");
+        assertEquals(tocado.getOrders().size() + 2, camada.appendedOrders());
+        assertEquals(base.orderCount() + 2, camada.orderCount());
+        UserDTO mesclado = camada.findUser(tocado.getId()).orElseThrow();
+        assertEquals(tocado.getOrders().get(0).getProducts().size() + 1, mesclado.getOrders().get(0).getProducts().size());
+        assertEquals(9_999L, mesclado.getOrders().get(mesclado.getOrders().size() - 1).getId());
+        assertEquals("Nova", camada.users().get(camada.userCount() - 1).getName());
+        assertEquals(produtosDoTocado, produtos.leituras, "Consultas ao usuário tocado usam a cópia da camada");
+    }
+
+    @Test
+    void deveReaproveitarOsDtosDaBaseNoLayoutHeap() {
+        // Arrange
+        List<UserDTO> usuarios = agregar(linhas(new Random(42), 200, 20));
+        OrderSnapshot base = OrderSnapshot.of(usuarios, StoreLayout.HEAP);
+        OrderAggregator upload = new OrderAggregator();
+        upload.add(new ParsedLine(usuarios.get(0).getId(), usuarios.get(0).getName(), 9_999L, 1L,
+                new BigDecimal("1.00"), LocalDate.of(2024, 1, 1)));
+
+        // Act
+        OrderSnapshot camada = base.append(upload.getUsers());
+
+        // Assert
+        assertSame(usuarios.get(1), camada.users().get(1));
+        assertNotSame(usuarios.get(0), camada.users().get(0));
+        assertEquals(usuarios.get(0).getOrders().size() + 1, camada.users().get(0).getOrders().size());
+        assertEquals(usuarios.get(0).getOrders().size(), base.users().get(0).getOrders().size(),
+                "Base publicada não deve ser alterada");
+    }
+
+    private static List<ParsedLine> linhas(Random random, int quantidade, int usuarios) {
+        String[] nomes = {"Ana", "Bruno", "Carla", "Ana"};
+        String[] valores = {"10.00", "0.255", "1234.5", "7"};
+        List<ParsedLine> linhas = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            long userId = random.nextInt(usuarios);
+            linhas.add(new ParsedLine(userId, nomes[(int) (userId % nomes.length)], (long) random.nextInt(400),
+                    (long) random.nextInt(1_000_000), new BigDecimal(valores[random.nextInt(valores.length)]),
+                    LocalDate.of(2021, 1, 1).plusDays(random.nextInt(1_000))));
+        }
+        return linhas;
+    }
+
+    private static List<UserDTO> agregar(List<ParsedLine> linhas) {
+        OrderAggregator agregador = new OrderAggregator();
+        linhas.forEach(agregador::add);
+        return agregador.getUsers();
+    }
+
+    private static List<Page<UserDTO>> paginasDeUsuarios(OrderSnapshot snapshot, boolean porNome, boolean decrescente) {
+        List<Page<UserDTO>> paginas = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<UserDTO> pagina = snapshot.usersPage(porNome, decrescente, cursor, 17);
+            paginas.add(pagina);
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+        return paginas;
+    }
+
+    private static List<Page<UserDTO>> paginasDePedidos(OrderSnapshot snapshot, Optional<Long> id,
+                                                        Optional<LocalDate> de, Optional<LocalDate> ate) {
+        List<Page<UserDTO>> paginas = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<UserDTO> pagina = snapshot.findOrdersPage(id, de, ate, cursor, 97);
+            paginas.add(pagina);
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+        return paginas;
+    }
+
+    // snapshot em colunas com a coluna de ids de produto informada, para contar quantos produtos são lidos
+    private static OrderSnapshot colunar(List<UserDTO> usuarios, Column productIds) {
+        int pedidos = usuarios.stream().mapToInt(u -> u.getOrders().size()).sum();
+        Column userIds = Column.longs(usuarios.size(), false);
+        Column userNames = Column.ints(usuarios.size(), false);
+        Column userOrderStart = Column.ints(usuarios.size() + 1, false);
+        Column orderIds = Column.longs(pedidos, false);
+        Column orderProductStart = Column.ints(pedidos + 1, false);
+        Column priceUnscaled = Column.longs(2_000, false);
+        Column priceScale = Column.bytes(2_000, false);
+        String[] nomes = new String[usuarios.size()];
+        int[] epochDays = new int[pedidos];
+        int pedido = 0;
+        int produto = 0;
+        for (int u = 0; u < usuarios.size(); u++) {
+            userIds.set(u, usuarios.get(u).getId());
+            userNames.set(u, u);
+            nomes[u] = usuarios.get(u).getName();
+            userOrderStart.set(u, pedido);
+            for (OrderDTO order : usuarios.get(u).getOrders()) {
+                orderIds.set(pedido, order.getId());
+                epochDays[pedido] = (int) LocalDate.parse(order.getDate()).toEpochDay();
+                orderProductStart.set(pedido++, produto);
+                for (ProductDTO p : order.getProducts()) {
+                    productIds.set(produto, p.getId());
+                    priceUnscaled.set(produto, p.getPrice().unscaledValue().longValue());
+                    priceScale.set(produto++, p.getPrice().scale());
+                }
+            }
+        }
+        userOrderStart.set(usuarios.size(), pedido);
+        orderProductStart.set(pedidos, produto);
+        return new ColumnarOrderSnapshot(usuarios.size(), userIds, userNames, nomes, userOrderStart, orderIds,
+                epochDays, orderProductStart, productIds, priceUnscaled, priceScale, new HashMap<>());
+    }
+
+    private static final class ColunaContada extends Column {
+
+        private final Column valores;
+        private int leituras;
+
+        ColunaContada(int tamanho) {
+            valores = Column.longs(tamanho, false);
+        }
+
+        @Override
+        long get(int index) {
+            leituras++;
+            return valores.get(index);
+        }
+
+        @Override
+        void set(int index, long value) {
+            valores.set(index, value);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return valores.sizeInBytes();
+        }
+    }
+
+    private void assertJsonEquals(Object esperado, Object atual) throws Exception {
+        assertEquals(mapper.writeValueAsString(esperado), mapper.writeValueAsString(atual));
+    }
+}
@@ -0,0 +1,125 @@
+package com.luizalabs.desafio_tecnico.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luizalabs.desafio_tecnico.dto.OrderDTO;
+import com.luizalabs.desafio_tecnico.dto.ParsedLine;
+import com.luizalabs.desafio_tecnico.dto.ProductDTO;
+import com.luizalabs.desafio_tecnico.dto.UserDTO;
+import com.luizalabs.desafio_tecnico.service.OrderAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSnapshotFileTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path diretorio;
+
+    private OrderSnapshot heap;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        OrderAggregator agregador = new OrderAggregator();
+        String[] nomes = {"Ana", "Bruno", "Conceição", "Ana"};
+        String[] valores = {"10.00", "0.255", "1234.5", "7", "99999999999999999999.99"};
+        for (int i = 0; i < 2_000; i++) {
+            long userId = random.nextInt(150);
+            agregador.add(new ParsedLine(userId, nomes[(int) (userId % nomes.length)], (long) random.nextInt(400),
+                    (long) i, new BigDecimal(valores[random.nextInt(valores.length)]),
+                    LocalDate.of(2021, 1, 1).plusDays(random.nextInt(1_000))));
+        }
+        List<UserDTO> users = new ArrayList<>(agregador.getUsers());
+        users.add(usuarioComNulos());
+        heap = OrderSnapshot.of(users, StoreLayout.HEAP);
+    }
+
+    @Test
+    void deveRecarregarSnapshotMapeadoComAsMesmasConsultas() throws Exception {
+        // Arrange
+        Path arquivo = diretorio.resolve("store.snap");
+
+        // Act
+        OrderSnapshotFile.write(heap, arquivo);
+        OrderSnapshot carregado = OrderSnapshotFile.read(arquivo);
+
+        // Assert
+        assertEquals(heap.userCount(), carregado.userCount());
+        assertEquals(heap.orderCount(), carregado.orderCount());
+        assertEquals(heap.productCount(), carregado.productCount());
+        assertJsonEquals(heap.users(), carregado.users());
+        assertJsonEquals(heap.usersSorted(true, true), carregado.usersSorted(true, true));
+        assertJsonEquals(heap.findOrders(Optional.of(7L), Optional.empty(), Optional.empty()),
+                carregado.findOrders(Optional.of(7L), Optional.empty(), Optional.empty()));
+        Optional<LocalDate> de = Optional.of(LocalDate.of(2022, 1, 1));
+        assertJsonEquals(heap.findOrdersPage(Optional.empty(), de, Optional.empty(), null, 50),
+                carregado.findOrdersPage(Optional.empty(), de, Optional.empty(), null, 50));
+
+        // gravar de novo a partir do snapshot mapeado substitui o arquivo sem afetar o que já foi carregado
+        OrderSnapshotFile.write(carregado, arquivo);
+        assertJsonEquals(heap.users(), OrderSnapshotFile.read(arquivo).users());
+        assertJsonEquals(heap.users(), carregado.users());
+        try (var arquivos = Files.list(diretorio)) {
+            assertEquals(List.of(arquivo), arquivos.toList(), "Arquivo temporário deve ser removido");
+        }
+        OrderSnapshotFile.write(OrderSnapshot.EMPTY, arquivo);
+        assertSame(OrderSnapshot.EMPTY, OrderSnapshotFile.read(arquivo));
+    }
+
+    @Test
+    void deveRecusarArquivoCorrompidoOuDeOutraVersao() throws IOException {
+        // Arrange
+        Path arquivo = diretorio.resolve("store.snap");
+        OrderSnapshotFile.write(heap, arquivo);
+        byte[] original = Files.readAllBytes(arquivo);
+
+        byte[] corrompido = original.clone();
+        corrompido[corrompido.length / 2] ^= 1;
+        byte[] outraVersao = original.clone();
+        ByteBuffer.wrap(outraVersao).order(ByteOrder.LITTLE_ENDIAN).putInt(8, OrderSnapshotFile.VERSION + 1);
+
+        // Act / Assert
+        Files.write(arquivo, corrompido);
+        IOException checksum = assertThrows(IOException.class, () -> OrderSnapshotFile.read(arquivo));
+        assertTrue(checksum.getMessage().startsWith("Checksum do snapshot não confere"), checksum.getMessage());
+
+        Files.write(arquivo, outraVersao);
+        IOException versao = assertThrows(IOException.class, () -> OrderSnapshotFile.read(arquivo));
+        assertEquals("Versão de snapshot não suportada: 2 (esperada 1)", versao.getMessage());
+
+        Files.write(arquivo, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> OrderSnapshotFile.read(arquivo));
+    }
+
+    // ids e nome nulos também precisam sobreviver ao arquivo
+    private static UserDTO usuarioComNulos() {
+        ProductDTO produto = new ProductDTO();
+        produto.setPrice(new BigDecimal("3.10"));
+        OrderDTO pedido = new OrderDTO();
+        pedido.setDate("2023-05-01");
+        pedido.setProducts(new ArrayList<>(List.of(produto)));
+        UserDTO usuario = new UserDTO();
+        usuario.setOrders(new ArrayList<>(List.of(pedido)));
+        return usuario;
+    }
+
+    private void assertJsonEquals(Object esperado, Object atual) throws Exception {
+        assertEquals(mapper.writeValueAsString(esperado), mapper.writeValueAsString(atual));
+    }
+}